@@ -0,0 +1,238 @@
+package modules.admin.domain;
+
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlSchemaType;
+import javax.xml.bind.annotation.XmlTransient;
+import javax.xml.bind.annotation.XmlType;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import modules.admin.domain.Audit.Operation;
+import org.skyve.CORE;
+import org.skyve.domain.messages.DomainException;
+import org.skyve.domain.types.DateOnly;
+import org.skyve.impl.domain.AbstractPersistentBean;
+import org.skyve.impl.domain.types.jaxb.DateOnlyMapper;
+
+/**
+ * Audit Activity
+ * <br/>
+ * The number of audits per closed day, user, document and operation, rolled up daily by
+ * jRebuildAuditActivity so that the dashboards only group today's audits.
+ * 
+ * @depend - - - Operation
+ * @stereotype "persistent"
+ */
+@XmlType
+@XmlRootElement
+public class AuditActivity extends AbstractPersistentBean {
+	/**
+	 * For Serialization
+	 * @hidden
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/** @hidden */
+	public static final String MODULE_NAME = "admin";
+
+	/** @hidden */
+	public static final String DOCUMENT_NAME = "AuditActivity";
+
+	/** @hidden */
+	public static final String activityDatePropertyName = "activityDate";
+
+	/** @hidden */
+	public static final String userNamePropertyName = "userName";
+
+	/** @hidden */
+	public static final String auditModuleNamePropertyName = "auditModuleName";
+
+	/** @hidden */
+	public static final String auditDocumentNamePropertyName = "auditDocumentName";
+
+	/** @hidden */
+	public static final String operationPropertyName = "operation";
+
+	/** @hidden */
+	public static final String activityCountPropertyName = "activityCount";
+
+	/**
+	 * Date
+	 **/
+	private DateOnly activityDate;
+
+	/**
+	 * User
+	 **/
+	private String userName;
+
+	/**
+	 * Module
+	 **/
+	private String auditModuleName;
+
+	/**
+	 * Document
+	 **/
+	private String auditDocumentName;
+
+	/**
+	 * Operation
+	 **/
+	private Operation operation;
+
+	/**
+	 * Count
+	 **/
+	private Integer activityCount = Integer.valueOf(0);
+
+	@Override
+	@XmlTransient
+	public String getBizModule() {
+		return AuditActivity.MODULE_NAME;
+	}
+
+	@Override
+	@XmlTransient
+	public String getBizDocument() {
+		return AuditActivity.DOCUMENT_NAME;
+	}
+
+	public static AuditActivity newInstance() {
+		try {
+			return CORE.getUser().getCustomer().getModule(MODULE_NAME).getDocument(CORE.getUser().getCustomer(), DOCUMENT_NAME).newInstance(CORE.getUser());
+		}
+		catch (RuntimeException e) {
+			throw e;
+		}
+		catch (Exception e) {
+			throw new DomainException(e);
+		}
+	}
+
+	@Override
+	@XmlTransient
+	public String getBizKey() {
+		try {
+			return org.skyve.util.Binder.formatMessage("{operation} {auditModuleName}.{auditDocumentName} by {userName} on {activityDate}", this);
+		}
+		catch (@SuppressWarnings("unused") Exception e) {
+			return "Unknown";
+		}
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return ((o instanceof AuditActivity) && 
+					this.getBizId().equals(((AuditActivity) o).getBizId()));
+	}
+
+	/**
+	 * {@link #activityDate} accessor.
+	 * @return	The value.
+	 **/
+	public DateOnly getActivityDate() {
+		return activityDate;
+	}
+
+	/**
+	 * {@link #activityDate} mutator.
+	 * @param activityDate	The new value.
+	 **/
+	@XmlElement
+	@XmlSchemaType(name = "date")
+	@XmlJavaTypeAdapter(DateOnlyMapper.class)
+	public void setActivityDate(DateOnly activityDate) {
+		preset(activityDatePropertyName, activityDate);
+		this.activityDate = activityDate;
+	}
+
+	/**
+	 * {@link #userName} accessor.
+	 * @return	The value.
+	 **/
+	public String getUserName() {
+		return userName;
+	}
+
+	/**
+	 * {@link #userName} mutator.
+	 * @param userName	The new value.
+	 **/
+	@XmlElement
+	public void setUserName(String userName) {
+		preset(userNamePropertyName, userName);
+		this.userName = userName;
+	}
+
+	/**
+	 * {@link #auditModuleName} accessor.
+	 * @return	The value.
+	 **/
+	public String getAuditModuleName() {
+		return auditModuleName;
+	}
+
+	/**
+	 * {@link #auditModuleName} mutator.
+	 * @param auditModuleName	The new value.
+	 **/
+	@XmlElement
+	public void setAuditModuleName(String auditModuleName) {
+		preset(auditModuleNamePropertyName, auditModuleName);
+		this.auditModuleName = auditModuleName;
+	}
+
+	/**
+	 * {@link #auditDocumentName} accessor.
+	 * @return	The value.
+	 **/
+	public String getAuditDocumentName() {
+		return auditDocumentName;
+	}
+
+	/**
+	 * {@link #auditDocumentName} mutator.
+	 * @param auditDocumentName	The new value.
+	 **/
+	@XmlElement
+	public void setAuditDocumentName(String auditDocumentName) {
+		preset(auditDocumentNamePropertyName, auditDocumentName);
+		this.auditDocumentName = auditDocumentName;
+	}
+
+	/**
+	 * {@link #operation} accessor.
+	 * @return	The value.
+	 **/
+	public Operation getOperation() {
+		return operation;
+	}
+
+	/**
+	 * {@link #operation} mutator.
+	 * @param operation	The new value.
+	 **/
+	@XmlElement
+	public void setOperation(Operation operation) {
+		preset(operationPropertyName, operation);
+		this.operation = operation;
+	}
+
+	/**
+	 * {@link #activityCount} accessor.
+	 * @return	The value.
+	 **/
+	public Integer getActivityCount() {
+		return activityCount;
+	}
+
+	/**
+	 * {@link #activityCount} mutator.
+	 * @param activityCount	The new value.
+	 **/
+	@XmlElement
+	public void setActivityCount(Integer activityCount) {
+		preset(activityCountPropertyName, activityCount);
+		this.activityCount = activityCount;
+	}
+}
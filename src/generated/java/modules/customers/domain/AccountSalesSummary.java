@@ -0,0 +1,265 @@
+package modules.customers.domain;
+
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlSchemaType;
+import javax.xml.bind.annotation.XmlTransient;
+import javax.xml.bind.annotation.XmlType;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import org.skyve.CORE;
+import org.skyve.domain.messages.DomainException;
+import org.skyve.domain.types.DateTime;
+import org.skyve.impl.domain.AbstractPersistentBean;
+import org.skyve.impl.domain.types.jaxb.DateTimeMapper;
+
+/**
+ * Account Sales Summary
+ * 
+ * @stereotype "persistent"
+ */
+@XmlType
+@XmlRootElement
+public class AccountSalesSummary extends AbstractPersistentBean {
+	/**
+	 * For Serialization
+	 * @hidden
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/** @hidden */
+	public static final String MODULE_NAME = "customers";
+
+	/** @hidden */
+	public static final String DOCUMENT_NAME = "AccountSalesSummary";
+
+	/** @hidden */
+	public static final String opportunityCountPropertyName = "opportunityCount";
+
+	/** @hidden */
+	public static final String quoteCountPropertyName = "quoteCount";
+
+	/** @hidden */
+	public static final String orderCountPropertyName = "orderCount";
+
+	/** @hidden */
+	public static final String invoiceCountPropertyName = "invoiceCount";
+
+	/** @hidden */
+	public static final String invoiceTotalPropertyName = "invoiceTotal";
+
+	/** @hidden */
+	public static final String lastInteractionTimePropertyName = "lastInteractionTime";
+
+	/** @hidden */
+	public static final String refreshedPropertyName = "refreshed";
+
+	/**
+	 * Number of Opportunities
+	 **/
+	private Integer opportunityCount = Integer.valueOf(0);
+
+	/**
+	 * Number of Quotes
+	 **/
+	private Integer quoteCount = Integer.valueOf(0);
+
+	/**
+	 * Number of Orders
+	 **/
+	private Integer orderCount = Integer.valueOf(0);
+
+	/**
+	 * Number of Invoices
+	 **/
+	private Integer invoiceCount = Integer.valueOf(0);
+
+	/**
+	 * Invoice Total
+	 * <br/>
+	 * The sum of the totals of all invoices for the account
+	 **/
+	private Long invoiceTotal = Long.valueOf(0);
+
+	/**
+	 * Last Interaction
+	 **/
+	private DateTime lastInteractionTime;
+
+	/**
+	 * Refreshed
+	 * <br/>
+	 * When this summary was last recalculated
+	 **/
+	private DateTime refreshed;
+
+	@Override
+	@XmlTransient
+	public String getBizModule() {
+		return AccountSalesSummary.MODULE_NAME;
+	}
+
+	@Override
+	@XmlTransient
+	public String getBizDocument() {
+		return AccountSalesSummary.DOCUMENT_NAME;
+	}
+
+	public static AccountSalesSummary newInstance() {
+		try {
+			return CORE.getUser().getCustomer().getModule(MODULE_NAME).getDocument(CORE.getUser().getCustomer(), DOCUMENT_NAME).newInstance(CORE.getUser());
+		}
+		catch (RuntimeException e) {
+			throw e;
+		}
+		catch (Exception e) {
+			throw new DomainException(e);
+		}
+	}
+
+	@Override
+	@XmlTransient
+	public String getBizKey() {
+		try {
+			return org.skyve.util.Binder.formatMessage("Sales Summary {refreshed}", this);
+		}
+		catch (@SuppressWarnings("unused") Exception e) {
+			return "Unknown";
+		}
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return ((o instanceof AccountSalesSummary) && 
+					this.getBizId().equals(((AccountSalesSummary) o).getBizId()));
+	}
+
+	/**
+	 * {@link #opportunityCount} accessor.
+	 * @return	The value.
+	 **/
+	public Integer getOpportunityCount() {
+		return opportunityCount;
+	}
+
+	/**
+	 * {@link #opportunityCount} mutator.
+	 * @param opportunityCount	The new value.
+	 **/
+	@XmlElement
+	public void setOpportunityCount(Integer opportunityCount) {
+		preset(opportunityCountPropertyName, opportunityCount);
+		this.opportunityCount = opportunityCount;
+	}
+
+	/**
+	 * {@link #quoteCount} accessor.
+	 * @return	The value.
+	 **/
+	public Integer getQuoteCount() {
+		return quoteCount;
+	}
+
+	/**
+	 * {@link #quoteCount} mutator.
+	 * @param quoteCount	The new value.
+	 **/
+	@XmlElement
+	public void setQuoteCount(Integer quoteCount) {
+		preset(quoteCountPropertyName, quoteCount);
+		this.quoteCount = quoteCount;
+	}
+
+	/**
+	 * {@link #orderCount} accessor.
+	 * @return	The value.
+	 **/
+	public Integer getOrderCount() {
+		return orderCount;
+	}
+
+	/**
+	 * {@link #orderCount} mutator.
+	 * @param orderCount	The new value.
+	 **/
+	@XmlElement
+	public void setOrderCount(Integer orderCount) {
+		preset(orderCountPropertyName, orderCount);
+		this.orderCount = orderCount;
+	}
+
+	/**
+	 * {@link #invoiceCount} accessor.
+	 * @return	The value.
+	 **/
+	public Integer getInvoiceCount() {
+		return invoiceCount;
+	}
+
+	/**
+	 * {@link #invoiceCount} mutator.
+	 * @param invoiceCount	The new value.
+	 **/
+	@XmlElement
+	public void setInvoiceCount(Integer invoiceCount) {
+		preset(invoiceCountPropertyName, invoiceCount);
+		this.invoiceCount = invoiceCount;
+	}
+
+	/**
+	 * {@link #invoiceTotal} accessor.
+	 * @return	The value.
+	 **/
+	public Long getInvoiceTotal() {
+		return invoiceTotal;
+	}
+
+	/**
+	 * {@link #invoiceTotal} mutator.
+	 * @param invoiceTotal	The new value.
+	 **/
+	@XmlElement
+	public void setInvoiceTotal(Long invoiceTotal) {
+		preset(invoiceTotalPropertyName, invoiceTotal);
+		this.invoiceTotal = invoiceTotal;
+	}
+
+	/**
+	 * {@link #lastInteractionTime} accessor.
+	 * @return	The value.
+	 **/
+	public DateTime getLastInteractionTime() {
+		return lastInteractionTime;
+	}
+
+	/**
+	 * {@link #lastInteractionTime} mutator.
+	 * @param lastInteractionTime	The new value.
+	 **/
+	@XmlElement
+	@XmlSchemaType(name = "dateTime")
+	@XmlJavaTypeAdapter(DateTimeMapper.class)
+	public void setLastInteractionTime(DateTime lastInteractionTime) {
+		preset(lastInteractionTimePropertyName, lastInteractionTime);
+		this.lastInteractionTime = lastInteractionTime;
+	}
+
+	/**
+	 * {@link #refreshed} accessor.
+	 * @return	The value.
+	 **/
+	public DateTime getRefreshed() {
+		return refreshed;
+	}
+
+	/**
+	 * {@link #refreshed} mutator.
+	 * @param refreshed	The new value.
+	 **/
+	@XmlElement
+	@XmlSchemaType(name = "dateTime")
+	@XmlJavaTypeAdapter(DateTimeMapper.class)
+	public void setRefreshed(DateTime refreshed) {
+		preset(refreshedPropertyName, refreshed);
+		this.refreshed = refreshed;
+	}
+}
@@ -25,6 +25,7 @@ import org.skyve.util.Util;
  * @depend - - - Method
  * @depend - - - Type
  * @navcomposed n interactions 0..n Interaction
+ * @navhas n timeline 0..n Interaction
  * @stereotype "persistent"
  */
 @XmlType
@@ -84,6 +85,9 @@ public abstract class ContactDetail extends AbstractPersistentBean {
 	/** @hidden */
 	public static final String interactionsPropertyName = "interactions";
 
+	/** @hidden */
+	public static final String timelinePropertyName = "timeline";
+
 	/** @hidden */
 	public static final String interactionDescriptionPropertyName = "interactionDescription";
 
@@ -269,6 +273,13 @@ public abstract class ContactDetail extends AbstractPersistentBean {
 	 **/
 	private List<InteractionExtension> interactions = new ChangeTrackingArrayList<>("interactions", this);
 
+	/**
+	 * Interactions
+	 * <br/>
+	 * The most recent interactions, newest first, as shown on the interactions tab
+	 **/
+	private List<InteractionExtension> timeline = new ChangeTrackingArrayList<>("timeline", this);
+
 	/**
 	 * Description
 	 **/
@@ -629,6 +640,66 @@ public abstract class ContactDetail extends AbstractPersistentBean {
 		return interactions.remove(index);
 	}
 
+	/**
+	 * {@link #timeline} accessor.
+	 * @return	The value.
+	 **/
+	@XmlElement
+	public List<InteractionExtension> getTimeline() {
+		return timeline;
+	}
+
+	/**
+	 * {@link #timeline} accessor.
+	 * @param bizId	The bizId of the element in the list.
+	 * @return	The value of the element in the list.
+	 **/
+	public InteractionExtension getTimelineElementById(String bizId) {
+		return getElementById(timeline, bizId);
+	}
+
+	/**
+	 * {@link #timeline} mutator.
+	 * @param bizId	The bizId of the element in the list.
+	 * @param element	The new value of the element in the list.
+	 **/
+	public void setTimelineElementById(String bizId, InteractionExtension element) {
+		setElementById(timeline, element);
+	}
+
+	/**
+	 * {@link #timeline} add.
+	 * @param element	The element to add.
+	 **/
+	public boolean addTimelineElement(InteractionExtension element) {
+		return timeline.add(element);
+	}
+
+	/**
+	 * {@link #timeline} add.
+	 * @param index	The index in the list to add the element to.
+	 * @param element	The element to add.
+	 **/
+	public void addTimelineElement(int index, InteractionExtension element) {
+		timeline.add(index, element);
+	}
+
+	/**
+	 * {@link #timeline} remove.
+	 * @param element	The element to remove.
+	 **/
+	public boolean removeTimelineElement(InteractionExtension element) {
+		return timeline.remove(element);
+	}
+
+	/**
+	 * {@link #timeline} remove.
+	 * @param index	The index in the list to remove the element from.
+	 **/
+	public InteractionExtension removeTimelineElement(int index) {
+		return timeline.remove(index);
+	}
+
 	/**
 	 * {@link #interactionDescription} accessor.
 	 * @return	The value.
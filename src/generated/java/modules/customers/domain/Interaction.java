@@ -61,6 +61,12 @@ public abstract class Interaction extends AbstractPersistentBean {
 	/** @hidden */
 	public static final String documentPropertyName = "document";
 
+	/** @hidden */
+	public static final String pendingOwnerDocumentPropertyName = "pendingOwnerDocument";
+
+	/** @hidden */
+	public static final String pendingOwnerIdPropertyName = "pendingOwnerId";
+
 	/** @hidden */
 	public static final String interactionTemplatePropertyName = "interactionTemplate";
 
@@ -180,6 +186,20 @@ public abstract class Interaction extends AbstractPersistentBean {
 	 **/
 	private String document;
 
+	/**
+	 * Pending Owner Document
+	 * <br/>
+	 * The document (Account or ContactDetail) this interaction is queued to be linked to
+	 **/
+	private String pendingOwnerDocument;
+
+	/**
+	 * Pending Owner
+	 * <br/>
+	 * The bizId of the owner this interaction is queued to be linked to
+	 **/
+	private String pendingOwnerId;
+
 	/**
 	 * Interactions
 	 **/
@@ -338,6 +358,40 @@ public abstract class Interaction extends AbstractPersistentBean {
 		this.document = document;
 	}
 
+	/**
+	 * {@link #pendingOwnerDocument} accessor.
+	 * @return	The value.
+	 **/
+	public String getPendingOwnerDocument() {
+		return pendingOwnerDocument;
+	}
+
+	/**
+	 * {@link #pendingOwnerDocument} mutator.
+	 * @param pendingOwnerDocument	The new value.
+	 **/
+	@XmlElement
+	public void setPendingOwnerDocument(String pendingOwnerDocument) {
+		this.pendingOwnerDocument = pendingOwnerDocument;
+	}
+
+	/**
+	 * {@link #pendingOwnerId} accessor.
+	 * @return	The value.
+	 **/
+	public String getPendingOwnerId() {
+		return pendingOwnerId;
+	}
+
+	/**
+	 * {@link #pendingOwnerId} mutator.
+	 * @param pendingOwnerId	The new value.
+	 **/
+	@XmlElement
+	public void setPendingOwnerId(String pendingOwnerId) {
+		this.pendingOwnerId = pendingOwnerId;
+	}
+
 	/**
 	 * {@link #interactionTemplate} accessor.
 	 * @return	The value.
@@ -0,0 +1,19 @@
+package modules.customers.domain;
+
+import org.skyve.util.DataBuilder;
+import org.skyve.util.test.SkyveFixture.FixtureType;
+import util.AbstractDomainTest;
+
+/**
+ * Generated - local changes will be overwritten.
+ * Extend {@link AbstractDomainTest} to create your own tests for this document.
+ */
+public class AccountSalesSummaryTest extends AbstractDomainTest<AccountSalesSummary> {
+
+	@Override
+	protected AccountSalesSummary getBean() throws Exception {
+		return new DataBuilder()
+			.fixture(FixtureType.crud)
+			.build(AccountSalesSummary.MODULE_NAME, AccountSalesSummary.DOCUMENT_NAME);
+	}
+}
\ No newline at end of file
@@ -25,8 +25,8 @@ import org.skyve.metadata.view.model.comparison.ComparisonProperty;
 import org.skyve.persistence.Persistence;
 import org.skyve.util.Binder;
 import org.skyve.util.Binder.TargetMetaData;
-import org.skyve.util.JSON;
 
+import modules.admin.AuditDetails;
 import modules.admin.domain.Audit;
 import modules.admin.domain.Audit.Operation;
 
@@ -54,8 +54,7 @@ public class AuditComparisonModel extends ComparisonModel<Audit, Audit> {
 		final Map<String, ComparisonComposite> bindingToNodes = new LinkedHashMap<>();
 		
 		// Visit the source audit record
-		@SuppressWarnings("unchecked")
-		Map<String, Object> source = (Map<String, Object>) JSON.unmarshall(u, sourceVersion.getAuditDetail());
+		Map<String, Object> source = AuditDetails.reconstruct(u, sourceVersion);
 		for (String binding : source.keySet()) {
 			@SuppressWarnings("unchecked")
 			Map<String, Object> sourceValues = (Map<String, Object>) source.get(binding);
@@ -83,8 +82,7 @@ public class AuditComparisonModel extends ComparisonModel<Audit, Audit> {
 		
 		// Visit the comparison audit record, if there is one
 		if (comparisonVersion != null) {
-			@SuppressWarnings("unchecked")
-			Map<String, Object> compare = (Map<String, Object>) JSON.unmarshall(u, comparisonVersion.getAuditDetail());
+			Map<String, Object> compare = AuditDetails.reconstruct(u, comparisonVersion);
 			for (String binding : compare.keySet()) {
 				ComparisonComposite node = bindingToNodes.get(binding);
 				@SuppressWarnings("unchecked")
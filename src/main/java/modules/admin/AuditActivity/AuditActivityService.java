@@ -0,0 +1,236 @@
+package modules.admin.AuditActivity;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.skyve.CORE;
+import org.skyve.domain.Bean;
+import org.skyve.domain.types.DateOnly;
+import org.skyve.metadata.SortDirection;
+import org.skyve.metadata.view.model.chart.ChartBuilder;
+import org.skyve.metadata.view.model.chart.ChartData;
+import org.skyve.metadata.view.model.chart.OrderBy;
+import org.skyve.metadata.view.model.chart.TemporalBucket;
+import org.skyve.metadata.view.model.chart.TemporalBucket.TemporalBucketType;
+import org.skyve.persistence.DocumentQuery;
+import org.skyve.persistence.DocumentQuery.AggregateFunction;
+import org.skyve.persistence.Persistence;
+
+import modules.admin.domain.Audit;
+import modules.admin.domain.Audit.Operation;
+import modules.admin.domain.AuditActivity;
+
+/**
+ * Charts the daily audit counts in AuditActivity.
+ * <p>
+ * AuditActivity holds the counts of closed days only, rolled up from the audit log by {@link RebuildAuditActivityJob}
+ * once a day, so that saving a bean does not also write a count. The activity charts add today's counts to them,
+ * counted from the audits of today when the chart is drawn.
+ */
+public final class AuditActivityService {
+	/**
+	 * The number of days shown by the activity dashboards, including today.
+	 */
+	public static final int DASHBOARD_DAYS = 14;
+
+	/**
+	 * The number of documents shown by the activity by context charts, before the rest are added together.
+	 */
+	private static final int CONTEXT_TOP = 6;
+
+	private AuditActivityService() {
+		// static methods only
+	}
+
+	/**
+	 * Add a rolled up count for a closed day, user, document and operation.
+	 */
+	static void add(Persistence p,
+						DateOnly day,
+						String userName,
+						String moduleName,
+						String documentName,
+						Operation operation,
+						int count) {
+		AuditActivity a = AuditActivity.newInstance();
+		a.setActivityDate(day);
+		a.setUserName(userName);
+		a.setAuditModuleName(moduleName);
+		a.setAuditDocumentName(documentName);
+		a.setOperation(operation);
+		a.setActivityCount(Integer.valueOf(count));
+		p.upsertBeanTuple(a);
+	}
+
+	/**
+	 * Chart the activity of each day shown by the dashboards.
+	 * The caller sets the document permission scopes that can read Audit and AuditActivity.
+	 *
+	 * @param userName	The user to chart, or null for every user.
+	 */
+	public static ChartData dailyActivity(String userName, String title, String label) {
+		ChartBuilder closed = new ChartBuilder();
+		closed.with(closedQuery(userName));
+		closed.category(AuditActivity.activityDatePropertyName, new TemporalBucket(TemporalBucketType.dayMonthYear));
+		closed.value(AuditActivity.activityCountPropertyName, AggregateFunction.Sum);
+		closed.top(DASHBOARD_DAYS, OrderBy.category, SortDirection.descending, false);
+		closed.orderBy(OrderBy.category, SortDirection.ascending);
+		ChartData result = closed.build(title, label);
+
+		ChartBuilder today = new ChartBuilder();
+		today.with(todayQuery(userName));
+		today.category(Audit.timestampPropertyName, new TemporalBucket(TemporalBucketType.dayMonthYear));
+		today.value(Bean.DOCUMENT_ID, AggregateFunction.Count);
+		ChartData todayData = today.build(title, label);
+
+		// today comes after every closed day
+		List<String> labels = new ArrayList<>(result.getLabels());
+		List<Number> values = new ArrayList<>(result.getValues());
+		labels.addAll(todayData.getLabels());
+		values.addAll(todayData.getValues());
+		return merged(result, todayData, labels, values);
+	}
+
+	/**
+	 * Chart the activity of the days shown by the dashboards by document, for the first documents by name
+	 * and then the rest added together.
+	 * The caller sets the document permission scopes that can read Audit and AuditActivity.
+	 *
+	 * @param userName	The user to chart, or null for every user.
+	 */
+	public static ChartData activityByContext(String userName, String title, String label) {
+		ChartBuilder closed = new ChartBuilder();
+		closed.with(closedQuery(userName));
+		closed.category(AuditActivity.auditDocumentNamePropertyName);
+		closed.value(AuditActivity.activityCountPropertyName, AggregateFunction.Sum);
+		closed.top(CONTEXT_TOP, OrderBy.category, SortDirection.ascending, true);
+		closed.orderBy(OrderBy.category, SortDirection.ascending);
+		ChartData result = closed.build(title, label);
+
+		ChartBuilder today = new ChartBuilder();
+		today.with(todayQuery(userName));
+		today.category(Audit.auditDocumentNamePropertyName);
+		today.value(Bean.DOCUMENT_ID, AggregateFunction.Count);
+		today.top(CONTEXT_TOP, OrderBy.category, SortDirection.ascending, true);
+		today.orderBy(OrderBy.category, SortDirection.ascending);
+		ChartData todayData = today.build(title, label);
+
+		// The first documents by name of both charts are the first of each chart, so they are added together.
+		// Anything after them in either chart is the rest added together.
+		Map<String, Long> documents = new TreeMap<>();
+		long total = 0L;
+		String others = null;
+		for (ChartData data : new ChartData[] {result, todayData}) {
+			List<String> dataLabels = data.getLabels();
+			int i = 0;
+			for (Number value : data.getValues()) {
+				long count = (value == null) ? 0L : value.longValue();
+				total += count;
+				if (i < CONTEXT_TOP) {
+					documents.merge(dataLabels.get(i), Long.valueOf(count), Long::sum);
+				}
+				else if (others == null) {
+					others = dataLabels.get(i);
+				}
+				i++;
+			}
+		}
+
+		List<String> labels = new ArrayList<>(CONTEXT_TOP + 1);
+		List<Number> values = new ArrayList<>(CONTEXT_TOP + 1);
+		long shown = 0L;
+		for (Map.Entry<String, Long> document : documents.entrySet()) {
+			if (labels.size() == CONTEXT_TOP) {
+				break;
+			}
+			labels.add(document.getKey());
+			values.add(document.getValue());
+			shown += document.getValue().longValue();
+		}
+		if (total > shown) {
+			labels.add((others == null) ? "Other" : others);
+			values.add(Long.valueOf(total - shown));
+		}
+		return merged(result, todayData, labels, values);
+	}
+
+	/**
+	 * @return	The first day shown by the activity dashboards, worked out when called.
+	 */
+	public static DateOnly dashboardStart() {
+		Calendar start = Calendar.getInstance();
+		start.add(Calendar.DATE, 1 - DASHBOARD_DAYS);
+		return day(start.getTimeInMillis());
+	}
+
+	/**
+	 * The day of the given time, in the server's time zone.
+	 */
+	static DateOnly day(long millis) {
+		Calendar day = Calendar.getInstance();
+		day.setTimeInMillis(millis);
+		day.set(Calendar.HOUR_OF_DAY, 0);
+		day.set(Calendar.MINUTE, 0);
+		day.set(Calendar.SECOND, 0);
+		day.set(Calendar.MILLISECOND, 0);
+		return new DateOnly(day.getTimeInMillis());
+	}
+
+	/**
+	 * The rolled up counts of the closed days shown by the dashboards.
+	 */
+	private static DocumentQuery closedQuery(String userName) {
+		DocumentQuery q = CORE.getPersistence().newDocumentQuery(AuditActivity.MODULE_NAME, AuditActivity.DOCUMENT_NAME);
+		q.getFilter().addGreaterThanOrEqualTo(AuditActivity.activityDatePropertyName, dashboardStart());
+		q.getFilter().addLessThan(AuditActivity.activityDatePropertyName, day(System.currentTimeMillis()));
+		if (userName != null) {
+			q.getFilter().addEquals(AuditActivity.userNamePropertyName, userName);
+		}
+		return q;
+	}
+
+	/**
+	 * The audits of today, which are not rolled up yet.
+	 */
+	private static DocumentQuery todayQuery(String userName) {
+		DocumentQuery q = CORE.getPersistence().newDocumentQuery(Audit.MODULE_NAME, Audit.DOCUMENT_NAME);
+		q.getFilter().addGreaterThanOrEqualTo(Audit.millisPropertyName, Long.valueOf(day(System.currentTimeMillis()).getTime()));
+		if (userName != null) {
+			q.getFilter().addEquals(Audit.userNamePropertyName, userName);
+		}
+		return q;
+	}
+
+	/**
+	 * Put the merged labels and values into the closed days' chart, with a colour for each value.
+	 */
+	private static ChartData merged(ChartData closed, ChartData today, List<String> labels, List<Number> values) {
+		closed.setLabels(labels);
+		closed.setValues(values);
+		closed.setBackgrounds(colours(closed.getBackgrounds(), today.getBackgrounds(), labels.size()));
+		closed.setBorders(colours(closed.getBorders(), today.getBorders(), labels.size()));
+		return closed;
+	}
+
+	/**
+	 * The colours of the chart with the most values, repeated or cut to the number of values.
+	 */
+	private static <C> List<C> colours(List<C> closed, List<C> today, int size) {
+		List<C> colours = closed;
+		if ((colours == null) || colours.isEmpty() || ((today != null) && (today.size() > colours.size()))) {
+			colours = today;
+		}
+		if ((colours == null) || colours.isEmpty()) {
+			return colours;
+		}
+
+		List<C> result = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			result.add(colours.get(i % colours.size()));
+		}
+		return result;
+	}
+}
@@ -0,0 +1,195 @@
+package modules.admin.AuditActivity;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.skyve.CORE;
+import org.skyve.domain.types.DateOnly;
+import org.skyve.job.Job;
+import org.skyve.metadata.customer.Customer;
+import org.skyve.persistence.AutoClosingIterable;
+import org.skyve.persistence.BizQL;
+import org.skyve.persistence.DocumentQuery;
+import org.skyve.persistence.DocumentQuery.AggregateFunction;
+import org.skyve.persistence.Persistence;
+
+import modules.admin.domain.Audit;
+import modules.admin.domain.Audit.Operation;
+import modules.admin.domain.AuditActivity;
+
+/**
+ * Rolls up the audit log into AuditActivity for the closed days, every day before today.
+ * <p>
+ * Schedule it to run daily soon after midnight, as the activity charts only count today from the audits.
+ * The first run counts every audit. Later runs recount from the last day rolled up, so a day that was
+ * rolled up before it closed, or that a run missed, is counted again in full.
+ */
+public class RebuildAuditActivityJob extends Job {
+	/**
+	 * The number of AuditActivity rows written in each transaction.
+	 */
+	private static final int COMMIT_SIZE = 500;
+
+	private volatile boolean cancelled = false;
+
+	@Override
+	public String cancel() {
+		cancelled = true;
+		return null;
+	}
+
+	@Override
+	public void execute() throws Exception {
+		List<String> log = getLog();
+		log.add("Started Audit Activity rebuild at " + new Date());
+
+		Persistence pers = CORE.getPersistence();
+		Customer customer = pers.getUser().getCustomer();
+		DateOnly today = AuditActivityService.day(System.currentTimeMillis());
+
+		// carry on from the last day rolled up
+		DocumentQuery last = pers.newDocumentQuery(AuditActivity.MODULE_NAME, AuditActivity.DOCUMENT_NAME);
+		last.addAggregateProjection(AggregateFunction.Max, AuditActivity.activityDatePropertyName, "lastDate");
+		Date lastDate = last.scalarResult(Date.class);
+		DateOnly from = (lastDate == null) ? null : AuditActivityService.day(lastDate.getTime());
+		if (from != null) {
+			log.add("Rolling up the audits from " + from);
+		}
+
+		// count by day, user, document and operation while streaming the audits
+		DocumentQuery q = pers.newDocumentQuery(Audit.MODULE_NAME, Audit.DOCUMENT_NAME);
+		if (from != null) {
+			q.getFilter().addGreaterThanOrEqualTo(Audit.millisPropertyName, Long.valueOf(from.getTime()));
+		}
+		q.getFilter().addLessThan(Audit.millisPropertyName, Long.valueOf(today.getTime()));
+		q.addBoundProjection(Audit.millisPropertyName);
+		q.addBoundProjection(Audit.userNamePropertyName);
+		q.addBoundProjection(Audit.auditModuleNamePropertyName);
+		q.addBoundProjection(Audit.auditDocumentNamePropertyName);
+		q.addBoundProjection(Audit.operationPropertyName);
+
+		SortedMap<Long, Map<ActivityKey, int[]>> days = new TreeMap<>();
+		int audits = 0;
+		try (AutoClosingIterable<Object[]> i = q.tupleIterable()) {
+			for (Object[] row : i) {
+				if (cancelled) {
+					log.add("Cancelled after reading " + audits + " audits - no Audit Activity was changed");
+					return;
+				}
+				long day = AuditActivityService.day(((Number) row[0]).longValue()).getTime();
+				ActivityKey key = new ActivityKey((String) row[1],
+													(String) row[2],
+													(String) row[3],
+													(Operation) row[4]);
+				days.computeIfAbsent(Long.valueOf(day), d -> new HashMap<>()).computeIfAbsent(key, k -> new int[1])[0]++;
+				audits++;
+			}
+		}
+		log.add(String.format("Read %d audits", Integer.valueOf(audits)));
+
+		// Replace each day's rows in the transaction that writes its counts, so that a cancelled
+		// rebuild leaves every day either as it was or completely recounted.
+		// Each delete covers the days since the previous counted day, to remove the rows of days without audits.
+		BizQL delete = pers.newBizQL(String.format("delete from {%s.%s} as a where a.%s > :after and a.%s < :before and a.bizCustomer = :bizCustomer",
+														AuditActivity.MODULE_NAME,
+														AuditActivity.DOCUMENT_NAME,
+														AuditActivity.activityDatePropertyName,
+														AuditActivity.activityDatePropertyName));
+		delete.putParameter("bizCustomer", customer.getName());
+
+		DateOnly after = (from == null) ? new DateOnly(0L) : new DateOnly(from.getTime() - 1L);
+		int removed = 0;
+		int written = 0;
+		int uncommitted = 0;
+		float size = days.size();
+		int recounted = 0;
+		for (Map.Entry<Long, Map<ActivityKey, int[]>> entry : days.entrySet()) {
+			if (cancelled) {
+				pers.rollback();
+				log.add(String.format("Cancelled after recounting %d of %d days - run the job again to complete the rebuild",
+										Integer.valueOf(recounted),
+										Integer.valueOf(days.size())));
+				return;
+			}
+
+			DateOnly date = new DateOnly(entry.getKey().longValue());
+			removed += deleteBetween(delete, after, new DateOnly(date.getTime() + 1L));
+			for (Map.Entry<ActivityKey, int[]> count : entry.getValue().entrySet()) {
+				ActivityKey key = count.getKey();
+				AuditActivityService.add(pers,
+											date,
+											key.userName,
+											key.moduleName,
+											key.documentName,
+											key.operation,
+											count.getValue()[0]);
+				written++;
+				uncommitted++;
+			}
+			after = date;
+			recounted++;
+
+			if (uncommitted >= COMMIT_SIZE) {
+				pers.commit(false);
+				pers.evictAllCached();
+				pers.begin();
+				uncommitted = 0;
+				setPercentComplete((int) (recounted / size * 100F));
+			}
+		}
+		removed += deleteBetween(delete, after, today);
+
+		setPercentComplete(100);
+		log.add(String.format("Removed %d Audit Activity rows", Integer.valueOf(removed)));
+		log.add(String.format("Wrote %d Audit Activity rows", Integer.valueOf(written)));
+		log.add("Finished Audit Activity rebuild at " + new Date());
+	}
+
+	/**
+	 * Removes the rows of the days strictly between after and before.
+	 */
+	private static int deleteBetween(BizQL delete, DateOnly after, DateOnly before) {
+		delete.putParameter("after", after);
+		delete.putParameter("before", before);
+		return delete.execute();
+	}
+
+	private static final class ActivityKey {
+		private final String userName;
+		private final String moduleName;
+		private final String documentName;
+		private final Operation operation;
+
+		ActivityKey(String userName, String moduleName, String documentName, Operation operation) {
+			this.userName = userName;
+			this.moduleName = moduleName;
+			this.documentName = documentName;
+			this.operation = operation;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(userName, moduleName, documentName, operation);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (! (obj instanceof ActivityKey)) {
+				return false;
+			}
+			ActivityKey other = (ActivityKey) obj;
+			return Objects.equals(userName, other.userName) &&
+					Objects.equals(moduleName, other.moduleName) &&
+					Objects.equals(documentName, other.documentName) &&
+					(operation == other.operation);
+		}
+	}
+}
@@ -0,0 +1,375 @@
+package modules.admin;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.skyve.CORE;
+import org.skyve.domain.Bean;
+import org.skyve.impl.util.UtilImpl;
+import org.skyve.metadata.customer.Customer;
+import org.skyve.metadata.module.Module;
+import org.skyve.metadata.user.User;
+import org.skyve.persistence.AutoClosingIterable;
+import org.skyve.persistence.Persistence;
+import org.skyve.persistence.SQL;
+import org.skyve.util.JSON;
+
+import modules.admin.domain.Audit;
+import modules.admin.domain.Audit.Operation;
+
+/**
+ * Reads and writes the auditDetail of an Audit.
+ * <p>
+ * Audit details used to be a JSON snapshot of the audited bean graph - a map of binding to a map of attribute values.
+ * New updates are stored as a delta against the previous version of the same bean, holding only the nodes and
+ * attributes that changed, and every {@link #SNAPSHOT_INTERVAL} versions (and on insert and delete) a full snapshot
+ * is stored instead. Both are gzipped and base64 encoded behind a prefix; details without a prefix are the original
+ * JSON snapshots and are read as they always were.
+ * <p>
+ * In a delta, a node with a bizId replaces the previous node at that binding, a node without one is merged into it
+ * and a null node means the binding no longer exists.
+ * <p>
+ * Previous audits are read with SQL, as the audit interceptor runs for users without access to the Audit document.
+ * The latest state of recently audited beans is kept so that most updates are encoded without reading any details.
+ * Audits removed by a truncation are folded into the next remaining audit of the bean by
+ * {@link #snapshotsForTruncation(User, Customer, List)}, so a delta always has its base.
+ */
+public final class AuditDetails {
+	/**
+	 * The greatest number of versions between full snapshots.
+	 */
+	public static final int SNAPSHOT_INTERVAL = 10;
+
+	/**
+	 * The most beans whose latest audited state is kept.
+	 */
+	private static final int MAX_LATEST_STATES = 1000;
+
+	/**
+	 * The prefix of an auditDetail stored as a delta.
+	 */
+	public static final String DELTA_PREFIX = "D:";
+
+	private static final String SNAPSHOT_PREFIX = "S:";
+
+	/**
+	 * The latest audited state of a bean.
+	 */
+	private static final class LatestState {
+		private final String auditId;
+		private final int deltas;
+		private final Map<String, Object> state;
+
+		private LatestState(String auditId, int deltas, Map<String, Object> state) {
+			this.auditId = auditId;
+			this.deltas = deltas;
+			this.state = state;
+		}
+	}
+
+	// the state recorded by the latest audit of recently audited beans by customer and bizId
+	// an entry is only used while its audit is still the bean's latest, so the state of a rolled back audit is never a base
+	private static final Map<String, LatestState> LATEST_STATES = Collections.synchronizedMap(new LinkedHashMap<String, LatestState>(256, 0.75f, true) {
+		private static final long serialVersionUID = -3204650911538436390L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, LatestState> eldest) {
+			return size() > MAX_LATEST_STATES;
+		}
+	});
+
+	private AuditDetails() {
+		// static methods only
+	}
+
+	/**
+	 * Encode the snapshot of a bean graph for a new audit, as a delta against the bean's previous audit where possible.
+	 *
+	 * @param c	The customer.
+	 * @param audit	The new audit, with its bizId, operation and millis set.
+	 * @param snapshot	The audited state from {@link AuditJSONGenerator#getAudit()}.
+	 * @return	The value for the audit's auditDetail.
+	 */
+	public static String encode(Customer c, Audit audit, Map<String, Object> snapshot) throws Exception {
+		String key = c.getName() + '/' + audit.getAuditBizId();
+		if (Operation.delete.equals(audit.getOperation())) {
+			LATEST_STATES.remove(key);
+			return SNAPSHOT_PREFIX + compress(JSON.marshall(c, snapshot));
+		}
+
+		String result = null;
+		int deltas = 0;
+		if (Operation.update.equals(audit.getOperation())) {
+			Persistence p = CORE.getPersistence();
+			List<Object[]> chain = chain(p, c, audit.getAuditBizId(), audit.getMillis().longValue(), true);
+			if (! chain.isEmpty()) {
+				Map<String, Object> previous = null;
+				LatestState latest = LATEST_STATES.get(key);
+				if ((latest != null) && latest.auditId.equals(chain.get(0)[0])) {
+					previous = latest.state;
+					deltas = latest.deltas;
+				}
+				else {
+					chain = chain(p, c, audit.getAuditBizId(), audit.getMillis().longValue(), false);
+					if (isSnapshot((String) chain.get(chain.size() - 1)[1])) {
+						previous = replay(p.getUser(), chain);
+						deltas = chain.size() - 1;
+					}
+				}
+
+				if ((previous != null) && ((deltas + 1) < SNAPSHOT_INTERVAL)) {
+					result = DELTA_PREFIX + compress(JSON.marshall(c, delta(previous, snapshot)));
+					deltas++;
+				}
+			}
+		}
+
+		if (result == null) {
+			result = SNAPSHOT_PREFIX + compress(JSON.marshall(c, snapshot));
+			deltas = 0;
+		}
+		LATEST_STATES.put(key, new LatestState(audit.getBizId(), deltas, snapshot));
+		return result;
+	}
+
+	/**
+	 * Reconstruct the full snapshot of the bean graph recorded by an audit, whatever format it was stored in.
+	 *
+	 * @param u	The user.
+	 * @param audit	The audit to reconstruct.
+	 * @return	A map of binding to a map of attribute name to serialised value.
+	 */
+	public static Map<String, Object> reconstruct(User u, Audit audit) throws Exception {
+		String detail = audit.getAuditDetail();
+		if (! detail.startsWith(DELTA_PREFIX)) {
+			return decode(u, detail);
+		}
+
+		// drop any audit at the same millis that sorted ahead of this one
+		List<Object[]> chain = chain(CORE.getPersistence(), u.getCustomer(), audit.getAuditBizId(), audit.getMillis().longValue(), false);
+		while ((! chain.isEmpty()) && (! audit.getBizId().equals(chain.get(0)[0]))) {
+			chain.remove(0);
+		}
+		if (chain.isEmpty()) {
+			chain.add(new Object[] {audit.getBizId(), detail});
+		}
+		return replay(u, chain);
+	}
+
+	/**
+	 * Work out the audits of a bean to rewrite as full snapshots before some of its audits are deleted,
+	 * so that the remaining deltas can still be reconstructed.
+	 * <p>
+	 * The audits are replayed oldest first, including those to be deleted, and the first remaining delta after
+	 * any deleted audit is given the full state at that point.
+	 *
+	 * @param u	The user.
+	 * @param c	The customer.
+	 * @param audits	All the audits of one bean, oldest first, as {bizId, auditDetail, deleted} where deleted is true
+	 * 					for the audits about to be deleted.
+	 * @return	The new auditDetail by audit bizId.
+	 */
+	public static Map<String, String> snapshotsForTruncation(User u, Customer c, List<Object[]> audits) throws Exception {
+		Map<String, String> result = new TreeMap<>();
+		Map<String, Object> state = new TreeMap<>();
+		boolean broken = false;
+		for (Object[] audit : audits) {
+			String detail = (String) audit[1];
+			boolean snapshot = isSnapshot(detail);
+			if (snapshot) {
+				state = decode(u, detail);
+			}
+			else if (detail != null) {
+				apply(state, decode(u, detail));
+			}
+
+			if (Boolean.TRUE.equals(audit[2])) {
+				broken = true;
+			}
+			else if (snapshot) {
+				broken = false;
+			}
+			else if (broken) {
+				result.put((String) audit[0], SNAPSHOT_PREFIX + compress(JSON.marshall(c, state)));
+				broken = false;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Forget the latest states kept, for when audits are changed in bulk.
+	 */
+	public static void forgetLatestStates() {
+		LATEST_STATES.clear();
+	}
+
+	/**
+	 * The audits of a bean up to the given millis, newest first, back to and including the latest full snapshot,
+	 * as {bizId, auditDetail}.
+	 * Audits written before truncations kept their base may have lost it, in which case the oldest remaining delta is
+	 * used as the base.
+	 *
+	 * @param latestOnly	Only read the bizId of the latest audit.
+	 */
+	private static List<Object[]> chain(Persistence p, Customer c, String auditBizId, long millis, boolean latestOnly) {
+		Module m = c.getModule(Audit.MODULE_NAME);
+		@SuppressWarnings("null")
+		String persistentIdentifier = m.getDocument(c, Audit.DOCUMENT_NAME).getPersistent().getPersistentIdentifier();
+
+		StringBuilder sql = new StringBuilder(256);
+		sql.append("select ").append(Bean.DOCUMENT_ID);
+		if (! latestOnly) {
+			sql.append(", ").append(Audit.auditDetailPropertyName);
+		}
+		sql.append(" from ").append(persistentIdentifier);
+		sql.append(" where ").append(Audit.auditBizIdPropertyName).append(" = :").append(Audit.auditBizIdPropertyName);
+		sql.append(" and ").append(Audit.millisPropertyName).append(" <= :").append(Audit.millisPropertyName);
+		if (UtilImpl.CUSTOMER == null) { // multi-tenant
+			sql.append(" and ").append(Bean.CUSTOMER_NAME).append(" = :").append(Bean.CUSTOMER_NAME);
+		}
+		sql.append(" order by ").append(Audit.millisPropertyName).append(" desc, ").append(Bean.DOCUMENT_ID).append(" desc");
+
+		SQL q = p.newSQL(sql.toString());
+		q.putParameter(Audit.auditBizIdPropertyName, auditBizId, false);
+		q.putParameter(Audit.millisPropertyName, Long.valueOf(millis));
+		if (UtilImpl.CUSTOMER == null) { // multi-tenant
+			q.putParameter(Bean.CUSTOMER_NAME, c.getName(), false);
+		}
+
+		List<Object[]> result = new ArrayList<>(SNAPSHOT_INTERVAL);
+		if (latestOnly) {
+			try (AutoClosingIterable<String> i = q.scalarIterable(String.class)) {
+				for (String bizId : i) {
+					result.add(new Object[] {bizId});
+					break;
+				}
+			}
+		}
+		else {
+			try (AutoClosingIterable<Object[]> i = q.tupleIterable()) {
+				for (Object[] row : i) {
+					result.add(new Object[] {row[0], row[1]});
+					if (isSnapshot((String) row[1]) || (result.size() == SNAPSHOT_INTERVAL)) {
+						break;
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Apply a newest first chain of audits from its oldest entry forwards.
+	 */
+	private static Map<String, Object> replay(User u, List<Object[]> chain) throws Exception {
+		Map<String, Object> result = new TreeMap<>();
+		for (int i = chain.size() - 1; i >= 0; i--) {
+			String detail = (String) chain.get(i)[1];
+			if (isSnapshot(detail)) {
+				result = decode(u, detail);
+			}
+			else {
+				apply(result, decode(u, detail));
+			}
+		}
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void apply(Map<String, Object> state, Map<String, Object> delta) {
+		for (Map.Entry<String, Object> entry : delta.entrySet()) {
+			String binding = entry.getKey();
+			Map<String, Object> node = (Map<String, Object>) entry.getValue();
+			if (node == null) {
+				state.remove(binding);
+			}
+			else if (node.containsKey(Bean.DOCUMENT_ID)) {
+				state.put(binding, node);
+			}
+			else {
+				Map<String, Object> existing = (Map<String, Object>) state.get(binding);
+				if (existing == null) {
+					state.put(binding, node);
+				}
+				else {
+					existing.putAll(node);
+				}
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> delta(Map<String, Object> previous, Map<String, Object> current) {
+		Map<String, Object> result = new TreeMap<>();
+		for (String binding : previous.keySet()) {
+			if (! current.containsKey(binding)) {
+				result.put(binding, null);
+			}
+		}
+
+		for (Map.Entry<String, Object> entry : current.entrySet()) {
+			String binding = entry.getKey();
+			Map<String, Object> node = (Map<String, Object>) entry.getValue();
+			Map<String, Object> previousNode = (Map<String, Object>) previous.get(binding);
+			if ((previousNode == null) ||
+					(! Objects.equals(previousNode.get(Bean.DOCUMENT_ID), node.get(Bean.DOCUMENT_ID))) ||
+					(! node.keySet().containsAll(previousNode.keySet()))) {
+				// a different bean or a different shape - replace the node
+				result.put(binding, node);
+			}
+			else {
+				Map<String, Object> changes = new TreeMap<>();
+				for (Map.Entry<String, Object> value : node.entrySet()) {
+					String name = value.getKey();
+					if (! Objects.equals(previousNode.get(name), value.getValue())) {
+						changes.put(name, value.getValue());
+					}
+				}
+				if (! changes.isEmpty()) {
+					result.put(binding, changes);
+				}
+			}
+		}
+		return result;
+	}
+
+	private static boolean isSnapshot(String detail) {
+		return (detail != null) && (! detail.startsWith(DELTA_PREFIX));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> decode(User u, String detail) throws Exception {
+		String json = detail;
+		if (detail.startsWith(SNAPSHOT_PREFIX) || detail.startsWith(DELTA_PREFIX)) {
+			json = decompress(detail.substring(2));
+		}
+		return (Map<String, Object>) JSON.unmarshall(u, json);
+	}
+
+	private static String compress(String json) throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length() / 4);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+			gzip.write(json.getBytes(StandardCharsets.UTF_8));
+		}
+		return Base64.getEncoder().encodeToString(bytes.toByteArray());
+	}
+
+	private static String decompress(String encoded) throws Exception {
+		byte[] bytes = Base64.getDecoder().decode(encoded);
+		try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+			return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+}
@@ -26,6 +26,13 @@ public class AuditJSONGenerator extends BeanVisitor {
 		return JSON.marshall(customer, audit);
 	}
 
+	/**
+	 * @return	The visited state as a map of binding to a map of attribute name to serialised value.
+	 */
+	public Map<String, Object> getAudit() {
+		return audit;
+	}
+
 	@Override
 	protected boolean accept(String binding,
 								Document document,
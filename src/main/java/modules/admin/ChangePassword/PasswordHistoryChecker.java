@@ -0,0 +1,123 @@
+package modules.admin.ChangePassword;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.skyve.EXT;
+
+/**
+ * Checks a new password against the current and previous password hashes of a user at the same time.
+ * <p>
+ * Each check is a full password hash, so the checks run on a small pool of threads shared by the server, and stop at
+ * the first match. The pool has {@link #THREADS} threads and queues at most {@link #QUEUE_SIZE} checks, so a burst of
+ * password changes cannot take more of the server than that. Checks that do not fit in the queue are done by the
+ * calling thread instead.
+ * <p>
+ * The sizes can be set with the <code>admin.passwordCheck.threads</code> and <code>admin.passwordCheck.queue</code>
+ * system properties.
+ */
+public final class PasswordHistoryChecker {
+	/**
+	 * The number of threads checking passwords.
+	 */
+	public static final int THREADS = Integer.getInteger("admin.passwordCheck.threads",
+															Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2))).intValue();
+
+	/**
+	 * The most checks waiting for a thread.
+	 */
+	public static final int QUEUE_SIZE = Integer.getInteger("admin.passwordCheck.queue", 64).intValue();
+
+	private static final ThreadPoolExecutor EXECUTOR = newExecutor();
+
+	/**
+	 * The checks of a new password against some hashes.
+	 */
+	public static final class Check {
+		private final String clearText;
+		private final CompletionService<Boolean> completion = new ExecutorCompletionService<>(EXECUTOR);
+		private final List<Future<Boolean>> futures = new ArrayList<>();
+		private final List<String> rejected = new ArrayList<>();
+
+		Check(String clearText, Collection<String> hashes) {
+			this.clearText = clearText;
+			for (String hash : hashes) {
+				try {
+					futures.add(completion.submit(() -> Boolean.valueOf(EXT.checkPassword(clearText, hash))));
+				}
+				catch (@SuppressWarnings("unused") RejectedExecutionException e) {
+					rejected.add(hash);
+				}
+			}
+		}
+
+		/**
+		 * Wait for the checks.
+		 *
+		 * @return	true as soon as a hash matches the password, or false once none have.
+		 */
+		public boolean matches() throws InterruptedException, ExecutionException {
+			try {
+				for (String hash : rejected) {
+					if (EXT.checkPassword(clearText, hash)) {
+						return true;
+					}
+				}
+				for (int i = 0, l = futures.size(); i < l; i++) {
+					if (Boolean.TRUE.equals(completion.take().get())) {
+						return true;
+					}
+				}
+				return false;
+			}
+			finally {
+				// stop any checks that have not started
+				for (Future<Boolean> future : futures) {
+					future.cancel(false);
+				}
+			}
+		}
+	}
+
+	private PasswordHistoryChecker() {
+		// static methods only
+	}
+
+	/**
+	 * Start checking a new password against the given hashes.
+	 * The caller can get on with other work, such as hashing the new password, before waiting with {@link Check#matches()}.
+	 *
+	 * @param clearText	The new password.
+	 * @param hashes	The current and previous password hashes.
+	 * @return	The running checks.
+	 */
+	public static Check start(String clearText, Collection<String> hashes) {
+		return new Check(clearText, hashes);
+	}
+
+	private static ThreadPoolExecutor newExecutor() {
+		AtomicInteger count = new AtomicInteger();
+		ThreadPoolExecutor result = new ThreadPoolExecutor(THREADS,
+															THREADS,
+															60L,
+															TimeUnit.SECONDS,
+															new ArrayBlockingQueue<>(QUEUE_SIZE),
+															r -> {
+																Thread t = new Thread(r, "password-check-" + count.incrementAndGet());
+																t.setDaemon(true);
+																return t;
+															});
+		result.allowCoreThreadTimeOut(true);
+		return result;
+	}
+}
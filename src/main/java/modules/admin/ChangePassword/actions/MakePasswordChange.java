@@ -1,5 +1,9 @@
 package modules.admin.ChangePassword.actions;
 
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
 import org.skyve.CORE;
 import org.skyve.EXT;
 import org.skyve.domain.messages.Message;
@@ -17,6 +21,7 @@ import org.skyve.persistence.Persistence;
 import org.skyve.util.BeanValidator;
 import org.skyve.web.WebContext;
 
+import modules.admin.ChangePassword.PasswordHistoryChecker;
 import modules.admin.Configuration.ConfigurationExtension;
 import modules.admin.domain.ChangePassword;
 import modules.admin.domain.Configuration;
@@ -65,34 +70,33 @@ public class MakePasswordChange implements ServerSideAction<ChangePassword> {
 				throw new ValidationException(message);
 			}
 		}
-		
-		if (EXT.checkPassword(newPassword, userBean.getPassword())) {
+
+		// Check this password doesn't match the current one or any in the history if it is switched on
+		String passwordHistory = (UtilImpl.PASSWORD_HISTORY_RETENTION > 0) ? userBean.getPasswordHistory() : null;
+		String[] passwords = (passwordHistory == null) ? new String[0] : passwordHistory.split("\\t");
+		Set<String> previousPasswords = new LinkedHashSet<>();
+		if (userBean.getPassword() != null) {
+			previousPasswords.add(userBean.getPassword());
+		}
+		Collections.addAll(previousPasswords, passwords);
+		PasswordHistoryChecker.Check check = PasswordHistoryChecker.start(newPassword, previousPasswords);
+
+		// hash the new password while the checks run
+		String hashedPassword = EXT.hashPassword(newPassword);
+
+		if (check.matches()) {
 			Message message = new Message("This password matches a previous one.  Please re-enter and confirm the password.");
 			message.addBinding(ChangePassword.confirmPasswordPropertyName);
 			throw new ValidationException(message);			
 		}
 
-		String hashedPassword = EXT.hashPassword(newPassword);
-
 		// check password history if it is switched on
 		if (UtilImpl.PASSWORD_HISTORY_RETENTION > 0) {
-			String passwordHistory = userBean.getPasswordHistory();
 			if (passwordHistory == null) { // no history
 				// just set this password in the history
 				userBean.setPasswordHistory(hashedPassword);
 			}
 			else { // we have history
-				String[] passwords = passwordHistory.split("\\t");
-				
-				// Check this password doesn't match a previous one
-				for (String password : passwords) {
-					if (EXT.checkPassword(newPassword, password)) {
-						Message message = new Message("This password matches a previous one.  Please re-enter and confirm the password.");
-						message.addBinding(ChangePassword.confirmPasswordPropertyName);
-						throw new ValidationException(message);			
-					}
-				}
-
 				// We are right, make the new history
 				StringBuilder newPasswordHistory = new StringBuilder(passwords.length * 128);
 				
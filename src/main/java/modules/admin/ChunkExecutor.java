@@ -0,0 +1,289 @@
+package modules.admin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.skyve.CORE;
+import org.skyve.domain.PersistentBean;
+import org.skyve.persistence.Persistence;
+
+import modules.admin.domain.DataMaintenance.EvictOption;
+
+/**
+ * Processes items a chunk at a time for a job, committing each chunk once.
+ * <p>
+ * The keys of the items, usually bizIds, are read a page at a time in key order from a {@link Source}, so items can
+ * change or go while they are processed and no more than a chunk of them is held at once. If an item fails, the chunk
+ * is rolled back and then processed again one item per transaction, so the failure only loses that item. A chunk of
+ * one item is rolled back and reported as failed without being processed again.
+ * <p>
+ * As a failed chunk is processed again, an action that does more than change the database, such as sending a message
+ * or calling another system, would do it twice. Such actions either use a chunk size of 1, or do the outside work in
+ * {@link ItemAction#committed(Object)} once their chunk is committed.
+ * <p>
+ * When a checkpoint is given, the last committed key is kept under it, so a cancelled job carries on from there when
+ * it is run again in the same server. The checkpoint is cleared when all the items have been processed.
+ *
+ * @param <T>	The type of the items.
+ */
+public class ChunkExecutor<T> {
+	private static final Map<String, String> CHECKPOINTS = new ConcurrentHashMap<>();
+
+	/**
+	 * Pages the keys of the items to process.
+	 */
+	public static interface Source<T> {
+		/**
+		 * @param after	The last key of the previous page, or null for the first page.
+		 * @param max	The most keys to return.
+		 * @return	The next keys in key order, or an empty list when there are no more.
+		 */
+		List<String> page(String after, int max);
+
+		/**
+		 * @return	The item with the key, or null if it has gone.
+		 */
+		T load(String key);
+
+		/**
+		 * Load the items of a page, leaving out those that have gone.
+		 */
+		default List<T> load(List<String> keys) {
+			List<T> result = new ArrayList<>(keys.size());
+			for (String key : keys) {
+				T item = load(key);
+				if (item != null) {
+					result.add(item);
+				}
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Processes one item.
+	 */
+	@FunctionalInterface
+	public static interface ItemAction<T> {
+		/**
+		 * @param item	The item.
+		 * @return	The log line for the item, logged once its chunk is committed, or null for none.
+		 * @throws Exception	If the item failed, in which case the chunk is rolled back and retried one item at a time,
+		 * 						unless it is a chunk of one.
+		 */
+		String process(T item) throws Exception;
+
+		/**
+		 * Called for each item once its chunk is committed, in the next transaction.
+		 */
+		default void committed(T item) {
+			// nothing to do
+		}
+
+		/**
+		 * Called when an item has failed on its own, once it is rolled back, in the next transaction.
+		 */
+		default void failed(T item, Exception e) {
+			// nothing to do
+		}
+
+		/**
+		 * Called after each rollback, as any beans held from before it are detached.
+		 */
+		default void rolledBack() {
+			// nothing to do
+		}
+	}
+
+	/**
+	 * Receives the progress of the executor.
+	 */
+	public static interface Progress {
+		/**
+		 * Add a line to the job log.
+		 */
+		void log(String line);
+
+		/**
+		 * @param percentComplete	The percentage of the items processed.
+		 */
+		void setPercentComplete(int percentComplete);
+
+		/**
+		 * @return	true if the job has been cancelled.
+		 */
+		boolean isCancelled();
+
+		/**
+		 * Called after each chunk.
+		 *
+		 * @param processed	The number of items processed so far, including those that failed.
+		 * @param failed	The number of items that failed so far.
+		 */
+		default void processed(long processed, long failed) {
+			// nothing to do
+		}
+	}
+
+	private final int chunkSize;
+	private EvictOption evict = EvictOption.all;
+	private long size = 0;
+	private long processed = 0;
+	private long failed = 0;
+
+	/**
+	 * @param chunkSize	The number of items committed in each transaction.
+	 */
+	public ChunkExecutor(int chunkSize) {
+		this.chunkSize = Math.max(1, chunkSize);
+	}
+
+	/**
+	 * @param evict	What to evict from the first level cache after each commit - all beans by default.
+	 * 				Evicting by bean evicts the items that are beans.
+	 */
+	public ChunkExecutor<T> evict(EvictOption evict) {
+		this.evict = (evict == null) ? EvictOption.none : evict;
+		return this;
+	}
+
+	/**
+	 * @param size	The number of items expected, over every execution, to work out the percentage complete.
+	 */
+	public ChunkExecutor<T> size(long size) {
+		this.size = size;
+		return this;
+	}
+
+	/**
+	 * @return	The number of items processed by every execution, including those that failed.
+	 */
+	public long getProcessed() {
+		return processed;
+	}
+
+	/**
+	 * @return	The number of items that failed in every execution.
+	 */
+	public long getFailed() {
+		return failed;
+	}
+
+	/**
+	 * @return	The last committed key kept under the checkpoint, or null if there is none.
+	 */
+	public static String checkpoint(String checkpoint) {
+		return (checkpoint == null) ? null : CHECKPOINTS.get(checkpoint);
+	}
+
+	/**
+	 * Process the items of the source, after its checkpoint if it has one.
+	 *
+	 * @param checkpoint	The key to keep the last committed key under, or null to always start from the first item.
+	 * @return	true if every item was processed, false if the job was cancelled.
+	 */
+	public boolean execute(String checkpoint, Source<T> source, ItemAction<T> action, Progress progress) {
+		Persistence pers = CORE.getPersistence();
+		String after = checkpoint(checkpoint);
+
+		List<String> page = source.page(after, chunkSize);
+		while (! page.isEmpty()) {
+			if (progress.isCancelled()) {
+				return false;
+			}
+
+			List<T> items = source.load(page);
+			Exception e = processChunk(pers, items, action, progress);
+			if (e != null) {
+				rollback(pers, action);
+				if (items.size() == 1) {
+					failed(items.get(0), e, action);
+				}
+				else {
+					for (String key : page) {
+						T item = source.load(key);
+						if (item != null) {
+							Exception ie = processChunk(pers, List.of(item), action, progress);
+							if (ie != null) {
+								rollback(pers, action);
+								failed(item, ie, action);
+							}
+						}
+					}
+				}
+			}
+
+			after = page.get(page.size() - 1);
+			if (checkpoint != null) {
+				CHECKPOINTS.put(checkpoint, after);
+			}
+			processed += page.size();
+			if (size > 0) {
+				progress.setPercentComplete((int) Math.min(100F, ((float) processed) / ((float) size) * 100F));
+			}
+			progress.processed(processed, failed);
+
+			page = source.page(after, chunkSize);
+		}
+
+		if (checkpoint != null) {
+			CHECKPOINTS.remove(checkpoint);
+		}
+		return true;
+	}
+
+	/**
+	 * Process and commit a chunk of items, logging them only once the chunk is committed.
+	 *
+	 * @return	The failure if an item failed and nothing was committed, otherwise null.
+	 */
+	private Exception processChunk(Persistence pers, List<T> items, ItemAction<T> action, Progress progress) {
+		List<String> lines = new ArrayList<>(items.size());
+		try {
+			for (T item : items) {
+				String line = action.process(item);
+				if (line != null) {
+					lines.add(line);
+				}
+			}
+			pers.commit(false);
+		}
+		catch (Exception e) {
+			return e;
+		}
+
+		if (EvictOption.all.equals(evict)) {
+			pers.evictAllCached();
+		}
+		else if (EvictOption.bean.equals(evict)) {
+			for (T item : items) {
+				if (item instanceof PersistentBean) {
+					pers.evictCached((PersistentBean) item);
+				}
+			}
+		}
+		pers.begin();
+
+		for (String line : lines) {
+			progress.log(line);
+		}
+		for (T item : items) {
+			action.committed(item);
+		}
+		return null;
+	}
+
+	private static <T> void rollback(Persistence pers, ItemAction<T> action) {
+		pers.rollback();
+		pers.evictAllCached();
+		pers.begin();
+		action.rolledBack();
+	}
+
+	private void failed(T item, Exception e, ItemAction<T> action) {
+		failed++;
+		action.failed(item, e);
+	}
+}
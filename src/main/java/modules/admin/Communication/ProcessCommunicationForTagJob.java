@@ -1,76 +1,91 @@
 package modules.admin.Communication;
 
 import java.util.Date;
-import java.util.Iterator;
 import java.util.List;
 
-import org.skyve.CORE;
 import org.skyve.EXT;
-import org.skyve.domain.Bean;
-import org.skyve.domain.PersistentBean;
 import org.skyve.job.Job;
-import org.skyve.persistence.Persistence;
 import org.skyve.tag.TagManager;
 import org.skyve.util.CommunicationUtil;
 import org.skyve.util.CommunicationUtil.ResponseMode;
 
-import modules.admin.Tag.TagBizlet;
+import modules.admin.ChunkExecutor.Progress;
+import modules.admin.Tag.TagExtension;
+import modules.admin.Tag.TaggedItemExecutor;
 import modules.admin.domain.Communication;
+import modules.admin.domain.DataMaintenance.EvictOption;
+
+public class ProcessCommunicationForTagJob extends Job implements Progress {
+	private volatile boolean cancelled = false;
 
-public class ProcessCommunicationForTagJob extends Job {
 	@Override
 	public String cancel() {
+		cancelled = true;
 		return null;
 	}
 
+	@Override
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	@Override
+	public void log(String line) {
+		getLog().add(line);
+	}
+
 	@Override
 	public void execute() throws Exception {
 		List<String> log = getLog();
 
 		Communication communication = (Communication) getBean();
-		Persistence pers = CORE.getPersistence();
 		
 		if (communication.getActionType() != null) {
 			// get relevant document to action
-			List<Bean> beans = TagBizlet.getTaggedItemsForDocument(communication.getTag(), communication.getModuleName(), communication.getDocumentName());
+			TagExtension tag = communication.getTag();
 			StringBuilder sb = new StringBuilder();
 			sb.append("Started Processing Communication for Tagged Items Job at ");
 			sb.append(new Date());
-			sb.append(" expected ").append(beans.size()).append(" matching documents.");
+			sb.append(" expected ").append(tag.countDocument(communication.getModuleName(), communication.getDocumentName())).append(" matching documents.");
 			log.add(sb.toString());
 
-			int size = beans.size();
-			int processed = 0;
-			Iterator<Bean> it = beans.iterator();
+			boolean untag = Boolean.TRUE.equals(communication.getUnTagSuccessful());
 			TagManager tm = EXT.getTagManager();
-			while (it.hasNext()) {
-				PersistentBean pb = (PersistentBean) it.next();
 
-				sb = new StringBuilder();
-				sb.append("Processing communication for ").append(pb.getBizKey());
+			// communications are sent as items are processed, so each item is committed on its own with its untag
+			// and a failed item is logged rather than processed again
+			TaggedItemExecutor executor = new TaggedItemExecutor(getClass().getName(),
+																	tag,
+																	communication.getModuleName(),
+																	communication.getDocumentName(),
+																	1);
+			executor.evict(EvictOption.bean);
+			executor.execute(pb -> {
+				StringBuilder item = new StringBuilder();
+				item.append("Processing communication for ").append(pb.getBizKey());
 
 				try {
 					switch (communication.getActionType()) {
 					case saveForBulkSend:
 
 						CommunicationUtil.generate(communication, CommunicationUtil.RunMode.ACTION, CommunicationUtil.ResponseMode.EXPLICIT, null, pb);
-						sb.append("\n Saved OK");
+						item.append("\n Saved OK");
 
-						if (Boolean.TRUE.equals(communication.getUnTagSuccessful())) {
-							tm.untag(communication.getTag().getBizId(), pb);
+						if (untag) {
+							tm.untag(tag.getBizId(), pb);
 						}
 						break;
 					case testBindingsAndOutput:
 
 						CommunicationUtil.send(communication, CommunicationUtil.RunMode.TEST, CommunicationUtil.ResponseMode.EXPLICIT, null, pb);
-						sb.append("\n Tested OK");
+						item.append("\n Tested OK");
 						break;
 					case sendImmediately:
 
 						CommunicationUtil.send(communication, CommunicationUtil.RunMode.ACTION, CommunicationUtil.ResponseMode.EXPLICIT, null, pb);
-						sb.append("\n Sent OK");
-						if (Boolean.TRUE.equals(communication.getUnTagSuccessful())) {
-							tm.untag(communication.getTag().getBizId(), pb);
+						item.append("\n Sent OK");
+						if (untag) {
+							tm.untag(tag.getBizId(), pb);
 						}
 						break;
 					default:
@@ -78,18 +93,13 @@ public class ProcessCommunicationForTagJob extends Job {
 					}
 
 				} catch (Exception e) {
-					sb.append(" - Unsuccessful");
-					sb.append("\n");
-					sb.append(e);
+					item.append(" - Unsuccessful");
+					item.append("\n");
+					item.append(e);
 				}
-				pers.commit(false);
-				pers.evictCached(pb);
-				pers.begin();
+				return item.toString();
+			}, this);
 
-				setPercentComplete((int) (((float) processed) / ((float) size) * 100F));
-
-				log.add(sb.toString());
-			}
 			setPercentComplete(100);
 			log.add("Finished Processing Communication Action for Tagged Items Job at " + new Date());
 			
@@ -1,7 +1,5 @@
 package modules.admin.Communication.actions;
 
-import java.util.List;
-
 import org.skyve.domain.Bean;
 import org.skyve.domain.app.admin.Communication.ActionType;
 import org.skyve.domain.messages.Message;
@@ -27,14 +25,14 @@ public class TestSend implements ServerSideAction<Communication> {
 		Contact me = ModulesUtil.currentAdminUser().getContact();
 
 		// Get First tagged item to test
-		List<Bean> beans = TagBizlet.getTaggedItemsForDocument(communication.getTag(), communication.getModuleName(), communication.getDocumentName());
+		Bean first = TagBizlet.getFirstTaggedItemForDocument(communication.getTag(), communication.getModuleName(), communication.getDocumentName());
 
-		if (beans.isEmpty()) {
+		if (first == null) {
 			throw new ValidationException(new Message("There are no tagged items - tag at least 1 (one) item to test this communication."));
 		}
 
 		communication.setSendToOverride(me.getEmail1());
-		CommunicationUtil.send(webContext, communication, CommunicationUtil.RunMode.ACTION, CommunicationUtil.ResponseMode.EXPLICIT, null, beans.get(0));
+		CommunicationUtil.send(webContext, communication, CommunicationUtil.RunMode.ACTION, CommunicationUtil.ResponseMode.EXPLICIT, null, first);
 
 		return new ServerSideActionResult<>(communication);
 	}
@@ -2,6 +2,7 @@ package modules.admin.Contact;
 
 import org.skyve.metadata.model.document.Bizlet;
 
+import modules.admin.ModulesUtil;
 import modules.admin.domain.Contact;
 import modules.admin.domain.Contact.ContactType;
 
@@ -25,6 +26,15 @@ public class ContactBizlet extends Bizlet<Contact> {
 		return result.toString();
 	}
 	
+	/**
+	 * The contact name of the users of this contact may have changed.
+	 */
+	@Override
+	public void postSave(Contact bean) throws Exception {
+		super.postSave(bean);
+		ModulesUtil.evictCurrentAdminUserContact(bean.getBizId());
+	}
+
 	/**
 	 * Returns true if the contact holds no data and can be dispensed with.
 	 * 
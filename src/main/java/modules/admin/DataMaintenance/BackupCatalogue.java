@@ -0,0 +1,128 @@
+package modules.admin.DataMaintenance;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.skyve.impl.backup.ExternalBackup;
+import org.skyve.metadata.SortDirection;
+import org.skyve.util.FileUtil;
+
+/**
+ * The backups of each backup directory, listed once and kept until they are changed or go stale.
+ * <p>
+ * Listing external backups takes a remote call per backup to find its size, so the list is kept and reused for each
+ * page of the backups grid. Anything that adds or removes backups calls {@link #invalidate(String)}, and the list is
+ * reconciled with the backup store at least every {@link #RECONCILE_MILLIS} to pick up backups made elsewhere.
+ * A local backup directory is also listed again whenever its modified time changes, so that backups written or
+ * removed by jobs, such as an adhoc backup finishing after its action has returned, show straight away.
+ */
+public final class BackupCatalogue {
+	/**
+	 * The longest time a listing is used before the backup store is listed again.
+	 */
+	public static final long RECONCILE_MILLIS = 5L * 60L * 1000L;
+
+	/**
+	 * A backup zip.
+	 */
+	public static final class Entry {
+		private final String name;
+		private final long sizeInMB;
+
+		Entry(String name, long sizeInMB) {
+			this.name = name;
+			this.sizeInMB = sizeInMB;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public long getSizeInMB() {
+			return sizeInMB;
+		}
+	}
+
+	private static final class Listing {
+		private final List<Entry> entries;
+		private final long listedMillis;
+		private final long dirModifiedMillis;
+
+		Listing(List<Entry> entries, long dirModifiedMillis) {
+			this.entries = entries;
+			this.dirModifiedMillis = dirModifiedMillis;
+			listedMillis = System.currentTimeMillis();
+		}
+	}
+
+	private static final Map<String, Listing> LISTINGS = new ConcurrentHashMap<>();
+
+	private BackupCatalogue() {
+		// static methods only
+	}
+
+	/**
+	 * @param dirPath	The customer's backup directory.
+	 * @return	The backups in name order.
+	 */
+	public static List<Entry> entries(String dirPath) throws IOException {
+		// taken before listing so that a change while listing is picked up next time
+		long dirModifiedMillis = dirModifiedMillis(dirPath);
+		Listing listing = LISTINGS.get(dirPath);
+		if ((listing == null) ||
+				(listing.dirModifiedMillis != dirModifiedMillis) ||
+				((System.currentTimeMillis() - listing.listedMillis) > RECONCILE_MILLIS)) {
+			listing = new Listing(list(dirPath), dirModifiedMillis);
+			LISTINGS.put(dirPath, listing);
+		}
+		return listing.entries;
+	}
+
+	/**
+	 * Drop the listing of a backup directory, so that it is listed again on its next use.
+	 *
+	 * @param dirPath	The customer's backup directory.
+	 */
+	public static void invalidate(String dirPath) {
+		LISTINGS.remove(dirPath);
+	}
+
+	/**
+	 * The modified time of a local backup directory, or 0 for external backups, where there is no directory to check.
+	 */
+	private static long dirModifiedMillis(String dirPath) {
+		return ExternalBackup.areExternalBackupsEnabled() ? 0L : new File(dirPath).lastModified();
+	}
+
+	private static List<Entry> list(String dirPath) throws IOException {
+		Map<String, Long> backups = new TreeMap<>();
+		if (ExternalBackup.areExternalBackupsEnabled()) {
+			ExternalBackup backupInstance = ExternalBackup.getInstance();
+			for (String s : backupInstance.listBackups()) {
+				// Convert to MB for readability
+				backups.put(s, Long.valueOf(backupInstance.getFileSize(s) / (1024 * 1024)));
+			}
+		} else {
+			File[] files = FileUtil.listFiles(new File(dirPath), ".*.zip", SortDirection.descending);
+			if (files != null) {
+				for (File file : files) {
+					// Convert to MB for readability
+					backups.put(file.getName(), Long.valueOf(Files.size(file.toPath()) / (1024 * 1024)));
+				}
+			}
+		}
+
+		List<Entry> result = new ArrayList<>(backups.size());
+		for (Map.Entry<String, Long> backup : backups.entrySet()) {
+			result.add(new Entry(backup.getKey(), backup.getValue().longValue()));
+		}
+		return Collections.unmodifiableList(result);
+	}
+}
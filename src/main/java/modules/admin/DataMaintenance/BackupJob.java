@@ -89,78 +89,10 @@ public class BackupJob extends Job {
 				Util.LOGGER.info(trace);
 			}
 
-			// copy daily to weekly
-			if (weekly > 0) {
-				File copy = new File(backupDir,
-						String.format("WEEKLY_%s.zip",
-								CORE.getDateFormat("yyyyMMWW").format(now)));
-				if (ExternalBackup.areExternalBackupsEnabled()) {
-					try {
-						ExternalBackup.getInstance().copyBackup(dailyZip.getName(), copy.getName());
-					} catch (@SuppressWarnings("unused") Exception e) {
-						trace = String.format("Failed to copy external backup from %s to %s", dailyZip.getName(), copy.getName());
-						log.add(trace);
-						Util.LOGGER.warning(trace);
-						org.skyve.impl.backup.BackupJob.emailProblem(log, trace);
-					}
-				} else {
-					trace = String.format("Copy Backup %s to %s", backupZip.getAbsolutePath(), copy.getAbsolutePath());
-					log.add(trace);
-					Util.LOGGER.info(trace);
-					FileUtil.copy(dailyZip, copy);
-				}
-			} else {
-				trace = "No weekly backup taken by the BackupJob as weeklyBackupRetention in DataMaintenance is null or zero";
-				log.add(trace);
-				Util.LOGGER.warning(trace);
-			}
-			// copy daily to monthly
-			if (monthly > 0) {
-				File copy = new File(backupDir,
-						String.format("MONTHLY_%s.zip",
-								CORE.getDateFormat("yyyyMM").format(now)));
-				if (ExternalBackup.areExternalBackupsEnabled()) {
-					try {
-						ExternalBackup.getInstance().copyBackup(dailyZip.getName(), copy.getName());
-					} catch (@SuppressWarnings("unused") Exception e) {
-						trace = String.format("Failed to copy external backup from %s to %s", dailyZip.getName(), copy.getName());
-						log.add(trace);
-						Util.LOGGER.warning(trace);
-						org.skyve.impl.backup.BackupJob.emailProblem(log, trace);
-					}
-				} else {
-					trace = String.format("Copy Backup %s to %s", backupZip.getAbsolutePath(), copy.getAbsolutePath());
-					log.add(trace);
-					Util.LOGGER.info(trace);
-					FileUtil.copy(dailyZip, copy);
-				}
-			}
-			else {
-				trace = "No monthly backup taken by the BackupJob as monthlyBackupRetention in DataMaintenance is null or zero";
-				log.add(trace);
-				Util.LOGGER.warning(trace);
-			}
-			// copy daily to yearly
-			if (yearly > 0) {
-				File copy = new File(backupDir,
-						String.format("YEARLY_%s.zip",
-								CORE.getDateFormat("yyyy").format(now)));
-				if (ExternalBackup.areExternalBackupsEnabled()) {
-					try {
-						ExternalBackup.getInstance().copyBackup(dailyZip.getName(), copy.getName());
-					} catch (@SuppressWarnings("unused") Exception e) {
-						trace = String.format("Failed to copy external backup from %s to %s", dailyZip.getName(), copy.getName());
-						log.add(trace);
-						Util.LOGGER.warning(trace);
-						org.skyve.impl.backup.BackupJob.emailProblem(log, trace);
-					}
-				} else {
-					trace = String.format("Copy Backup %s to %s", backupZip.getAbsolutePath(), copy.getAbsolutePath());
-					log.add(trace);
-					Util.LOGGER.info(trace);
-					FileUtil.copy(dailyZip, copy);
-				}
-			}
+			// keep the daily as the weekly, monthly and yearly backups
+			retain(backupDir, dailyZip, "WEEKLY_", "yyyyMMWW", now, weekly, "weekly");
+			retain(backupDir, dailyZip, "MONTHLY_", "yyyyMM", now, monthly, "monthly");
+			retain(backupDir, dailyZip, "YEARLY_", "yyyy", now, yearly, "yearly");
 
 			// cull daily
 			cull(backupDir, "DAILY_", daily);
@@ -173,6 +105,8 @@ public class BackupJob extends Job {
 			cull(backupDir, "MONTHLY_", "_PROBLEMS", monthly * 2);
 			// cull yearly
 			cull(backupDir, "YEARLY_", "_PROBLEMS", yearly * 2);
+
+			BackupCatalogue.invalidate(DataMaintenanceExtension.backupDirectoryPrefix());
 		}
 
 		setPercentComplete(100);
@@ -181,6 +115,46 @@ public class BackupJob extends Job {
 		Util.LOGGER.info(trace);
 	}
 
+	/**
+	 * Keep the daily backup as the backup for a longer period.
+	 * Local backups are hard linked to the daily zip rather than copied, so that each retained backup takes no more
+	 * disk space until the daily is culled. A copy is only made when the file system cannot link.
+	 */
+	private void retain(File backupDir, File dailyZip, String prefix, String datePattern, DateOnly now, int retention, String period)
+			throws IOException {
+		List<String> log = getLog();
+		String trace;
+		if (retention <= 0) {
+			trace = String.format("No %s backup taken by the BackupJob as %sBackupRetention in DataMaintenance is null or zero", period, period);
+			log.add(trace);
+			Util.LOGGER.warning(trace);
+			return;
+		}
+
+		File copy = new File(backupDir, String.format("%s%s.zip", prefix, CORE.getDateFormat(datePattern).format(now)));
+		if (ExternalBackup.areExternalBackupsEnabled()) {
+			try {
+				ExternalBackup.getInstance().copyBackup(dailyZip.getName(), copy.getName());
+			} catch (@SuppressWarnings("unused") Exception e) {
+				trace = String.format("Failed to copy external backup from %s to %s", dailyZip.getName(), copy.getName());
+				log.add(trace);
+				Util.LOGGER.warning(trace);
+				org.skyve.impl.backup.BackupJob.emailProblem(log, trace);
+			}
+		} else {
+			Files.deleteIfExists(copy.toPath());
+			try {
+				Files.createLink(copy.toPath(), dailyZip.toPath());
+				trace = String.format("Link Backup %s to %s", dailyZip.getAbsolutePath(), copy.getAbsolutePath());
+			} catch (@SuppressWarnings("unused") UnsupportedOperationException | IOException e) {
+				FileUtil.copy(dailyZip, copy);
+				trace = String.format("Copy Backup %s to %s", dailyZip.getAbsolutePath(), copy.getAbsolutePath());
+			}
+			log.add(trace);
+			Util.LOGGER.info(trace);
+		}
+	}
+
 	private void cull(File backupDir, String prefix, int retain)
 			throws IOException {
 		cull(backupDir, prefix, "", retain);
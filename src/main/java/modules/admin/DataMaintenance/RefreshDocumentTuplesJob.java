@@ -9,6 +9,7 @@ import org.skyve.domain.Bean;
 import org.skyve.domain.PersistentBean;
 import org.skyve.domain.messages.MessageSeverity;
 import org.skyve.job.Job;
+import org.skyve.metadata.SortDirection;
 import org.skyve.persistence.DocumentQuery;
 import org.skyve.persistence.DocumentQuery.AggregateFunction;
 import org.skyve.persistence.Persistence;
@@ -16,17 +17,69 @@ import org.skyve.util.CommunicationUtil;
 import org.skyve.util.CommunicationUtil.ResponseMode;
 import org.skyve.util.PushMessage;
 
+import modules.admin.ChunkExecutor;
+import modules.admin.ChunkExecutor.ItemAction;
+import modules.admin.ChunkExecutor.Progress;
+import modules.admin.ChunkExecutor.Source;
 import modules.admin.domain.DataMaintenance;
-import modules.admin.domain.DataMaintenance.EvictOption;
 import modules.admin.domain.DataMaintenance.RefreshOption;
 import modules.admin.domain.ModuleDocument;
 
-public class RefreshDocumentTuplesJob extends Job {
+/**
+ * Re-saves or upserts every bean of the selected documents.
+ * <p>
+ * Each document is upserted {@link #CHUNK_SIZE} beans at a time in bizId order by a {@link ChunkExecutor}, so only
+ * the failing beans are reported and flagged. Progress, throughput and failures are logged as the job goes.
+ * <p>
+ * A save runs the bizlets of each bean, which can do more than change the database, so saved beans are committed
+ * one at a time and a failure never saves another bean twice.
+ * <p>
+ * The checkpoint of each document is kept for the data maintenance, so a cancelled job carries on from there when
+ * it is run again in the same server.
+ */
+public class RefreshDocumentTuplesJob extends Job implements Progress {
+	/**
+	 * The number of beans upserted in each transaction.
+	 */
+	public static final int CHUNK_SIZE = 200;
+
+	/**
+	 * The least time between progress lines in the job log.
+	 */
+	private static final long PROGRESS_INTERVAL_MILLIS = 30000L;
+
+	private volatile boolean cancelled = false;
+
+	private ChunkExecutor<PersistentBean> executor;
+	private long size = 0;
+	private long started;
+	private long lastProgress;
+
 	@Override
 	public String cancel() {
+		cancelled = true;
 		return null;
 	}
 
+	@Override
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	@Override
+	public void log(String line) {
+		getLog().add(line);
+	}
+
+	@Override
+	public void processed(long processed, long failed) {
+		long now = System.currentTimeMillis();
+		if ((now - lastProgress) >= PROGRESS_INTERVAL_MILLIS) {
+			lastProgress = now;
+			getLog().add(progress());
+		}
+	}
+
 	@Override
 	public void execute() throws Exception {
 
@@ -35,23 +88,21 @@ public class RefreshDocumentTuplesJob extends Job {
 		DataMaintenance dm = (DataMaintenance) getBean();
 		log.add("Started Document Data Refresh Job for " + dm.getModDocName() + " at " + new Date());
 
-		long size = 0;
-		int processed = 0;
+		Persistence pers = CORE.getPersistence();
 
 		// calculate size
 		for (ModuleDocument doc : dm.getRefreshDocuments()) {
 			if (Boolean.TRUE.equals(doc.getInclude())) {
-				// get relevant document to action
-				Persistence pers = CORE.getPersistence();
-				DocumentQuery q = pers.newDocumentQuery(doc.getModuleName(), doc.getDocumentName());
+				DocumentQuery q = newQuery(pers, doc, ChunkExecutor.checkpoint(checkpointKey(dm, doc)));
 				q.addAggregateProjection(AggregateFunction.Count, Bean.DOCUMENT_ID, "CountOfId");
 				size = size + q.scalarResult(Long.class).longValue();
 			}
 		}
 
-		RefreshOption refresh = dm.getRefreshOption();
-		EvictOption evict = dm.getEvictOption();
-		Boolean flagFailedData = dm.getFlagFailed();
+		int chunkSize = RefreshOption.save.equals(dm.getRefreshOption()) ? 1 : CHUNK_SIZE;
+		executor = new ChunkExecutor<PersistentBean>(chunkSize).evict(dm.getEvictOption()).size(size);
+		started = System.currentTimeMillis();
+		lastProgress = started;
 
 		// iterate
 		for (ModuleDocument doc : dm.getRefreshDocuments()) {
@@ -62,48 +113,16 @@ public class RefreshDocumentTuplesJob extends Job {
 						.append("].[")
 						.append(doc.getDocumentName()).append("]");
 
-				// get relevant document to action
-				Persistence pers = CORE.getPersistence();
-				DocumentQuery q = pers.newDocumentQuery(doc.getModuleName(), doc.getDocumentName());
-				for (PersistentBean bean : q.<PersistentBean>beanResults()) {
-					try {
-						if (EvictOption.bean.equals(evict) || EvictOption.all.equals(evict)) {
-                            bean = pers.retrieve(doc.getModuleName(), doc.getDocumentName(), bean.getBizId());
-                        }
-						
-						if (RefreshOption.upsert.equals(refresh)) {
-							pers.upsertBeanTuple(bean);
-						} else if (RefreshOption.save.equals(refresh)) {
-							bean = pers.save(bean);
-						}
-						pers.commit(false);
-						
-						if (EvictOption.bean.equals(evict)) {
-							pers.evictCached(bean);
-						} else if (EvictOption.all.equals(evict)) {
-							pers.evictAllCached();
-						}
-						pers.begin();
-					}
-					catch (@SuppressWarnings("unused") Exception e) {
-						log.add(String.format("%s - %s failed for id: %s",
-												sb.toString(),
-												dm.getRefreshOption().toLocalisedDescription(),
-												bean.getBizId()));
-						if (Boolean.TRUE.equals(flagFailedData)) {
-							bean.setBizFlagComment("Data refresh failed - Please validate data and try again.");
-							CORE.getPersistence().upsertBeanTuple(bean);
-						}
-					}
-					processed++;
-					setPercentComplete((int) (((float) processed) / ((float) size) * 100F));
+				if (! refresh(pers, dm, doc, sb.toString())) {
+					log.add("Cancelled after " + executor.getProcessed() + " rows - run the job again to carry on from here");
+					return;
 				}
 
 				sb.append(" Completed");
 				log.add(sb.toString());
 			}
-
 		}
+		log.add(progress());
 
 		if (Boolean.TRUE.equals(dm.getNotification())) {
 
@@ -117,4 +136,100 @@ public class RefreshDocumentTuplesJob extends Job {
 		log.add("Finished Document Data Refresh Job at " + new Date());
 		EXT.push(new PushMessage().user(CORE.getUser()).growl(MessageSeverity.info, "Refresh Documents job completed."));
 	}
+
+	/**
+	 * Refresh a document a chunk at a time from its checkpoint.
+	 *
+	 * @return	false if the job was cancelled.
+	 */
+	private boolean refresh(Persistence pers, DataMaintenance dm, ModuleDocument doc, String description) {
+		String key = checkpointKey(dm, doc);
+		String after = ChunkExecutor.checkpoint(key);
+		if (after != null) {
+			getLog().add(description + " resuming after id: " + after);
+		}
+
+		RefreshOption refresh = dm.getRefreshOption();
+		return executor.execute(key, new Source<PersistentBean>() {
+			@Override
+			public List<String> page(String from, int max) {
+				DocumentQuery q = newQuery(pers, doc, from);
+				q.addBoundProjection(Bean.DOCUMENT_ID);
+				q.addBoundOrdering(Bean.DOCUMENT_ID, SortDirection.ascending);
+				q.setMaxResults(max);
+				return q.scalarResults(String.class);
+			}
+
+			@Override
+			public PersistentBean load(String bizId) {
+				return pers.retrieve(doc.getModuleName(), doc.getDocumentName(), bizId);
+			}
+
+			@Override
+			public List<PersistentBean> load(List<String> bizIds) {
+				DocumentQuery q = pers.newDocumentQuery(doc.getModuleName(), doc.getDocumentName());
+				q.getFilter().addIn(Bean.DOCUMENT_ID, bizIds.toArray());
+				q.addBoundOrdering(Bean.DOCUMENT_ID, SortDirection.ascending);
+				return q.beanResults();
+			}
+		}, new ItemAction<PersistentBean>() {
+			@Override
+			public String process(PersistentBean bean) throws Exception {
+				if (RefreshOption.upsert.equals(refresh)) {
+					pers.upsertBeanTuple(bean);
+				} else if (RefreshOption.save.equals(refresh)) {
+					pers.save(bean);
+				}
+				return null;
+			}
+
+			@Override
+			public void failed(PersistentBean bean, Exception e) {
+				RefreshDocumentTuplesJob.this.failed(pers, dm, bean, description);
+			}
+		}, this);
+	}
+
+	private void failed(Persistence pers, DataMaintenance dm, PersistentBean bean, String description) {
+		getLog().add(String.format("%s - %s failed for id: %s",
+									description,
+									dm.getRefreshOption().toLocalisedDescription(),
+									bean.getBizId()));
+
+		if (Boolean.TRUE.equals(dm.getFlagFailed())) {
+			try {
+				bean.setBizFlagComment("Data refresh failed - Please validate data and try again.");
+				pers.upsertBeanTuple(bean);
+				pers.commit(false);
+			}
+			catch (@SuppressWarnings("unused") Exception e) {
+				pers.rollback();
+			}
+			pers.begin();
+		}
+	}
+
+	private String progress() {
+		long seconds = Math.max(1L, (System.currentTimeMillis() - started) / 1000L);
+		return String.format("%d of %d rows refreshed, %d failed, %d rows/sec",
+								Long.valueOf(executor.getProcessed()),
+								Long.valueOf(size),
+								Long.valueOf(executor.getFailed()),
+								Long.valueOf(executor.getProcessed() / seconds));
+	}
+
+	/**
+	 * A query for the beans of a document after the given bizId.
+	 */
+	private static DocumentQuery newQuery(Persistence pers, ModuleDocument doc, String after) {
+		DocumentQuery q = pers.newDocumentQuery(doc.getModuleName(), doc.getDocumentName());
+		if (after != null) {
+			q.getFilter().addGreaterThan(Bean.DOCUMENT_ID, after);
+		}
+		return q;
+	}
+
+	private static String checkpointKey(DataMaintenance dm, ModuleDocument doc) {
+		return String.format("%s/%s/%s.%s", dm.getBizCustomer(), dm.getBizId(), doc.getModuleName(), doc.getDocumentName());
+	}
 }
@@ -1,16 +1,19 @@
 package modules.admin.DataMaintenance;
 
+import java.util.Calendar;
 import java.util.Date;
-import java.util.Iterator;
 import java.util.List;
 
 import org.skyve.CORE;
 import org.skyve.job.Job;
 import org.skyve.persistence.DocumentQuery;
+import org.skyve.persistence.DocumentQuery.AggregateFunction;
 import org.skyve.persistence.Persistence;
 import org.skyve.util.CommunicationUtil;
 import org.skyve.util.CommunicationUtil.ResponseMode;
 
+import modules.admin.AuditDetails;
+import modules.admin.RDBMSAuditInterceptor;
 import modules.admin.DataMaintenance.actions.TruncateAuditLog;
 import modules.admin.Jobs.JobsBizlet;
 import modules.admin.domain.Audit;
@@ -32,24 +35,54 @@ public class TruncateAuditLogJob extends Job {
 
 		if (dm != null) {
 			Persistence pers = CORE.getPersistence();
-			DocumentQuery qAudits = TruncateAuditLog.getAuditQuery(pers, dm);
 
-			List<Audit> auditsToDelete = qAudits.beanResults();
+			// find the range of matching audits and delete it a month at a time with one statement per month
+			DocumentQuery qRange = TruncateAuditLog.getAuditQuery(pers, dm);
+			qRange.addAggregateProjection(AggregateFunction.Min, Audit.millisPropertyName, "minMillis");
+			qRange.addAggregateProjection(AggregateFunction.Max, Audit.millisPropertyName, "maxMillis");
+			Object[] range = qRange.tupleResult();
 
-			int size = auditsToDelete.size();
 			int processed = 0;
+			if ((range != null) && (range[0] != null)) {
+				long from = ((Number) range[0]).longValue();
+				long to = ((Number) range[1]).longValue() + 1L;
+				float size = to - from;
 
-			Iterator<Audit> it = auditsToDelete.iterator();
-			while (it.hasNext()) {
-				Audit a = it.next();
-				pers.delete(a);
-				pers.commit(false);
-				pers.evictCached(a);
-				pers.begin();
+				Calendar window = Calendar.getInstance();
+				window.setTimeInMillis(from);
+				window.set(Calendar.DAY_OF_MONTH, 1);
+				window.set(Calendar.HOUR_OF_DAY, 0);
+				window.set(Calendar.MINUTE, 0);
+				window.set(Calendar.SECOND, 0);
+				window.set(Calendar.MILLISECOND, 0);
+				while (window.getTimeInMillis() < to) {
+					long windowStart = Math.max(from, window.getTimeInMillis());
+					window.add(Calendar.MONTH, 1);
+					long windowEnd = Math.min(to, window.getTimeInMillis());
 
-				setPercentComplete((int) (((float) processed++) / ((float) size) * 100F));
+					// keep the deltas that remain readable, then delete
+					int rewritten = TruncateAuditLog.snapshotBrokenChains(pers, dm, windowStart, windowEnd);
+					int deleted = TruncateAuditLog.deleteAudits(pers, dm, windowStart, windowEnd);
+					pers.commit(false);
+					pers.begin();
+					if (deleted > 0) {
+						processed += deleted;
+						log.add(String.format("Truncated %d audits from %s", Integer.valueOf(deleted), new Date(windowStart)));
+					}
+					if (rewritten > 0) {
+						log.add(String.format("Rewrote %d remaining audits as full snapshots", Integer.valueOf(rewritten)));
+					}
+
+					setPercentComplete((int) ((windowEnd - from) / size * 100F));
+				}
 			}
 
+			// insert audits may have gone so check for them again, and the latest audits may have changed
+			// only this server forgets its known insert audits - run the truncation on a single server deployment
+			// or restart the other servers so that they write new original insert audits
+			RDBMSAuditInterceptor.forgetInsertAudits();
+			AuditDetails.forgetLatestStates();
+
 			// TODO and add an audit record that we have truncated the Log
 
 			// send email notification for completion of Job
@@ -11,6 +11,8 @@ import org.skyve.metadata.module.Module;
 import org.skyve.metadata.user.User;
 import org.skyve.web.WebContext;
 
+import modules.admin.DataMaintenance.BackupCatalogue;
+import modules.admin.DataMaintenance.DataMaintenanceExtension;
 import modules.admin.domain.DataMaintenance;
 
 public class Backup implements ServerSideAction<DataMaintenance> {
@@ -23,6 +25,8 @@ public class Backup implements ServerSideAction<DataMaintenance> {
 		
 		JobMetaData job = m.getJob("jAdhocBackup");
 		EXT.getJobScheduler().runOneShotJob(job, bean, u);
+		// list the backups again, local backups are also listed again as the job changes the backup directory
+		BackupCatalogue.invalidate(DataMaintenanceExtension.backupDirectoryPrefix());
 		webContext.growl(MessageSeverity.info, "Backup Job has been started");
 		
 		return new ServerSideActionResult<>(bean);
@@ -10,6 +10,8 @@ import org.skyve.util.FileUtil;
 import org.skyve.util.Util;
 import org.skyve.web.WebContext;
 
+import modules.admin.DataMaintenance.BackupCatalogue;
+import modules.admin.DataMaintenance.DataMaintenanceExtension;
 import modules.admin.domain.DataMaintenance;
 
 public class DeleteBackup implements ServerSideAction<DataMaintenance> {
@@ -43,6 +45,8 @@ public class DeleteBackup implements ServerSideAction<DataMaintenance> {
 			Util.LOGGER.info("Backup " + backup.getAbsolutePath() + " no longer exists");
 		}
 
+		BackupCatalogue.invalidate(DataMaintenanceExtension.backupDirectoryPrefix());
+
 		// deselect the deleted backup
 		bean.setSelectedBackupName(null);
 		bean.setRefreshBackups(Boolean.TRUE);
@@ -4,6 +4,8 @@ import org.skyve.metadata.controller.ServerSideAction;
 import org.skyve.metadata.controller.ServerSideActionResult;
 import org.skyve.web.WebContext;
 
+import modules.admin.DataMaintenance.BackupCatalogue;
+import modules.admin.DataMaintenance.DataMaintenanceExtension;
 import modules.admin.domain.DataMaintenance;
 
 public class RefreshBackupList implements ServerSideAction<DataMaintenance> {
@@ -11,7 +13,8 @@ public class RefreshBackupList implements ServerSideAction<DataMaintenance> {
 	public ServerSideActionResult<DataMaintenance> execute(DataMaintenance bean, WebContext webContext)
 	throws Exception {
 		
-		//no code required - just force a rerender
+		// list the backups again and rerender
+		BackupCatalogue.invalidate(DataMaintenanceExtension.backupDirectoryPrefix());
 
 		return new ServerSideActionResult<>(bean);
 	}
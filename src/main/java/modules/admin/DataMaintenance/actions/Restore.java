@@ -18,6 +18,8 @@ import org.skyve.metadata.user.User;
 import org.skyve.util.Util;
 import org.skyve.web.WebContext;
 
+import modules.admin.DataMaintenance.BackupCatalogue;
+import modules.admin.DataMaintenance.DataMaintenanceExtension;
 import modules.admin.domain.DataMaintenance;
 
 public class Restore implements ServerSideAction<DataMaintenance> {
@@ -72,6 +74,8 @@ public class Restore implements ServerSideAction<DataMaintenance> {
 		}
 		
 		EXT.getJobScheduler().runOneShotJob(job, bean, u);
+		// list the backups again, local backups are also listed again as the job changes the backup directory
+		BackupCatalogue.invalidate(DataMaintenanceExtension.backupDirectoryPrefix());
 		webContext.growl(MessageSeverity.info, Util.i18n("admin.dataMaintenance.actions.restore.restoreJobCommenced"));
 
 		return new ServerSideActionResult<>(bean);
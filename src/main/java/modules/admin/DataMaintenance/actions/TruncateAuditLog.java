@@ -1,8 +1,13 @@
 package modules.admin.DataMaintenance.actions;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 import org.skyve.CORE;
 import org.skyve.EXT;
 import org.skyve.domain.Bean;
+import org.skyve.impl.util.UtilImpl;
 import org.skyve.metadata.controller.ServerSideAction;
 import org.skyve.metadata.controller.ServerSideActionResult;
 import org.skyve.metadata.customer.Customer;
@@ -12,8 +17,10 @@ import org.skyve.metadata.user.User;
 import org.skyve.persistence.DocumentQuery;
 import org.skyve.persistence.DocumentQuery.AggregateFunction;
 import org.skyve.persistence.Persistence;
+import org.skyve.persistence.SQL;
 import org.skyve.web.WebContext;
 
+import modules.admin.AuditDetails;
 import modules.admin.domain.Audit;
 import modules.admin.domain.DataMaintenance;
 
@@ -69,6 +76,191 @@ public class TruncateAuditLog implements ServerSideAction<DataMaintenance> {
 		return qAudits;
 	}
 
+	/**
+	 * Delete the audits matching the filter selections in a range of millis with a single statement.
+	 * Call {@link #snapshotBrokenChains(Persistence, DataMaintenance, long, long)} for the range first.
+	 * 
+	 * @param pers
+	 * @param bean
+	 * @param fromMillis	The start of the range (inclusive).
+	 * @param toMillis	The end of the range (exclusive).
+	 * @return	The number of audits deleted.
+	 * @throws Exception
+	 */
+	public static int deleteAudits(Persistence pers, DataMaintenance bean, long fromMillis, long toMillis) throws Exception {
+		Customer c = pers.getUser().getCustomer();
+
+		long from = fromMillis;
+		long to = toMillis;
+		// the timestamp filters apply to millis, which has the same value and is indexed
+		if (bean.getAuditTimestampStart() != null) {
+			from = Math.max(from, bean.getAuditTimestampStart().getTime());
+		}
+		if (bean.getAuditTimestampEnd() != null) {
+			to = Math.min(to, bean.getAuditTimestampEnd().getTime() + 1L);
+		}
+		if (from >= to) {
+			return 0;
+		}
+
+		StringBuilder sql = new StringBuilder(256);
+		sql.append("delete from ").append(auditTable(c));
+		sql.append(" where ").append(Audit.millisPropertyName).append(" >= :fromMillis");
+		sql.append(" and ").append(Audit.millisPropertyName).append(" < :toMillis");
+		appendCustomer(sql, "");
+		appendSelections(sql, "", bean, false);
+
+		SQL q = pers.newSQL(sql.toString());
+		q.putParameter("fromMillis", Long.valueOf(from));
+		q.putParameter("toMillis", Long.valueOf(to));
+		putCustomer(q, c);
+		putSelections(q, bean, false);
+		return q.execute();
+	}
+
+	/**
+	 * Rewrite as full snapshots the remaining audits that are stored as a delta against an audit that is about to be
+	 * deleted, for the beans with audits to delete in a range of millis.
+	 * 
+	 * @param pers
+	 * @param bean
+	 * @param fromMillis	The start of the range (inclusive).
+	 * @param toMillis	The end of the range (exclusive).
+	 * @return	The number of audits rewritten.
+	 * @throws Exception
+	 */
+	public static int snapshotBrokenChains(Persistence pers, DataMaintenance bean, long fromMillis, long toMillis) throws Exception {
+		User u = pers.getUser();
+		Customer c = u.getCustomer();
+		String table = auditTable(c);
+
+		// the beans with an audit to delete that is followed by a remaining delta
+		StringBuilder sql = new StringBuilder(512);
+		sql.append("select distinct a.").append(Audit.auditBizIdPropertyName).append(" from ").append(table).append(" a");
+		sql.append(" where a.").append(Audit.millisPropertyName).append(" >= :fromMillis");
+		sql.append(" and a.").append(Audit.millisPropertyName).append(" < :toMillis");
+		appendCustomer(sql, "a.");
+		appendSelections(sql, "a.", bean, true);
+		sql.append(" and exists (select n.").append(Bean.DOCUMENT_ID).append(" from ").append(table).append(" n");
+		sql.append(" where n.").append(Audit.auditBizIdPropertyName).append(" = a.").append(Audit.auditBizIdPropertyName);
+		appendCustomer(sql, "n.");
+		sql.append(" and n.").append(Audit.millisPropertyName).append(" >= a.").append(Audit.millisPropertyName);
+		sql.append(" and n.").append(Audit.auditDetailPropertyName).append(" like :deltaPrefix");
+		sql.append(" and not (1 = 1");
+		appendSelections(sql, "n.", bean, true);
+		sql.append("))");
+
+		SQL q = pers.newSQL(sql.toString());
+		q.putParameter("fromMillis", Long.valueOf(fromMillis));
+		q.putParameter("toMillis", Long.valueOf(toMillis));
+		q.putParameter("deltaPrefix", AuditDetails.DELTA_PREFIX + "%", false);
+		putCustomer(q, c);
+		putSelections(q, bean, true);
+		List<String> auditBizIds = q.scalarResults(String.class);
+
+		int result = 0;
+		for (String auditBizId : auditBizIds) {
+			sql.setLength(0);
+			sql.append("select a.").append(Bean.DOCUMENT_ID);
+			sql.append(", a.").append(Audit.auditDetailPropertyName);
+			sql.append(", case when (1 = 1");
+			appendSelections(sql, "a.", bean, true);
+			sql.append(") then 1 else 0 end from ").append(table).append(" a");
+			sql.append(" where a.").append(Audit.auditBizIdPropertyName).append(" = :").append(Audit.auditBizIdPropertyName);
+			appendCustomer(sql, "a.");
+			sql.append(" order by a.").append(Audit.millisPropertyName).append(", a.").append(Bean.DOCUMENT_ID);
+
+			q = pers.newSQL(sql.toString());
+			q.putParameter(Audit.auditBizIdPropertyName, auditBizId, false);
+			putCustomer(q, c);
+			putSelections(q, bean, true);
+			List<Object[]> audits = new ArrayList<>();
+			for (Object[] row : q.tupleResults()) {
+				audits.add(new Object[] {row[0], row[1], Boolean.valueOf(((Number) row[2]).intValue() == 1)});
+			}
+
+			for (Map.Entry<String, String> snapshot : AuditDetails.snapshotsForTruncation(u, c, audits).entrySet()) {
+				SQL update = pers.newSQL(String.format("update %s set %s = :%s where %s = :%s",
+														table,
+														Audit.auditDetailPropertyName,
+														Audit.auditDetailPropertyName,
+														Bean.DOCUMENT_ID,
+														Bean.DOCUMENT_ID));
+				update.putParameter(Audit.auditDetailPropertyName, snapshot.getValue(), false);
+				update.putParameter(Bean.DOCUMENT_ID, snapshot.getKey(), false);
+				update.execute();
+				result++;
+			}
+		}
+		return result;
+	}
+
+	private static String auditTable(Customer c) {
+		Module m = c.getModule(Audit.MODULE_NAME);
+		@SuppressWarnings("null")
+		String result = m.getDocument(c, Audit.DOCUMENT_NAME).getPersistent().getPersistentIdentifier();
+		return result;
+	}
+
+	private static void appendCustomer(StringBuilder sql, String alias) {
+		if (UtilImpl.CUSTOMER == null) { // multi-tenant
+			sql.append(" and ").append(alias).append(Bean.CUSTOMER_NAME).append(" = :").append(Bean.CUSTOMER_NAME);
+		}
+	}
+
+	private static void putCustomer(SQL q, Customer c) {
+		if (UtilImpl.CUSTOMER == null) { // multi-tenant
+			q.putParameter(Bean.CUSTOMER_NAME, c.getName(), false);
+		}
+	}
+
+	/**
+	 * Append the filter selections as conditions on an audit table alias.
+	 * 
+	 * @param timestamps	Whether to include the timestamp selections, which are otherwise applied to the millis range.
+	 */
+	private static void appendSelections(StringBuilder sql, String alias, DataMaintenance bean, boolean timestamps) {
+		if (bean.getAuditModuleName() != null) {
+			sql.append(" and ").append(alias).append(Audit.auditModuleNamePropertyName).append(" = :").append(Audit.auditModuleNamePropertyName);
+		}
+		if (bean.getAuditDocumentName() != null) {
+			sql.append(" and ").append(alias).append(Audit.auditDocumentNamePropertyName).append(" = :").append(Audit.auditDocumentNamePropertyName);
+		}
+		if (bean.getAuditOperation() != null) {
+			sql.append(" and ").append(alias).append(Audit.operationPropertyName).append(" = :").append(Audit.operationPropertyName);
+		}
+		if (bean.getAuditUser() != null) {
+			sql.append(" and ").append(alias).append(Audit.userNamePropertyName).append(" = :").append(Audit.userNamePropertyName);
+		}
+		if (timestamps && (bean.getAuditTimestampStart() != null)) {
+			sql.append(" and ").append(alias).append(Audit.millisPropertyName).append(" >= :startMillis");
+		}
+		if (timestamps && (bean.getAuditTimestampEnd() != null)) {
+			sql.append(" and ").append(alias).append(Audit.millisPropertyName).append(" <= :endMillis");
+		}
+	}
+
+	private static void putSelections(SQL q, DataMaintenance bean, boolean timestamps) {
+		if (bean.getAuditModuleName() != null) {
+			q.putParameter(Audit.auditModuleNamePropertyName, bean.getAuditModuleName(), false);
+		}
+		if (bean.getAuditDocumentName() != null) {
+			q.putParameter(Audit.auditDocumentNamePropertyName, bean.getAuditDocumentName(), false);
+		}
+		if (bean.getAuditOperation() != null) {
+			q.putParameter(Audit.operationPropertyName, bean.getAuditOperation());
+		}
+		if (bean.getAuditUser() != null) {
+			q.putParameter(Audit.userNamePropertyName, bean.getAuditUser().getUserName(), false);
+		}
+		if (timestamps && (bean.getAuditTimestampStart() != null)) {
+			q.putParameter("startMillis", Long.valueOf(bean.getAuditTimestampStart().getTime()));
+		}
+		if (timestamps && (bean.getAuditTimestampEnd() != null)) {
+			q.putParameter("endMillis", Long.valueOf(bean.getAuditTimestampEnd().getTime()));
+		}
+	}
+
 	/**
 	 * Get count of affected records
 	 * 
@@ -14,6 +14,8 @@ import org.skyve.metadata.controller.UploadAction;
 import org.skyve.util.Util;
 import org.skyve.web.WebContext;
 
+import modules.admin.DataMaintenance.BackupCatalogue;
+import modules.admin.DataMaintenance.DataMaintenanceExtension;
 import modules.admin.domain.DataMaintenance;
 
 public class UploadBackup extends UploadAction<DataMaintenance> {
@@ -60,6 +62,7 @@ public class UploadBackup extends UploadAction<DataMaintenance> {
 		}
 
 		// refresh the list of backups to include the uploaded one
+		BackupCatalogue.invalidate(DataMaintenanceExtension.backupDirectoryPrefix());
 		bean.setRefreshBackups(Boolean.TRUE);
 
 		return bean;
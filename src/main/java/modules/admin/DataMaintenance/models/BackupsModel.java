@@ -3,7 +3,6 @@ package modules.admin.DataMaintenance.models;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
@@ -19,9 +18,7 @@ import org.skyve.domain.Bean;
 import org.skyve.domain.DynamicBean;
 import org.skyve.domain.PersistentBean;
 import org.skyve.domain.types.OptimisticLock;
-import org.skyve.impl.backup.ExternalBackup;
 import org.skyve.impl.metadata.module.query.MetaDataQueryProjectedColumnImpl;
-import org.skyve.metadata.SortDirection;
 import org.skyve.metadata.customer.Customer;
 import org.skyve.metadata.model.document.Document;
 import org.skyve.metadata.module.query.MetaDataQueryColumn;
@@ -29,8 +26,8 @@ import org.skyve.metadata.view.model.list.Filter;
 import org.skyve.metadata.view.model.list.ListModel;
 import org.skyve.metadata.view.model.list.Page;
 import org.skyve.persistence.AutoClosingIterable;
-import org.skyve.util.FileUtil;
 
+import modules.admin.DataMaintenance.BackupCatalogue;
 import modules.admin.DataMaintenance.DataMaintenanceExtension;
 import modules.admin.domain.DataMaintenance;
 import modules.admin.domain.DownloadFolder;
@@ -149,7 +146,7 @@ public class BackupsModel extends ListModel<DataMaintenance> {
 	}
 
 	/**
-	 * Fetch backup zip files (name and size).
+	 * Fetch backup zip files (name and size) from the backup catalogue.
 	 *
 	 * @param dirPath
 	 * @param startRow
@@ -158,70 +155,24 @@ public class BackupsModel extends ListModel<DataMaintenance> {
 	 * @throws IOException
 	 */
 	public static Page fetchBackups(String dirPath, int startRow, int endRow) throws IOException {
-		Map<String, Long> backups = new TreeMap<>();
-		if (ExternalBackup.areExternalBackupsEnabled()) {
-			ExternalBackup backupInstance = ExternalBackup.getInstance();
-			for (String s : backupInstance.listBackups()) {
-				Long fileSize = Long.valueOf(backupInstance.getFileSize(s));
-				if (fileSize != null) {
-					// Convert to MB for readability
-					fileSize = Long.valueOf(fileSize.longValue() / (1024 * 1024));
-					backups.put(s, fileSize);
-				} else {
-					backups.put(s, Long.valueOf(0));
-				}
-			}
-		} else {
-			File[] files = FileUtil.listFiles(new File(dirPath), ".*.zip", SortDirection.descending);
-			if (files != null) {
-				for (File file : files) {
-					Long fileSize = Long.valueOf(Files.size(file.toPath()));
-					if (fileSize != null) {
-						// Convert to MB for readability
-						fileSize = Long.valueOf(fileSize.longValue() / (1024 * 1024));
-						backups.put(file.getName(), fileSize);
-					} else {
-						backups.put(file.getName(), Long.valueOf(0));
-					}
-				}
-			}
-		}
-		return fetchBackups(backups, startRow, endRow);
-	}
-
-	/**
-	 * Fetch backups - name and size.
-	 * Return a page of backups.
-	 *
-	 * @param things
-	 * @param startRow
-	 * @param endRow
-	 * @return
-	 */
-	private static Page fetchBackups(Map<String, Long> backups, int startRow, int endRow) {
-		int start = startRow;
-		int end = endRow;
+		List<BackupCatalogue.Entry> backups = BackupCatalogue.entries(dirPath);
+		int start = Math.max(0, startRow);
+		int end = Math.min(endRow, backups.size() - 1);
 		OptimisticLock lock = new OptimisticLock(CORE.getUser().getName(), new Date());
 
-		List<Bean> rows = new ArrayList<>(end - start);
-		int i = 0;
-		for (String backupName : backups.keySet()) {
-			if (i >= start) {
-				Map<String, Object> properties = new TreeMap<>();
-				properties.put(Bean.DOCUMENT_ID, backupName);
-				properties.put(PersistentBean.LOCK_NAME, lock);
-				properties.put(PersistentBean.TAGGED_NAME, null);
-				properties.put(PersistentBean.FLAG_COMMENT_NAME, null);
-				properties.put(Bean.BIZ_KEY, backupName);
-				properties.put(DownloadFolder.namePropertyName, backupName);
-				properties.put(DownloadFolder.sizePropertyName, backups.get(backupName));
-				rows.add(new DynamicBean(DownloadFolder.MODULE_NAME, DownloadFolder.DOCUMENT_NAME, properties));
-
-				if (i >= end) {
-					break;
-				}
-			}
-			i++;
+		List<Bean> rows = new ArrayList<>(Math.max(0, end - start + 1));
+		for (int i = start; i <= end; i++) {
+			BackupCatalogue.Entry backup = backups.get(i);
+			String backupName = backup.getName();
+			Map<String, Object> properties = new TreeMap<>();
+			properties.put(Bean.DOCUMENT_ID, backupName);
+			properties.put(PersistentBean.LOCK_NAME, lock);
+			properties.put(PersistentBean.TAGGED_NAME, null);
+			properties.put(PersistentBean.FLAG_COMMENT_NAME, null);
+			properties.put(Bean.BIZ_KEY, backupName);
+			properties.put(DownloadFolder.namePropertyName, backupName);
+			properties.put(DownloadFolder.sizePropertyName, Long.valueOf(backup.getSizeInMB()));
+			rows.add(new DynamicBean(DownloadFolder.MODULE_NAME, DownloadFolder.DOCUMENT_NAME, properties));
 		}
 
 		Page page = new Page();
@@ -4,10 +4,13 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 import org.skyve.CORE;
 import org.skyve.EXT;
@@ -24,6 +27,7 @@ import org.skyve.impl.metadata.module.query.MetaDataQueryProjectedColumnImpl;
 import org.skyve.metadata.customer.Customer;
 import org.skyve.metadata.model.document.Document;
 import org.skyve.metadata.module.query.MetaDataQueryColumn;
+import org.skyve.metadata.user.User;
 import org.skyve.metadata.view.model.list.Filter;
 import org.skyve.metadata.view.model.list.ListModel;
 import org.skyve.metadata.view.model.list.Page;
@@ -33,7 +37,62 @@ import org.skyve.util.Util;
 import modules.admin.domain.Content;
 import modules.admin.domain.DataMaintenance;
 
+/**
+ * Lists the content the user can access, a page at a time.
+ * <p>
+ * The content index can only be read in order and each hit's access is checked one at a time, which can need a
+ * query per hit. So as pages are read, the position of every {@link #CHECKPOINT_ROWS}th accessible row in the index
+ * is kept for the user, and later pages start from the nearest kept position, only checking the access of the hits
+ * after it. Each position also keeps the hit before it, which is checked when the page starts from it, so that content
+ * added or removed before the position drops them even when the number of hits stays the same. The positions are
+ * also dropped when the number of hits in the index changes or after {@link #CURSOR_MILLIS}.
+ */
 public class ContentModel extends ListModel<DataMaintenance> {
+	/**
+	 * The number of accessible rows between each kept index position.
+	 */
+	private static final int CHECKPOINT_ROWS = 100;
+
+	/**
+	 * The longest time the index positions of a user are kept.
+	 */
+	private static final long CURSOR_MILLIS = 60L * 1000L;
+
+	/**
+	 * The hit number in the index of an accessible row, and the hit before it.
+	 */
+	private static final class Checkpoint {
+		private final int hitNumber;
+		// null for the first hit
+		private final String previousHit;
+
+		Checkpoint(int hitNumber, String previousHit) {
+			this.hitNumber = hitNumber;
+			this.previousHit = previousHit;
+		}
+	}
+
+	/**
+	 * The index position of accessible rows for a user.
+	 */
+	private static final class Cursor {
+		private final long totalHits;
+		private final long createdMillis = System.currentTimeMillis();
+		// accessible row -> position in the index
+		private final NavigableMap<Integer, Checkpoint> hits = new ConcurrentSkipListMap<>();
+
+		Cursor(long totalHits) {
+			this.totalHits = totalHits;
+			hits.put(Integer.valueOf(0), new Checkpoint(0, null));
+		}
+
+		boolean isExpired(long now) {
+			return ((now - createdMillis) > CURSOR_MILLIS);
+		}
+	}
+
+	private static final Map<String, Cursor> CURSORS = new ConcurrentHashMap<>();
+
 	private Document drivingDocument = null;
 	private Set<String> projections = new TreeSet<>();
 	private List<MetaDataQueryColumn> columns = new ArrayList<>(1);
@@ -133,11 +192,32 @@ public class ContentModel extends ListModel<DataMaintenance> {
 			int start = getStartRow();
 			int end = getEndRow();
 			
-			String userName = CORE.getUser().getName();
+			User user = CORE.getUser();
+			String userName = user.getName();
 
 			List<Bean> rows = new ArrayList<>(end - start);
 			ContentIterator it = cm.all().iterator();
-			int i = 0;
+			Cursor cursor = cursor(user, it.getTotalHits());
+
+			// skip to the nearest known position before the page without checking access
+			Map.Entry<Integer, Checkpoint> from = cursor.hits.floorEntry(Integer.valueOf(start));
+			Checkpoint checkpoint = from.getValue();
+			int hitNumber = 0;
+			String previousHit = null;
+			while ((hitNumber < checkpoint.hitNumber) && it.hasNext()) {
+				previousHit = hitKey(it.next());
+				hitNumber++;
+			}
+			if ((checkpoint.previousHit != null) && (! checkpoint.previousHit.equals(previousHit))) {
+				// content was added or removed before the position, so check every hit from the start
+				CURSORS.remove(cursorKey(user), cursor);
+				it = cm.all().iterator();
+				cursor = cursor(user, it.getTotalHits());
+				from = cursor.hits.firstEntry();
+				hitNumber = 0;
+			}
+			int i = from.getKey().intValue();
+
 			while (it.hasNext()) {
 				SearchResult hit = it.next();
 				String bizCustomer = hit.getCustomerName();
@@ -154,6 +234,10 @@ public class ContentModel extends ListModel<DataMaintenance> {
 																bizUserId, 
 																bizId,
 																attributeName)) {
+					// keep the position of the row after this one, following this hit
+					if (((i + 1) % CHECKPOINT_ROWS) == 0) {
+						cursor.hits.putIfAbsent(Integer.valueOf(i + 1), new Checkpoint(hitNumber + 1, hitKey(hit)));
+					}
 					if (i >= start) {
 						String contentId = hit.getContentId();
 						Map<String, Object> properties = new TreeMap<>();
@@ -185,15 +269,17 @@ public class ContentModel extends ListModel<DataMaintenance> {
 					}
 					i++;
 				}
+				hitNumber++;
 			}
 			Page page = new Page();
 			page.setTotalRows(it.getTotalHits());
 			page.setRows(rows);
-			Util.LOGGER.info(String.format("Content Model start = %d : end = %d : size = %d : total rows = %d ",
+			Util.LOGGER.info(String.format("Content Model start = %d : end = %d : size = %d : total rows = %d : skipped to row %d",
 											Integer.valueOf(start),
 											Integer.valueOf(end),
 											Integer.valueOf(page.getRows().size()),
-											Long.valueOf(page.getTotalRows())));
+											Long.valueOf(page.getTotalRows()),
+											from.getKey()));
 
 			Map<String, Object> properties = new TreeMap<>();
 			properties.put(PersistentBean.FLAG_COMMENT_NAME, null);
@@ -202,6 +288,33 @@ public class ContentModel extends ListModel<DataMaintenance> {
 		}
 	}
 
+	/**
+	 * The kept index positions of the user, or new ones if the index has changed or they are too old.
+	 * The positions of other users that are too old are dropped when new ones are kept.
+	 */
+	private static Cursor cursor(User user, long totalHits) {
+		String key = cursorKey(user);
+		long now = System.currentTimeMillis();
+		Cursor result = CURSORS.get(key);
+		if ((result == null) || (result.totalHits != totalHits) || result.isExpired(now)) {
+			CURSORS.values().removeIf(c -> c.isExpired(now));
+			result = new Cursor(totalHits);
+			CURSORS.put(key, result);
+		}
+		return result;
+	}
+
+	private static String cursorKey(User user) {
+		return user.getCustomerName() + '/' + user.getId();
+	}
+
+	/**
+	 * What a hit is in the index - its bean, attribute and content.
+	 */
+	private static String hitKey(SearchResult hit) {
+		return hit.getBizId() + '/' + hit.getAttributeName() + '/' + hit.getContentId();
+	}
+
 	@Override
 	public AutoClosingIterable<Bean> iterate() throws Exception {
 		throw new IllegalStateException("NOT IMPLEMENTED");
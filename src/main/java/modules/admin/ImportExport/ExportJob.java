@@ -0,0 +1,100 @@
+package modules.admin.ImportExport;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Date;
+import java.util.List;
+
+import org.skyve.CORE;
+import org.skyve.EXT;
+import org.skyve.domain.messages.MessageSeverity;
+import org.skyve.job.Job;
+import org.skyve.metadata.customer.Customer;
+import org.skyve.metadata.module.JobMetaData;
+import org.skyve.metadata.module.Module;
+import org.skyve.metadata.user.User;
+import org.skyve.persistence.Persistence;
+import org.skyve.util.PushMessage;
+import org.skyve.web.WebContext;
+
+import modules.admin.domain.ImportExport;
+
+/**
+ * Exports the data of an ImportExport in the background, for documents too large to download while the user waits.
+ * <p>
+ * The workbook is written by {@link StreamingExport} to a part file of its own, which is moved to
+ * {@link StreamingExport#backgroundFile(ImportExport, User)} once complete for the DownloadExport action to download.
+ * The download deletes the file once streamed.
+ */
+public class ExportJob extends Job {
+	private volatile StreamingExport export;
+	private volatile boolean cancelled = false;
+
+	@Override
+	public String cancel() {
+		cancelled = true;
+		StreamingExport e = export;
+		if (e != null) {
+			e.cancel();
+		}
+		return null;
+	}
+
+	@Override
+	public void execute() throws Exception {
+		List<String> log = getLog();
+
+		ImportExport bean = (ImportExport) getBean();
+		log.add("Started export of " + bean.getModuleName() + "." + bean.getDocumentName() + " at " + new Date());
+
+		export = new StreamingExport(bean, bean.getImportExportColumns(), Boolean.TRUE.equals(bean.getFileContainsHeaders()));
+		if (cancelled) {
+			export.cancel();
+		}
+		float size = Math.max(1L, export.count());
+
+		// a part file of its own so that exports running at the same time do not write over each other
+		File file = StreamingExport.backgroundFile(bean, CORE.getUser());
+		File part = File.createTempFile(file.getName() + '.', ".part", file.getParentFile());
+		part.deleteOnExit();
+		int rows;
+		try (OutputStream out = new BufferedOutputStream(new FileOutputStream(part))) {
+			rows = export.write(out, written -> setPercentComplete((int) Math.min(99F, written / size * 100F)));
+		}
+
+		if (cancelled) {
+			Files.deleteIfExists(part.toPath());
+			log.add("Export cancelled after " + rows + " rows");
+			return;
+		}
+
+		file.deleteOnExit();
+		Files.move(part.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+		setPercentComplete(100);
+		log.add("Exported " + rows + " rows");
+		log.add("Finished export at " + new Date());
+		EXT.push(new PushMessage().user(CORE.getUser()).growl(MessageSeverity.info,
+																"The export is complete - use Download Exported Data to download it."));
+	}
+
+	public static void kickoffJob(ImportExport bean, WebContext webContext) throws Exception {
+		Persistence persistence = CORE.getPersistence();
+		User user = persistence.getUser();
+
+		// remove any previous export so it is not downloaded while this one runs
+		Files.deleteIfExists(StreamingExport.backgroundFile(bean, user).toPath());
+
+		Customer customer = user.getCustomer();
+		Module module = customer.getModule(ImportExport.MODULE_NAME);
+		JobMetaData job = module.getJob("jExport");
+
+		EXT.getJobScheduler().runOneShotJob(job, bean, user);
+
+		webContext.growl(MessageSeverity.info, "The export job has started - check job log for progress");
+	}
+}
@@ -0,0 +1,399 @@
+package modules.admin.ImportExport;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.skyve.CORE;
+import org.skyve.EXT;
+import org.skyve.domain.PersistentBean;
+import org.skyve.domain.messages.Message;
+import org.skyve.domain.messages.MessageSeverity;
+import org.skyve.domain.messages.OptimisticLockException;
+import org.skyve.domain.messages.UploadException;
+import org.skyve.domain.messages.ValidationException;
+import org.skyve.impl.bizport.AbstractDataFileLoader.LoaderActivityType;
+import org.skyve.impl.bizport.DataFileField;
+import org.skyve.impl.bizport.DataFileField.LoadAction;
+import org.skyve.impl.bizport.POISheetLoader;
+import org.skyve.job.Job;
+import org.skyve.metadata.customer.Customer;
+import org.skyve.metadata.model.document.Document;
+import org.skyve.metadata.module.JobMetaData;
+import org.skyve.metadata.module.Module;
+import org.skyve.metadata.user.User;
+import org.skyve.persistence.Persistence;
+import org.skyve.util.Util;
+import org.skyve.web.WebContext;
+
+import modules.admin.ImportExportColumn.ImportExportColumnBizlet;
+import modules.admin.domain.ImportExport;
+import modules.admin.domain.ImportExport.LoadType;
+import modules.admin.domain.ImportExport.RollbackErrors;
+import modules.admin.domain.ImportExportColumn;
+
+/**
+ * Imports the uploaded file of an ImportExport in the background.
+ * <p>
+ * With "Load and save until error or complete" selected, the rows are committed every {@link #COMMIT_SIZE} rows
+ * and a row that cannot be saved is reported in the job log and skipped rather than ending the import.
+ * A row that fails validation is skipped without affecting the rest of its chunk. Any other failure leaves the session
+ * unusable, so the chunk is rolled back and its rows are read again from a second loader and saved one row per
+ * transaction, so that only the rows that fail are lost.
+ * With "Roll-back all if there's a problem" selected, the import is a single transaction and the first
+ * row that cannot be saved is reported and everything is rolled back.
+ */
+public class ImportJob extends Job {
+	/**
+	 * The number of rows saved in each transaction when errors are not rolled back.
+	 */
+	public static final int COMMIT_SIZE = 200;
+
+	/**
+	 * The most row errors written to the job log.
+	 */
+	private static final int MAX_LOGGED_ERRORS = 500;
+
+	private volatile boolean cancelled = false;
+
+	private int created = 0;
+	private int failed = 0;
+
+	/**
+	 * The result of loading and saving a row.
+	 */
+	private static final class RowResult {
+		private static final RowResult SAVED = new RowResult(null, false);
+
+		private final String error;
+		private final boolean rollback;
+
+		private RowResult(String error, boolean rollback) {
+			this.error = error;
+			this.rollback = rollback;
+		}
+	}
+
+	@Override
+	public String cancel() {
+		cancelled = true;
+		return null;
+	}
+
+	@Override
+	public void execute() throws Exception {
+		List<String> log = getLog();
+
+		ImportExport bean = (ImportExport) getBean();
+		log.add("Started import of " + bean.getImportFileName() + " at " + new Date());
+
+		Persistence persistence = CORE.getPersistence();
+		Customer customer = CORE.getCustomer();
+		Module module = customer.getModule(bean.getModuleName());
+		Document document = module.getDocument(customer, bean.getDocumentName());
+		boolean batched = RollbackErrors.noRollbackErrors.equals(bean.getRollbackErrors());
+
+		int loadedRows = 0;
+		int chunkStart = 0;
+		int uncommitted = 0;
+		// the rows of the current chunk already reported, so they are not reported again if the chunk is redone
+		Set<Integer> reported = new HashSet<>();
+
+		UploadException exception = new UploadException();
+		InputStream replayStream = null;
+		try (InputStream poiStream = new FileInputStream(new File(bean.getImportFileAbsolutePath()))) {
+			POISheetLoader loader = newLoader(bean, poiStream, exception);
+			POISheetLoader replayLoader = null;
+			int replayPosition = 0;
+
+			while (loader.hasNextData()) {
+				if (cancelled) {
+					log.add("Cancelled at " + loader.getWhere());
+					break;
+				}
+
+				loader.nextData();
+
+				// stop at empty row
+				if (loader.isNoData()) {
+					Util.LOGGER.info("End of import found at " + loader.getWhere());
+					break;
+				}
+
+				String where = loader.getWhere();
+				RowResult result = saveRow(loader, persistence, where);
+				loadedRows++;
+
+				if (result.error == null) {
+					uncommitted++;
+				}
+				else if (! batched) {
+					persistence.rollback();
+					persistence.begin();
+					log.add(where + ": " + result.error);
+					log.add("Import rolled back - no records were created");
+					return;
+				}
+				else if (! result.rollback) {
+					logError(log, where, result.error);
+					reported.add(Integer.valueOf(loadedRows - 1));
+				}
+				else {
+					// the session cannot be trusted after a failed flush, so redo the chunk a row at a time
+					persistence.rollback();
+					persistence.evictAllCached();
+					persistence.begin();
+					created -= uncommitted;
+					uncommitted = 0;
+					log.add(String.format("Saving the uncommitted rows up to %s one at a time", where));
+
+					if (replayLoader == null) {
+						replayStream = new FileInputStream(new File(bean.getImportFileAbsolutePath()));
+						replayLoader = newLoader(bean, replayStream, new UploadException());
+					}
+					// the replay loader only moves forward, to the start of the chunk
+					while (replayPosition < chunkStart) {
+						replayLoader.nextData();
+						replayPosition++;
+					}
+					while (replayPosition < loadedRows) {
+						replayLoader.nextData();
+						replayPosition++;
+						String replayWhere = replayLoader.getWhere();
+						RowResult replayed = saveRow(replayLoader, persistence, replayWhere);
+						if (replayed.error == null) {
+							persistence.commit(false);
+						}
+						else {
+							persistence.rollback();
+							if (! reported.contains(Integer.valueOf(replayPosition - 1))) {
+								logError(log, replayWhere, replayed.error);
+							}
+						}
+						persistence.evictAllCached();
+						persistence.begin();
+					}
+					chunkStart = loadedRows;
+					reported.clear();
+				}
+
+				if (batched && (uncommitted >= COMMIT_SIZE)) {
+					persistence.commit(false);
+					persistence.evictAllCached();
+					persistence.begin();
+					uncommitted = 0;
+					chunkStart = loadedRows;
+					reported.clear();
+					log.add(String.format("%d rows read, %d %s created", Integer.valueOf(loadedRows), Integer.valueOf(created), document.getLocalisedPluralAlias()));
+				}
+			}
+		}
+		catch (ValidationException e) {
+			// the file does not match the columns
+			for (Message m : e.getMessages()) {
+				log.add(m.getText());
+			}
+			log.add("Import unsuccessful. Try again.");
+			return;
+		}
+		finally {
+			if (replayStream != null) {
+				replayStream.close();
+			}
+		}
+
+		if (failed > MAX_LOGGED_ERRORS) {
+			log.add(String.format("%d more rows could not be saved", Integer.valueOf(failed - MAX_LOGGED_ERRORS)));
+		}
+
+		// construct result message
+		StringBuilder sb = new StringBuilder();
+		if (loadedRows > 0) {
+			sb.append("Successfully loaded ").append(loadedRows - failed).append(" rows. ");
+			sb.append(created).append(' ').append(document.getLocalisedPluralAlias()).append(" created.");
+			if (failed > 0) {
+				sb.append(' ').append(failed).append(" rows could not be saved - see the job log for details.");
+			}
+		} else {
+			sb.append("Import unsuccessful. Try again.");
+		}
+		setPercentComplete(100);
+		log.add(sb.toString());
+		log.add("Finished import at " + new Date());
+	}
+
+	/**
+	 * Load the loader's current row into a bean and save it.
+	 */
+	private RowResult saveRow(POISheetLoader loader, Persistence persistence, String where) {
+		try {
+			PersistentBean b = loader.beanResult();
+			if (b == null) {
+				return new RowResult("The row could not be loaded", false);
+			}
+			if (b.getBizKey() == null || b.getBizKey().trim().length() == 0) {
+				return new RowResult("The new record has no value for bizKey", false);
+			}
+
+			b = persistence.save(b);
+			if (loader.isDebugMode()) {
+				Util.LOGGER.info(b.getBizKey() + " - Saved successfully");
+			}
+			persistence.evictCached(b);
+			created++;
+			return RowResult.SAVED;
+		}
+		catch (ValidationException ve) {
+			// validation happens before anything is flushed, so the rest of the chunk is unaffected
+			StringBuilder msg = new StringBuilder("Imported values were not valid:");
+			for (Message m : ve.getMessages()) {
+				msg.append(' ').append(m.getText());
+			}
+			return new RowResult(msg.toString(), false);
+		}
+		catch (OptimisticLockException ole) {
+			Util.LOGGER.warning("Import save failed at " + where + " - " + ole.getMessage());
+			return new RowResult("The save failed - check for duplicates in the file, rows finding the same related record or other users changing related data", true);
+		}
+		catch (Exception e) {
+			Util.LOGGER.warning("Import save failed at " + where + " - " + e.getMessage());
+			return new RowResult("The save failed - check the bindings and that enough information was supplied to save the record", true);
+		}
+	}
+
+	private void logError(List<String> log, String where, String error) {
+		if (failed++ < MAX_LOGGED_ERRORS) {
+			log.add(where + ": " + error);
+		}
+	}
+
+	/**
+	 * Check the columns are configured correctly and start the import job.
+	 */
+	public static void kickoffJob(ImportExport bean, WebContext webContext) throws Exception {
+		for (ImportExportColumn col : bean.getImportExportColumns()) {
+			resolveBinding(col);
+		}
+
+		Persistence persistence = CORE.getPersistence();
+		User user = persistence.getUser();
+		Customer customer = user.getCustomer();
+		Module module = customer.getModule(ImportExport.MODULE_NAME);
+		JobMetaData job = module.getJob("jImport");
+
+		EXT.getJobScheduler().runOneShotJob(job, bean, user);
+
+		bean.setResults("The import has started - check the job log for detailed results.");
+		webContext.growl(MessageSeverity.info, "The import job has started - check job log for detailed results");
+	}
+
+	/**
+	 * Create a loader for the file with a field for each column, checking the column titles if the file has headers.
+	 */
+	private static POISheetLoader newLoader(ImportExport bean, InputStream poiStream, UploadException exception) throws Exception {
+		POISheetLoader loader = new POISheetLoader(poiStream, 0, bean.getModuleName(), bean.getDocumentName(), exception);
+		loader.setDebugMode(Boolean.TRUE.equals(bean.getDetailedLogging()));
+		if (LoadType.createAll.equals(bean.getLoadType())) {
+			loader.setActivityType(LoaderActivityType.CREATE_ALL);
+		} else {
+			loader.setActivityType(LoaderActivityType.CREATE_FIND);
+		}
+
+		// include headers
+		if (Boolean.TRUE.equals(bean.getFileContainsHeaders())) {
+			loader.setDataIndex(1);
+
+			// verify columns match
+			int i = 0;
+			boolean moreCells = true;
+			while (moreCells) {
+				// load until an empty column is found
+				String columnName = loader.getStringFieldValue(i, true);
+				if (columnName == null || "".equals(columnName.trim()) || i > bean.getImportExportColumns().size()) {
+					moreCells = false;
+					break;
+				}
+
+				// strip any line breaks or tabs in the column name
+				columnName = columnName.replace("\n", "").replace("\t", "");
+
+				if (!columnName.equals(bean.getImportExportColumns().get(i).getColumnName())) {
+					StringBuilder sb = new StringBuilder();
+					sb.append("The column title ").append(bean.getImportExportColumns().get(i).getColumnName());
+					sb.append(" doesn't match the title of the column in the file (").append(columnName).append(")");
+					throw new ValidationException(new Message(sb.toString()));
+				}
+				i++;
+			}
+		}
+
+		// and field bindings to loader
+		for (ImportExportColumn col : bean.getImportExportColumns()) {
+			String resolvedBinding = resolveBinding(col);
+			StringBuilder sb = new StringBuilder();
+			sb.append("Adding field with binding ").append(resolvedBinding);
+
+			// add field to loader configuration
+			DataFileField f = new DataFileField(resolvedBinding);
+			f.setLoadAction(null); // default behaviour
+			if (col.getLoadAction() != null) {
+				switch (col.getLoadAction()) {
+				case confirmValue:
+					f.setLoadAction(LoadAction.CONFIRM_VALUE);
+					break;
+				case lookupContains:
+					f.setLoadAction(LoadAction.LOOKUP_CONTAINS);
+					break;
+				case lookupEquals:
+					f.setLoadAction(LoadAction.LOOKUP_EQUALS);
+					break;
+				case lookupLike:
+					f.setLoadAction(LoadAction.LOOKUP_LIKE);
+					break;
+				case setValue:
+					f.setLoadAction(LoadAction.SET_VALUE);
+					break;
+				default:
+					break;
+				}
+				sb.append(" using load action ").append(col.getLoadAction().toLocalisedDescription());
+			}
+
+			if (loader.isDebugMode()) {
+				Util.LOGGER.info(sb.toString());
+			}
+			loader.addField(f);
+			if (loader.isDebugMode()) {
+				Util.LOGGER.info("Field added at position " + f.getIndex().toString());
+			}
+		}
+
+		return loader;
+	}
+
+	/**
+	 * The binding to load a column into, from its binding expression if it has one.
+	 */
+	private static String resolveBinding(ImportExportColumn col) {
+		String resolvedBinding = col.getBindingName();
+		if (ImportExportColumnBizlet.EXPRESSION.equals(col.getBindingName())) {
+			if (col.getBindingExpression() != null) {
+				if (col.getBindingExpression().indexOf("{") > -1) {
+					resolvedBinding = col.getBindingExpression().substring(col.getBindingExpression().indexOf("{") + 1, col.getBindingExpression().lastIndexOf("}"));
+				} else {
+					resolvedBinding = col.getBindingExpression();
+				}
+			} else {
+				StringBuilder msg = new StringBuilder();
+				msg.append("You selected '").append(ImportExportColumnBizlet.EXPRESSION).append("' for column ").append(col.getColumnName());
+				msg.append(" but have not provided a binding expression.");
+				throw new ValidationException(new Message(msg.toString()));
+			}
+		}
+		return resolvedBinding;
+	}
+}
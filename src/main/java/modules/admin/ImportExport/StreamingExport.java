@@ -0,0 +1,230 @@
+package modules.admin.ImportExport;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.skyve.CORE;
+import org.skyve.domain.Bean;
+import org.skyve.domain.PersistentBean;
+import org.skyve.domain.types.Enumeration;
+import org.skyve.metadata.SortDirection;
+import org.skyve.metadata.user.User;
+import org.skyve.persistence.AutoClosingIterable;
+import org.skyve.persistence.DocumentQuery;
+import org.skyve.persistence.DocumentQuery.AggregateFunction;
+import org.skyve.persistence.Persistence;
+import org.skyve.util.Binder;
+import org.skyve.util.Util;
+
+import modules.admin.ImportExportColumn.ImportExportColumnBizlet;
+import modules.admin.domain.ImportExport;
+import modules.admin.domain.ImportExportColumn;
+
+/**
+ * Writes every bean of an export's document to an xlsx workbook without holding them all in memory.
+ * <p>
+ * The beans are read {@link #PAGE_SIZE} at a time in bizId order and let go of after each page, and the workbook only
+ * keeps the last {@link #WINDOW_SIZE} rows in memory, writing the rest to a compressed temp file until it is written out.
+ * A new sheet is started when a sheet is full.
+ */
+public class StreamingExport {
+	/**
+	 * The number of beans read in each query.
+	 */
+	public static final int PAGE_SIZE = 500;
+
+	/**
+	 * The number of rows the workbook keeps in memory.
+	 */
+	public static final int WINDOW_SIZE = 100;
+
+	private final String moduleName;
+	private final String documentName;
+	private final List<String> titles = new ArrayList<>();
+	private final List<String> bindings = new ArrayList<>();
+	private final boolean containsHeaders;
+	private volatile boolean cancelled = false;
+
+	/**
+	 * @param bean	The export configuration.
+	 * @param columns	The columns to export.
+	 * @param containsHeaders	Whether to start each sheet with the column names.
+	 */
+	public StreamingExport(ImportExport bean, List<ImportExportColumn> columns, boolean containsHeaders) {
+		moduleName = bean.getModuleName();
+		documentName = bean.getDocumentName();
+		for (ImportExportColumn c : columns) {
+			String binding = c.getBindingName();
+			if (ImportExportColumnBizlet.EXPRESSION.equals(c.getBindingName()) && c.getBindingExpression() != null) {
+				binding = c.getBindingExpression();
+			}
+			titles.add(c.getColumnName());
+			bindings.add(binding);
+		}
+		this.containsHeaders = containsHeaders;
+	}
+
+	/**
+	 * @return	The directory that exports are written to, which is created if needed.
+	 */
+	public static File tempDirectory() {
+		File result = Paths.get(Util.getContentDirectory(), "temp").toFile();
+		result.mkdirs();
+		return result;
+	}
+
+	/**
+	 * The file is kept apart for each user, so a user can only download the exports they ran.
+	 *
+	 * @param bean	The export configuration.
+	 * @param user	The user that ran the export.
+	 * @return	The file that a background export of the given ImportExport is written to once complete.
+	 */
+	public static File backgroundFile(ImportExport bean, User user) {
+		return new File(tempDirectory(), String.format("export_%s_%s.xlsx", user.getId(), bean.getBizId()));
+	}
+
+	/**
+	 * Stop writing rows at the end of the current page.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * @return	The number of beans to export.
+	 */
+	public long count() {
+		DocumentQuery q = CORE.getPersistence().newDocumentQuery(moduleName, documentName);
+		q.addAggregateProjection(AggregateFunction.Count, Bean.DOCUMENT_ID, "CountOfId");
+		Number result = q.scalarResult(Number.class);
+		return (result == null) ? 0L : result.longValue();
+	}
+
+	/**
+	 * Write the workbook.
+	 *
+	 * @param out	Where to write the workbook, which is not closed.
+	 * @param progress	Told the number of rows written after each page, or null.
+	 * @return	The number of rows written.
+	 */
+	public int write(OutputStream out, IntConsumer progress) throws Exception {
+		Persistence pers = CORE.getPersistence();
+		int maxRows = SpreadsheetVersion.EXCEL2007.getMaxRows();
+		int rows = 0;
+
+		SXSSFWorkbook wb = new SXSSFWorkbook(WINDOW_SIZE);
+		wb.setCompressTempFiles(true);
+		try {
+			CellStyle dateStyle = wb.createCellStyle();
+			dateStyle.setDataFormat(wb.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd hh:mm:ss"));
+
+			Sheet sheet = null;
+			int rowNum = maxRows;
+			String after = null;
+			boolean more = true;
+			while (more && (! cancelled)) {
+				DocumentQuery q = pers.newDocumentQuery(moduleName, documentName);
+				if (after != null) {
+					q.getFilter().addGreaterThan(Bean.DOCUMENT_ID, after);
+				}
+				q.addBoundOrdering(Bean.DOCUMENT_ID, SortDirection.ascending);
+				q.setMaxResults(PAGE_SIZE);
+
+				int pageRows = 0;
+				try (AutoClosingIterable<PersistentBean> i = q.beanIterable()) {
+					for (PersistentBean bean : i) {
+						if (rowNum >= maxRows) {
+							sheet = wb.createSheet();
+							rowNum = 0;
+							if (containsHeaders) {
+								Row header = sheet.createRow(rowNum++);
+								for (int c = 0, l = titles.size(); c < l; c++) {
+									header.createCell(c).setCellValue(titles.get(c));
+								}
+							}
+						}
+
+						Row row = sheet.createRow(rowNum++);
+						for (int c = 0, l = bindings.size(); c < l; c++) {
+							setCellValue(row.createCell(c), value(bean, bindings.get(c)), dateStyle);
+						}
+
+						after = bean.getBizId();
+						pers.evictCached(bean);
+						pageRows++;
+					}
+				}
+
+				rows += pageRows;
+				more = (pageRows == PAGE_SIZE);
+				if (progress != null) {
+					progress.accept(rows);
+				}
+			}
+
+			if (sheet == null) {
+				// no data
+				Row header = wb.createSheet().createRow(0);
+				if (containsHeaders) {
+					for (int c = 0, l = titles.size(); c < l; c++) {
+						header.createCell(c).setCellValue(titles.get(c));
+					}
+				}
+			}
+
+			wb.write(out);
+			out.flush();
+		}
+		finally {
+			// remove the temp files
+			wb.dispose();
+			wb.close();
+		}
+
+		return rows;
+	}
+
+	private static Object value(Bean bean, String binding) {
+		if (binding.indexOf('{') > -1) {
+			return Binder.formatMessage(binding, bean);
+		}
+		return Binder.get(bean, binding);
+	}
+
+	private static void setCellValue(Cell cell, Object value, CellStyle dateStyle) {
+		if (value == null) {
+			return;
+		}
+		if (value instanceof Number) {
+			cell.setCellValue(((Number) value).doubleValue());
+		}
+		else if (value instanceof Boolean) {
+			cell.setCellValue(((Boolean) value).booleanValue());
+		}
+		else if (value instanceof Date) {
+			cell.setCellValue((Date) value);
+			cell.setCellStyle(dateStyle);
+		}
+		else if (value instanceof Enumeration) {
+			cell.setCellValue(((Enumeration) value).toLocalisedDescription());
+		}
+		else if (value instanceof Bean) {
+			cell.setCellValue(((Bean) value).getBizKey());
+		}
+		else {
+			cell.setCellValue(value.toString());
+		}
+	}
+}
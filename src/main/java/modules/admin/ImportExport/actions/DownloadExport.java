@@ -0,0 +1,45 @@
+package modules.admin.ImportExport.actions;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import org.skyve.CORE;
+import org.skyve.content.MimeType;
+import org.skyve.domain.messages.Message;
+import org.skyve.domain.messages.ValidationException;
+import org.skyve.metadata.controller.Download;
+import org.skyve.metadata.controller.DownloadAction;
+import org.skyve.web.WebContext;
+
+import modules.admin.ImportExport.StreamingExport;
+import modules.admin.domain.ImportExport;
+
+/**
+ * Download the workbook written by the current user's last background export.
+ * <p>
+ * The file is deleted once it has been streamed, so each export is downloaded once.
+ */
+public class DownloadExport extends DownloadAction<ImportExport> {
+	@Override
+	public void prepare(ImportExport bean, WebContext webContext) throws Exception {
+		// only the current user's file is looked for, so one user cannot download another user's export
+		if (! StreamingExport.backgroundFile(bean, CORE.getUser()).exists()) {
+			throw new ValidationException(new Message("There is no completed export to download - check the job log for progress."));
+		}
+	}
+
+	@Override
+	public Download download(ImportExport bean, WebContext webContext) throws Exception {
+		File file = StreamingExport.backgroundFile(bean, CORE.getUser());
+
+		// Generate download file name
+		StringBuilder sb = new StringBuilder();
+		sb.append(bean.getModuleName()).append("_").append(bean.getDocumentName()).append(".xlsx");
+
+		// the file is gone once the download closes it, deleteOnExit covers a download that is never streamed
+		InputStream in = Files.newInputStream(file.toPath(), StandardOpenOption.DELETE_ON_CLOSE);
+		return new Download(sb.toString(), in, MimeType.xlsx);
+	}
+}
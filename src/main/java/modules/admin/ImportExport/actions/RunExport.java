@@ -1,12 +1,21 @@
 package modules.admin.ImportExport.actions;
 
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 
+import org.skyve.content.MimeType;
 import org.skyve.impl.bizport.POISheetGenerator;
 import org.skyve.metadata.controller.Download;
 import org.skyve.metadata.controller.DownloadAction;
 import org.skyve.web.WebContext;
 
+import modules.admin.ImportExport.StreamingExport;
 import modules.admin.ImportExportColumn.ImportExportColumnBizlet;
 import modules.admin.domain.ImportExport;
 import modules.admin.domain.ImportExportColumn;
@@ -25,7 +34,9 @@ public class RunExport extends DownloadAction<ImportExport> {
 	}
 
 	/**
-	 * Generate a POI download using the generator and the column specifications
+	 * Generate a POI download using the generator and the column specifications.
+	 * Data exports are streamed to a temp file by {@link StreamingExport}, so that large documents are not held in memory.
+	 * The temp file is deleted once the download has been streamed from it.
 	 * 
 	 * @param bean
 	 *            - the ImportExport configuration record describing what to export
@@ -40,6 +51,21 @@ public class RunExport extends DownloadAction<ImportExport> {
 	 * @throws Exception
 	 */
 	public static Download generateDownload(ImportExport bean, List<ImportExportColumn> columns, Boolean containsHeaders, Boolean empty) throws Exception {
+		// Generate download file name
+		StringBuilder sb = new StringBuilder();
+		sb.append(bean.getModuleName()).append("_").append(bean.getDocumentName());
+
+		if (! Boolean.TRUE.equals(empty)) {
+			File file = File.createTempFile(sb.toString(), ".xlsx", StreamingExport.tempDirectory());
+			file.deleteOnExit();
+			try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+				new StreamingExport(bean, columns, Boolean.TRUE.equals(containsHeaders)).write(out, null);
+			}
+			// the file is gone once the download closes it, deleteOnExit covers a download that is never streamed
+			InputStream in = Files.newInputStream(file.toPath(), StandardOpenOption.DELETE_ON_CLOSE);
+			return new Download(sb.append(".xlsx").toString(), in, MimeType.xlsx);
+		}
+
 		POISheetGenerator generator = new POISheetGenerator(bean.getModuleName(), bean.getDocumentName());
 		generator.setColumnTitles(containsHeaders);
 		generator.setColumnTitlesOnly(empty);
@@ -54,12 +80,8 @@ public class RunExport extends DownloadAction<ImportExport> {
 			generator.addField(c.getColumnName(), binding);
 		}
 
-		// Generate download file name
-		StringBuilder sb = new StringBuilder();
-		sb.append(bean.getModuleName()).append("_").append(bean.getDocumentName());
 		generator.setDownloadName(sb.toString());
 
 		return generator.getDownload();
 	}
-
 }
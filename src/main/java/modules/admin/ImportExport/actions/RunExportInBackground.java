@@ -0,0 +1,20 @@
+package modules.admin.ImportExport.actions;
+
+import org.skyve.metadata.controller.ServerSideAction;
+import org.skyve.metadata.controller.ServerSideActionResult;
+import org.skyve.web.WebContext;
+
+import modules.admin.ImportExport.ExportJob;
+import modules.admin.domain.ImportExport;
+
+public class RunExportInBackground implements ServerSideAction<ImportExport> {
+
+	@Override
+	public ServerSideActionResult<ImportExport> execute(ImportExport bean, WebContext webContext)
+			throws Exception {
+
+		ExportJob.kickoffJob(bean, webContext);
+
+		return new ServerSideActionResult<>(bean);
+	}
+}
@@ -1,11 +1,15 @@
 package modules.admin;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Comparator;
 import java.util.GregorianCalendar;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.skyve.CORE;
 import org.skyve.EXT;
@@ -551,8 +555,62 @@ public class ModulesUtil {
 		}
 	}
 
+	/**
+	 * The display fields of the current user, for callers that do not need the whole admin User.
+	 */
+	public static final class UserSummary implements Serializable {
+		private static final long serialVersionUID = -3453012857340386466L;
+
+		private final String bizId;
+		private final String userName;
+		private final String contactName;
+
+		UserSummary(String bizId, String userName, String contactName) {
+			this.bizId = bizId;
+			this.userName = userName;
+			this.contactName = contactName;
+		}
+
+		public String getBizId() {
+			return bizId;
+		}
+
+		public String getUserName() {
+			return userName;
+		}
+
+		public String getContactName() {
+			return contactName;
+		}
+	}
+
+	/**
+	 * What is known about the current user, kept in the conversation stash.
+	 */
+	private static final class CurrentUser implements Serializable {
+		private static final long serialVersionUID = 4883071914385316725L;
+
+		private final String userId;
+		private final long version;
+		private UserExtension user;
+		private UserSummary summary;
+
+		private CurrentUser(String userId, long version) {
+			this.userId = userId;
+			this.version = version;
+		}
+	}
+
+	private static final String CURRENT_USER_STASH_KEY = ModulesUtil.class.getName() + ".currentUser";
+
+	// incremented by admin User bizId whenever that user or their Contact is saved,
+	// so only the conversations of that user reload their current user
+	private static final Map<String, AtomicLong> CURRENT_USER_VERSIONS = new ConcurrentHashMap<>();
+
 	/**
 	 * Returns the current session/conversation user as an Admin module User
+	 * <p>
+	 * The user is retrieved once and kept in the conversation stash until the user or their Contact is saved.
 	 *
 	 * @return The current {@link modules.admin.User.UserExtension}
 	 */
@@ -560,9 +618,13 @@ public class ModulesUtil {
 		UserExtension result = null;
 		try {
 			Persistence p = CORE.getPersistence();
-			result = p.retrieve(modules.admin.domain.User.MODULE_NAME,
-									modules.admin.domain.User.DOCUMENT_NAME,
-									p.getUser().getId());
+			CurrentUser current = currentUser(p);
+			if (current.user == null) {
+				current.user = p.retrieve(modules.admin.domain.User.MODULE_NAME,
+											modules.admin.domain.User.DOCUMENT_NAME,
+											current.userId);
+			}
+			result = current.user;
 		}
 		catch (@SuppressWarnings("unused") Exception e) {
 			// do nothing
@@ -571,6 +633,89 @@ public class ModulesUtil {
 		return result;
 	}
 
+	/**
+	 * Returns the bizId, user name and contact name of the current session/conversation user
+	 * without retrieving the admin User.
+	 *
+	 * @return The current user's {@link UserSummary}, or null if there is no admin User for the current user
+	 */
+	public static UserSummary currentAdminUserSummary() {
+		UserSummary result = null;
+		try {
+			Persistence p = CORE.getPersistence();
+			CurrentUser current = currentUser(p);
+			if (current.summary == null) {
+				UserExtension user = current.user;
+				if (user != null) {
+					Contact contact = user.getContact();
+					current.summary = new UserSummary(user.getBizId(), user.getUserName(), (contact == null) ? null : contact.getName());
+				}
+				else {
+					DocumentQuery q = p.newDocumentQuery(modules.admin.domain.User.MODULE_NAME, modules.admin.domain.User.DOCUMENT_NAME);
+					q.getFilter().addEquals(Bean.DOCUMENT_ID, current.userId);
+					q.addBoundProjection(modules.admin.domain.User.userNamePropertyName);
+					q.addBoundProjection(Binder.createCompoundBinding(modules.admin.domain.User.contactPropertyName, Contact.namePropertyName),
+											Contact.namePropertyName);
+					Bean row = q.projectedResult();
+					if (row != null) {
+						current.summary = new UserSummary(current.userId,
+															(String) Binder.get(row, modules.admin.domain.User.userNamePropertyName),
+															(String) Binder.get(row, Contact.namePropertyName));
+					}
+				}
+			}
+			result = current.summary;
+		}
+		catch (@SuppressWarnings("unused") Exception e) {
+			// do nothing
+		}
+
+		return result;
+	}
+
+	/**
+	 * Forget an admin User in every conversation where it is the current user, so that changes to it are picked up.
+	 *
+	 * @param userId	The bizId of the admin User.
+	 */
+	public static void evictCurrentAdminUser(String userId) {
+		CURRENT_USER_VERSIONS.computeIfAbsent(userId, k -> new AtomicLong()).incrementAndGet();
+	}
+
+	/**
+	 * Forget the admin Users of a Contact in every conversation where one is the current user,
+	 * so that changes to the contact are picked up.
+	 *
+	 * @param contactId	The bizId of the Contact.
+	 */
+	public static void evictCurrentAdminUserContact(String contactId) {
+		DocumentQuery q = CORE.getPersistence().newDocumentQuery(modules.admin.domain.User.MODULE_NAME,
+																	modules.admin.domain.User.DOCUMENT_NAME);
+		q.getFilter().addEquals(Binder.createCompoundBinding(modules.admin.domain.User.contactPropertyName, Bean.DOCUMENT_ID), contactId);
+		q.addBoundProjection(Bean.DOCUMENT_ID);
+		for (String userId : q.scalarResults(String.class)) {
+			evictCurrentAdminUser(userId);
+		}
+	}
+
+	private static CurrentUser currentUser(Persistence p) {
+		String userId = p.getUser().getId();
+		AtomicLong userVersion = CURRENT_USER_VERSIONS.get(userId);
+		long version = (userVersion == null) ? 0L : userVersion.get();
+		Map<String, Object> stash = CORE.getStash();
+		Object stashed = stash.get(CURRENT_USER_STASH_KEY);
+		if (stashed instanceof CurrentUser) {
+			CurrentUser result = (CurrentUser) stashed;
+			if ((result.version == version) && userId.equals(result.userId)) {
+				return result;
+			}
+		}
+
+		CurrentUser result = new CurrentUser(userId, version);
+		stash.put(CURRENT_USER_STASH_KEY, result);
+		return result;
+	}
+
 	/**
 	 * Creates a new admin User for a given contact
 	 * - sets the new user name to be the contact email address
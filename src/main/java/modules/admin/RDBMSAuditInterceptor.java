@@ -1,6 +1,8 @@
 package modules.admin;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.skyve.CORE;
@@ -26,6 +28,23 @@ import modules.admin.domain.UserLoginRecord;
 public class RDBMSAuditInterceptor extends Interceptor {
 	private static final ThreadLocal<Map<String, Operation>> BIZ_ID_TO_OPERATION = new ThreadLocal<>();
 
+	/**
+	 * The most bizIds remembered as having an insert audit.
+	 */
+	private static final int MAX_KNOWN_INSERT_AUDITS = 10000;
+
+	// customer and bizId of beans known to have an insert audit, so updates to them skip the audit table lookup
+	// This assumes a single server - audits truncated on another server are not forgotten here, so an update here to a
+	// bean whose insert audit was truncated does not write a new original insert audit until the entry is evicted.
+	private static final Map<String, Boolean> KNOWN_INSERT_AUDITS = Collections.synchronizedMap(new LinkedHashMap<String, Boolean>(256, 0.75f, true) {
+		private static final long serialVersionUID = 6424307925196476390L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+			return size() > MAX_KNOWN_INSERT_AUDITS;
+		}
+	});
+
 	@Override
 	public boolean beforeSave(Document document, PersistentBean bean) throws Exception {
 		if (! (UserLoginRecord.DOCUMENT_NAME.equals(document.getName()) && 
@@ -55,6 +74,10 @@ public class RDBMSAuditInterceptor extends Interceptor {
 	public void afterDelete(Document document, PersistentBean bean) throws Exception {
 		if (bean instanceof Audit){
 			// do not audit removal of audits
+			Audit a = (Audit) bean;
+			if (Operation.insert.equals(a.getOperation())) {
+				forgetInsertAudit(CORE.getPersistence().getUser().getCustomerName(), a.getAuditBizId());
+			}
 		}
 		else {
 			audit(bean, Operation.delete, false);
@@ -70,6 +93,11 @@ public class RDBMSAuditInterceptor extends Interceptor {
 		Module am = c.getModule(bean.getBizModule());
 		Document ad = am.getDocument(c, bean.getBizDocument());
 		if (ad.isAudited()) {
+			String key = insertAuditKey(c.getName(), bean.getBizId());
+			if (KNOWN_INSERT_AUDITS.containsKey(key)) {
+				return;
+			}
+
 			// Check if there exists an insert audit record.
 			Module m = c.getModule(Audit.MODULE_NAME);
 			@SuppressWarnings("null")
@@ -102,8 +130,11 @@ public class RDBMSAuditInterceptor extends Interceptor {
 			q.putParameter(Audit.operationPropertyName, Operation.insert);
 	
 	
+			if (! q.scalarResults(String.class).isEmpty()) {
+				KNOWN_INSERT_AUDITS.put(key, Boolean.TRUE);
+			}
 			// if not we need to create one
-			if (q.scalarResults(String.class).isEmpty()) {
+			else {
 				// To do this we need to get the database state before this update operation
 				// We can do this by getting a new persistence and loading the record,
 				// getting the JSON for it and then inserting it in our current thread's persistence.
@@ -147,7 +178,6 @@ public class RDBMSAuditInterceptor extends Interceptor {
 
 			AuditJSONGenerator generator = new AuditJSONGenerator(c);
 			generator.visit(ad, bean, c);
-			a.setAuditDetail(generator.toJSON());
 			a.setAuditModuleName(bean.getBizModule());
 			a.setAuditDocumentName(bean.getBizDocument());
 			a.setAuditBizId(bean.getBizId());
@@ -167,7 +197,16 @@ public class RDBMSAuditInterceptor extends Interceptor {
 				a.setUserName(u.getName());
 				a.setOperation(operation);
 			}
+			a.setAuditDetail(AuditDetails.encode(c, a, generator.getAudit()));
 			p.upsertBeanTuple(a);
+
+			// a new bean's bizId is unique, so if this transaction rolls back there will be no updates to it
+			if (Operation.insert.equals(operation) && (! originalInsert)) {
+				KNOWN_INSERT_AUDITS.put(insertAuditKey(c.getName(), bean.getBizId()), Boolean.TRUE);
+			}
+			else if (Operation.delete.equals(operation)) {
+				forgetInsertAudit(c.getName(), bean.getBizId());
+			}
 		}
 	}
 	
@@ -176,6 +215,22 @@ public class RDBMSAuditInterceptor extends Interceptor {
 		audit(bean, operation, false);
 	}
 	
+	/**
+	 * Forget every bizId known to have an insert audit, for when audits are removed in bulk.
+	 * This only forgets them on this server, as the known insert audits are not shared between servers.
+	 */
+	public static void forgetInsertAudits() {
+		KNOWN_INSERT_AUDITS.clear();
+	}
+
+	private static void forgetInsertAudit(String customerName, String bizId) {
+		KNOWN_INSERT_AUDITS.remove(insertAuditKey(customerName, bizId));
+	}
+
+	private static String insertAuditKey(String customerName, String bizId) {
+		return customerName + '/' + bizId;
+	}
+
 	private static void setThreadLocalOperation(String bizId, Operation operation) {
 		Map<String, Operation> map = BIZ_ID_TO_OPERATION.get();
 		if (map == null) {
@@ -0,0 +1,87 @@
+package modules.admin.ReportDataset;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.beanutils.DynaBean;
+
+/**
+ * The rows of recently run SQL datasets, shared by the scheduled reports of a server.
+ * <p>
+ * Scheduled reports often run the same dataset with the same parameter values, so the rows are kept for
+ * {@link #TTL_MILLIS} and reused by any report job that runs the dataset for the same user in that time.
+ * Datasets of more than {@link #MAX_ROWS} rows are not kept.
+ */
+public final class ReportDatasetCache {
+	/**
+	 * The longest time the rows of a dataset are reused.
+	 */
+	public static final long TTL_MILLIS = 10L * 60L * 1000L;
+
+	/**
+	 * The most rows of a dataset that are kept.
+	 */
+	public static final int MAX_ROWS = 10000;
+
+	private static final class Entry {
+		private final List<DynaBean> rows;
+		private final long expiresMillis;
+
+		Entry(List<DynaBean> rows) {
+			this.rows = rows;
+			expiresMillis = System.currentTimeMillis() + TTL_MILLIS;
+		}
+	}
+
+	private static final Map<String, Entry> ENTRIES = new ConcurrentHashMap<>();
+
+	private ReportDatasetCache() {
+		// static methods only
+	}
+
+	/**
+	 * @param key	The dataset query, user and parameter values.
+	 * @return	The kept rows, or null if there are none or they have expired.
+	 */
+	public static List<DynaBean> get(String key) {
+		Entry entry = ENTRIES.get(key);
+		if (entry == null) {
+			return null;
+		}
+		if (entry.expiresMillis < System.currentTimeMillis()) {
+			ENTRIES.remove(key, entry);
+			return null;
+		}
+		return entry.rows;
+	}
+
+	/**
+	 * Keep the rows of a dataset, removing any expired rows of other datasets.
+	 *
+	 * @param key	The dataset query, user and parameter values.
+	 * @param rows	The rows of the dataset.
+	 * @return	The rows to use, which cannot be changed.
+	 */
+	public static List<DynaBean> put(String key, List<DynaBean> rows) {
+		if (rows == null) {
+			return null;
+		}
+		List<DynaBean> result = Collections.unmodifiableList(new ArrayList<>(rows));
+		if (rows.size() <= MAX_ROWS) {
+			long now = System.currentTimeMillis();
+			ENTRIES.values().removeIf(e -> e.expiresMillis < now);
+			ENTRIES.put(key, new Entry(result));
+		}
+		return result;
+	}
+
+	/**
+	 * Drop all the kept rows.
+	 */
+	public static void clear() {
+		ENTRIES.clear();
+	}
+}
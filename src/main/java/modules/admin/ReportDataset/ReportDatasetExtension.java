@@ -6,6 +6,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -19,6 +20,8 @@ import org.skyve.domain.messages.DomainException;
 import org.skyve.domain.types.DateOnly;
 import org.skyve.domain.types.DateTime;
 import org.skyve.impl.report.freemarker.BeanReportDataset;
+import org.skyve.metadata.user.User;
+import org.skyve.persistence.AutoClosingIterable;
 import org.skyve.persistence.BizQL;
 import org.skyve.persistence.SQL;
 import org.skyve.util.Binder;
@@ -38,11 +41,11 @@ public class ReportDatasetExtension extends ReportDataset {
 	/**
 	 * Regular expression to locate date sentinel values within a query
 	 */
-	private static final String BIZQL_DATE_PATTERN = "\\{DATE\\s?(([+-]\\d{1,})([dDmMyY]))?\\}";
+	private static final Pattern BIZQL_DATE_PATTERN = Pattern.compile("\\{DATE\\s?(([+-]\\d{1,})([dDmMyY]))?\\}");
 	/**
 	 * Regular expression to locate named parameters within a query
 	 */
-	private static final String NAMED_PARAMETER_PATTERN = ":([\\p{L}|_]+)";
+	private static final Pattern NAMED_PARAMETER_PATTERN = Pattern.compile(":([\\p{L}|_]+)");
 
 	static final String PARAMETER_PREFIX = ":";
 	static final String DATE_PARAMETER_STRING_FORMAT = "d_%s_%d";
@@ -64,8 +67,7 @@ public class ReportDatasetExtension extends ReportDataset {
 			// parse and check for parameters
 			Set<String> namedParameters = new HashSet<>();
 
-			Pattern pattern = Pattern.compile(NAMED_PARAMETER_PATTERN);
-			Matcher matcher = pattern.matcher(getQuery());
+			Matcher matcher = NAMED_PARAMETER_PATTERN.matcher(getQuery());
 
 			while (matcher.find()) {
 				final String match = matcher.group(1);
@@ -147,6 +149,81 @@ public class ReportDatasetExtension extends ReportDataset {
 	 */
 	@Override
 	public List<Bean> executeQuery() throws Exception {
+		return newBizQL().beanResults();
+	}
+
+	/**
+	 * Executes the BizQL query supplied in a ReportDataset like {@link #executeQuery()}, but reads
+	 * the beans from the database as they are iterated rather than all at once.
+	 * 
+	 * @return The beans from the query, which must be closed once iterated
+	 */
+	public AutoClosingIterable<Bean> iterateQuery() throws Exception {
+		return newBizQL().beanIterable();
+	}
+
+	/**
+	 * Executes the SQL query supplied in a ReportDataset using the supplied parameter values
+	 * in use by the dataset.
+	 * 
+	 * @return The list of beans from the query
+	 */
+	@Override
+	public List<DynaBean> executeSQLQuery() throws Exception {
+		return newSQL().dynaResults();
+	}
+
+	/**
+	 * Executes the SQL query supplied in a ReportDataset like {@link #executeSQLQuery()}, but reuses
+	 * the rows of the same query and parameter values run by this user in the last few minutes.
+	 * 
+	 * @return The list of beans from the query, which cannot be changed
+	 * @see ReportDatasetCache
+	 */
+	public List<DynaBean> executeCachedSQLQuery() throws Exception {
+		String key = resultCacheKey();
+		List<DynaBean> results = ReportDatasetCache.get(key);
+		if (results == null) {
+			results = ReportDatasetCache.put(key, executeSQLQuery());
+		}
+		return results;
+	}
+
+	/**
+	 * Returns the rows kept by {@link #executeCachedSQLQuery()} for the current parameter values.
+	 * 
+	 * @return The list of beans from the query, or null if they are not kept
+	 */
+	public List<DynaBean> getCachedSQLResults() {
+		return ReportDatasetCache.get(resultCacheKey());
+	}
+
+	/**
+	 * Returns where to keep the rows of this dataset for the current parameter values once they have been
+	 * streamed by {@link #iterateSQLQuery()}, so that {@link #executeCachedSQLQuery()} can reuse them.
+	 * The key is made now, so the rows are kept for the parameter values they were read with.
+	 * 
+	 * @return Keeps the rows in {@link ReportDatasetCache}
+	 */
+	public Consumer<List<DynaBean>> sqlResultsCache() {
+		String key = resultCacheKey();
+		return rows -> ReportDatasetCache.put(key, rows);
+	}
+
+	/**
+	 * Executes the SQL query supplied in a ReportDataset like {@link #executeSQLQuery()}, but reads
+	 * the rows from the database as they are iterated rather than all at once.
+	 * 
+	 * @return The rows from the query, which must be closed once iterated
+	 */
+	public AutoClosingIterable<DynaBean> iterateSQLQuery() throws Exception {
+		return newSQL().dynaIterable();
+	}
+
+	/**
+	 * Creates the BizQL query of this dataset with the supplied parameters in use by the query.
+	 */
+	private BizQL newBizQL() throws Exception {
 		if (DatasetType.bizQL != getDatasetType()) {
 			throw new IllegalArgumentException(String.format("Dataset type must be %s", DatasetType.bizQL.toLocalisedDescription()));
 		}
@@ -197,17 +274,13 @@ public class ReportDatasetExtension extends ReportDataset {
 			bql.putParameter(entry.getKey(), entry.getValue());
 		}
 
-		return bql.beanResults();
+		return bql;
 	}
 
 	/**
-	 * Executes the SQL query supplied in a ReportDataset using the supplied parameter values
-	 * in use by the dataset.
-	 * 
-	 * @return The list of beans from the query
+	 * Creates the SQL query of this dataset with the supplied parameters in use by the query.
 	 */
-	@Override
-	public List<DynaBean> executeSQLQuery() throws Exception {
+	private SQL newSQL() throws Exception {
 		if (DatasetType.SQL != getDatasetType()) {
 			throw new IllegalArgumentException(String.format("Dataset type must be %s", DatasetType.SQL.toLocalisedDescription()));
 		}
@@ -252,7 +325,37 @@ public class ReportDatasetExtension extends ReportDataset {
 			}
 		}
 		
-		return sql.dynaResults();
+		return sql;
+	}
+
+	/**
+	 * The key of the results of this dataset in {@link ReportDatasetCache}, made from the user,
+	 * the query and the value of each parameter used by the query.
+	 * Date sentinels are resolved, so that relative dates like <code>{DATE-1d}</code> key a new day's rows apart.
+	 */
+	private String resultCacheKey() {
+		User user = CORE.getUser();
+		StringBuilder key = new StringBuilder(256);
+		key.append(user.getCustomerName()).append('/').append(user.getId()).append('/').append(getQuery());
+		Matcher matcher = BIZQL_DATE_PATTERN.matcher(getQuery());
+		while (matcher.find()) {
+			key.append('\n').append(matcher.group(0)).append('=').append(resolveDate(matcher).getTime());
+		}
+		for (ReportParameterExtension param : getParent().getParameters()) {
+			if (containsParameter(param)) {
+				key.append('\n').append(param.getName()).append('=');
+				if (param.getReportInputValue() != null) {
+					key.append(param.getReportInputValue());
+				} else if (param.getType() == Type.date) {
+					key.append(param.getDateDefaultValue());
+				} else if ((param.getType() == Type.integer) || (param.getType() == Type.longInteger)) {
+					key.append(param.getNumericalDefaultValue());
+				} else {
+					key.append(param.getTextDefaultValue());
+				}
+			}
+		}
+		return key.toString();
 	}
 
 	/**
@@ -354,8 +457,7 @@ public class ReportDatasetExtension extends ReportDataset {
 			if (query.contains("{DATE")) {
 				Map<String, DateOnly> dateParameters = new HashMap<>();
 
-				Pattern pattern = Pattern.compile(BIZQL_DATE_PATTERN);
-				Matcher matcher = pattern.matcher(getQuery());
+				Matcher matcher = BIZQL_DATE_PATTERN.matcher(getQuery());
 
 				int dateCount = 1;
 
@@ -363,33 +465,7 @@ public class ReportDatasetExtension extends ReportDataset {
 					final String dateExpression = matcher.group(0);
 					LOGGER.debug("Matched date expression: {}", dateExpression);
 
-					DateOnly replacementDate = new DateOnly();
-
-					if (matcher.group(1) != null) {
-						// System.out.println(matcher.group(1));
-						// System.out.println(matcher.group(2));
-						// System.out.println(matcher.group(3));
-
-						final int countModifier = Integer.parseInt(matcher.group(2));
-						final String periodModifier = matcher.group(3);
-
-						switch (periodModifier) {
-							case "d":
-								// add/subtract days
-								Time.addDays(replacementDate, countModifier);
-								break;
-							case "m":
-								// add/subtract months
-								Time.addMonths(replacementDate, countModifier);
-								break;
-							case "y":
-								// add/subtract years
-								replacementDate = Time.addYearsToNew(replacementDate, countModifier);
-								break;
-							default:
-								throw new IllegalStateException(periodModifier + " is not catered for");
-						}
-					}
+					DateOnly replacementDate = resolveDate(matcher);
 
 					// String dateString = String.format("'%s'", SQL_DATE_FORMAT.format(replacementDate));
 					String dateParameterName = String.format(DATE_PARAMETER_STRING_FORMAT,
@@ -421,6 +497,37 @@ public class ReportDatasetExtension extends ReportDataset {
 		return new SubstitutedQueryResult(getQuery());
 	}
 
+	/**
+	 * The date of the date sentinel found by the matcher, today with any modifier applied.
+	 */
+	private static DateOnly resolveDate(Matcher matcher) {
+		DateOnly result = new DateOnly();
+
+		if (matcher.group(1) != null) {
+			final int countModifier = Integer.parseInt(matcher.group(2));
+			final String periodModifier = matcher.group(3);
+
+			switch (periodModifier) {
+				case "d":
+					// add/subtract days
+					Time.addDays(result, countModifier);
+					break;
+				case "m":
+					// add/subtract months
+					Time.addMonths(result, countModifier);
+					break;
+				case "y":
+					// add/subtract years
+					result = Time.addYearsToNew(result, countModifier);
+					break;
+				default:
+					throw new IllegalStateException(periodModifier + " is not catered for");
+			}
+		}
+
+		return result;
+	}
+
 	/**
 	 * Creates a new parameter against the parent ReportTemplate of this dataset.
 	 * 
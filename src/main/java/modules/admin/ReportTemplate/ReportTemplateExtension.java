@@ -1,14 +1,22 @@
 package modules.admin.ReportTemplate;
 
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.apache.commons.beanutils.DynaBean;
 import org.skyve.CORE;
+import org.skyve.domain.Bean;
+import org.skyve.domain.PersistentBean;
 import org.skyve.domain.app.admin.ReportDataset.DatasetType;
 import org.skyve.domain.messages.ValidationException;
 import org.skyve.metadata.model.Attribute;
 import org.skyve.metadata.model.Attribute.AttributeType;
 import org.skyve.metadata.model.document.Document;
 import org.skyve.metadata.module.Module;
+import org.skyve.persistence.Persistence;
 
 import com.cronutils.descriptor.CronDescriptor;
 import com.cronutils.model.CronType;
@@ -16,6 +24,9 @@ import com.cronutils.model.definition.CronDefinition;
 import com.cronutils.model.definition.CronDefinitionBuilder;
 import com.cronutils.parser.CronParser;
 
+import freemarker.template.Template;
+
+import modules.admin.ReportDataset.ReportDatasetCache;
 import modules.admin.ReportDataset.ReportDatasetExtension;
 import modules.admin.ReportParameter.ReportParameterExtension;
 import modules.admin.domain.ReportDataset;
@@ -42,6 +53,101 @@ public class ReportTemplateExtension extends ReportTemplate {
 		getUsersToEmail().clear();
 	}
 
+	/**
+	 * Merges the parameters and datasets of this report with its template.
+	 * <p>
+	 * When streaming, BizQL and SQL datasets are given to the template as a {@link StreamedDataset}, which reads
+	 * rows from the database as they are listed and can be listed, sized and indexed as a list can.
+	 * Streamed BizQL beans are evicted from the first level cache once merged, so they are not all held there.
+	 * Otherwise every dataset is read into a list first.
+	 * <p>
+	 * When cached, SQL datasets reuse the rows of the same query and parameter values run in the last
+	 * few minutes, and streamed SQL datasets are only read from the database if there are none, and are kept
+	 * once listed if they are small enough.
+	 * 
+	 * @param template The Freemarker template of this report
+	 * @param out Where to write the merged output
+	 * @param streaming Whether to stream the BizQL and SQL datasets
+	 * @param cached Whether to reuse recent SQL dataset rows
+	 */
+	public void process(Template template, Writer out, boolean streaming, boolean cached) throws Exception {
+		Map<String, Object> root = new HashMap<>();
+
+		// put the parameters into the root
+		root.put("reportParameters", getParameters());
+
+		List<StreamedDataset<?>> streamed = new ArrayList<>();
+		try {
+			// put all the datasets into the root
+			for (ReportDatasetExtension dataset : getDatasets()) {
+				DatasetType type = dataset.getDatasetType();
+				if (type != null) {
+					switch (type) {
+						case bizQL:
+							if (streaming) {
+								Persistence pers = CORE.getPersistence();
+								StreamedDataset<Bean> rows = new StreamedDataset<>(dataset::iterateQuery, template.getObjectWrapper());
+								rows.release(bean -> {
+									if (bean instanceof PersistentBean) {
+										pers.evictCached((PersistentBean) bean);
+									}
+								});
+								streamed.add(rows);
+								root.put(dataset.getDatasetName(), rows);
+							}
+							else {
+								List<Bean> results = dataset.executeQuery();
+								if (results != null) {
+									root.put(dataset.getDatasetName(), results);
+								}
+							}
+							break;
+						case SQL:
+							List<DynaBean> cachedResults = cached ? dataset.getCachedSQLResults() : null;
+							if (cachedResults != null) {
+								root.put(dataset.getDatasetName(), cachedResults);
+							}
+							else if (streaming) {
+								StreamedDataset<DynaBean> rows = new StreamedDataset<>(dataset::iterateSQLQuery, template.getObjectWrapper());
+								if (cached) {
+									// keep the rows for the next report once they have been listed
+									rows.keep(ReportDatasetCache.MAX_ROWS, dataset.sqlResultsCache());
+								}
+								streamed.add(rows);
+								root.put(dataset.getDatasetName(), rows);
+							}
+							else {
+								List<DynaBean> sqlResults = cached ? dataset.executeCachedSQLQuery() : dataset.executeSQLQuery();
+								if (sqlResults != null) {
+									root.put(dataset.getDatasetName(), sqlResults);
+								}
+							}
+							break;
+						case constant:
+							root.put(dataset.getDatasetName(), dataset.getQuery());
+							break;
+						case classValue:
+							List<DynaBean> beanResults = dataset.executeClass();
+							if (beanResults != null) {
+								root.put(dataset.getDatasetName(), beanResults);
+							}
+							break;
+						default:
+							throw new IllegalStateException(type + " is not catered for");
+					}
+				}
+			}
+
+			template.process(root, out);
+			out.flush();
+		}
+		finally {
+			for (StreamedDataset<?> rows : streamed) {
+				rows.close();
+			}
+		}
+	}
+
 	/**
 	 * Returns a text description of the cron schedule for this report.
 	 */
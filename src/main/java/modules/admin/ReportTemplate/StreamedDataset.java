@@ -0,0 +1,239 @@
+package modules.admin.ReportTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.skyve.persistence.AutoClosingIterable;
+
+import freemarker.template.ObjectWrapper;
+import freemarker.template.TemplateCollectionModelEx;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+import freemarker.template.TemplateModelIterator;
+import freemarker.template.TemplateSequenceModel;
+
+/**
+ * A dataset given to a template as rows read from the database while they are listed.
+ * <p>
+ * Each <code>#list</code> runs the query again and reads its rows as they are merged, so a dataset can be listed any
+ * number of times without its rows being held in memory. Rows can be released once merged, such as by evicting them
+ * from the first level cache, so that they are not held there either.
+ * <p>
+ * <code>?size</code> reads every row of the query the same way to count them, once, as a query cannot be counted
+ * without running it. <code>?has_content</code> only reads the first row. Anything that needs the rows by index,
+ * such as <code>[0]</code> or <code>?first</code>, reads them into a list once and uses that from then on, as if the
+ * dataset was not streamed.
+ * <p>
+ * The rows can also be kept once they have all been read, if there are not too many of them.
+ *
+ * @param <T>	The type of the rows.
+ */
+final class StreamedDataset<T> implements TemplateCollectionModelEx, TemplateSequenceModel {
+	/**
+	 * Runs the query of the dataset.
+	 */
+	@FunctionalInterface
+	static interface Query<T> {
+		AutoClosingIterable<T> open() throws Exception;
+	}
+
+	private final Query<T> query;
+	private final ObjectWrapper wrapper;
+	private final List<AutoClosingIterable<T>> open = new ArrayList<>();
+	private List<T> rows;
+	private Integer size;
+	private Consumer<T> release;
+	private int keepLimit;
+	private Consumer<List<T>> keep;
+
+	StreamedDataset(Query<T> query, ObjectWrapper wrapper) {
+		this.query = query;
+		this.wrapper = wrapper;
+	}
+
+	/**
+	 * Keep the rows the first time they have all been read.
+	 *
+	 * @param limit	The most rows to keep - more rows than this are not kept.
+	 * @param consumer	Receives the rows.
+	 */
+	StreamedDataset<T> keep(int limit, Consumer<List<T>> consumer) {
+		keepLimit = limit;
+		keep = consumer;
+		return this;
+	}
+
+	/**
+	 * Release each row once it has been merged or counted. Rows read into a list by index are not released.
+	 *
+	 * @param consumer	Receives each row.
+	 */
+	StreamedDataset<T> release(Consumer<T> consumer) {
+		release = consumer;
+		return this;
+	}
+
+	@Override
+	public TemplateModelIterator iterator() throws TemplateModelException {
+		if (rows != null) {
+			return new RowIterator(rows.iterator(), null);
+		}
+		AutoClosingIterable<T> iterable = open();
+		return new RowIterator(iterable.iterator(), iterable);
+	}
+
+	@Override
+	public int size() throws TemplateModelException {
+		if (rows != null) {
+			return rows.size();
+		}
+
+		if (size == null) {
+			int result = 0;
+			AutoClosingIterable<T> iterable = open();
+			try {
+				for (T row : iterable) {
+					released(row);
+					result++;
+				}
+			}
+			finally {
+				close(iterable);
+			}
+			size = Integer.valueOf(result);
+		}
+		return size.intValue();
+	}
+
+	@Override
+	public boolean isEmpty() throws TemplateModelException {
+		if (rows != null) {
+			return rows.isEmpty();
+		}
+		if (size != null) {
+			return (size.intValue() == 0);
+		}
+
+		AutoClosingIterable<T> iterable = open();
+		try {
+			return (! iterable.iterator().hasNext());
+		}
+		finally {
+			close(iterable);
+		}
+	}
+
+	@Override
+	public TemplateModel get(int index) throws TemplateModelException {
+		if (rows == null) {
+			List<T> result = new ArrayList<>();
+			AutoClosingIterable<T> iterable = open();
+			try {
+				for (T row : iterable) {
+					result.add(row);
+				}
+			}
+			finally {
+				close(iterable);
+			}
+			rows = result;
+			kept(result);
+		}
+		return ((index >= 0) && (index < rows.size())) ? wrapper.wrap(rows.get(index)) : null;
+	}
+
+	/**
+	 * Close any query left open by a list that did not reach the end of the rows.
+	 */
+	void close() {
+		for (AutoClosingIterable<T> iterable : new ArrayList<>(open)) {
+			close(iterable);
+		}
+	}
+
+	private void released(T row) {
+		if ((release != null) && (row != null)) {
+			release.accept(row);
+		}
+	}
+
+	private void kept(List<T> all) {
+		if ((keep != null) && (all.size() <= keepLimit)) {
+			keep.accept(all);
+			keep = null;
+		}
+	}
+
+	private AutoClosingIterable<T> open() throws TemplateModelException {
+		try {
+			AutoClosingIterable<T> result = query.open();
+			open.add(result);
+			return result;
+		}
+		catch (Exception e) {
+			throw new TemplateModelException("The dataset could not be read", e);
+		}
+	}
+
+	private void close(AutoClosingIterable<T> iterable) {
+		if (open.remove(iterable)) {
+			try {
+				iterable.close();
+			}
+			catch (@SuppressWarnings("unused") Exception e) {
+				// the rows have been read
+			}
+		}
+	}
+
+	private final class RowIterator implements TemplateModelIterator {
+		private final Iterator<T> i;
+		private final AutoClosingIterable<T> iterable;
+		// the rows read so far, while they may still be kept
+		private List<T> read;
+		// the row last given to the template, released once the template asks for the next
+		private T merged;
+		private int count = 0;
+
+		RowIterator(Iterator<T> i, AutoClosingIterable<T> iterable) {
+			this.i = i;
+			this.iterable = iterable;
+			read = ((iterable != null) && (keep != null)) ? new ArrayList<>() : null;
+		}
+
+		@Override
+		public TemplateModel next() throws TemplateModelException {
+			T row = i.next();
+			if (iterable != null) {
+				released(merged);
+				merged = row;
+				count++;
+			}
+			if (read != null) {
+				read.add(row);
+				if (read.size() > keepLimit) {
+					read = null;
+				}
+			}
+			return wrapper.wrap(row);
+		}
+
+		@Override
+		public boolean hasNext() throws TemplateModelException {
+			boolean result = i.hasNext();
+			if ((! result) && (iterable != null)) {
+				close(iterable);
+				released(merged);
+				merged = null;
+				size = Integer.valueOf(count);
+				if (read != null) {
+					kept(read);
+					read = null;
+				}
+			}
+			return result;
+		}
+	}
+}
@@ -1,18 +1,17 @@
 package modules.admin.ReportTemplate.actions;
 
 import java.io.File;
+import java.io.InputStream;
 import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.nio.file.StandardOpenOption;
 
-import org.apache.commons.beanutils.DynaBean;
 import org.skyve.EXT;
 import org.skyve.content.MimeType;
-import org.skyve.domain.Bean;
-import org.skyve.domain.app.admin.ReportDataset.DatasetType;
 import org.skyve.domain.messages.ValidationException;
 import org.skyve.metadata.controller.Download;
 import org.skyve.metadata.controller.DownloadAction;
@@ -20,7 +19,6 @@ import org.skyve.util.Util;
 import org.skyve.web.WebContext;
 
 import freemarker.template.Template;
-import modules.admin.ReportDataset.ReportDatasetExtension;
 import modules.admin.ReportParameter.ReportParameterExtension;
 import modules.admin.ReportTemplate.ReportTemplateExtension;
 import modules.admin.domain.ReportTemplate;
@@ -39,70 +37,47 @@ public class DownloadReport extends DownloadAction<ReportTemplateExtension> {
 			throw e;
 		}
 
-		Template template = EXT.getReporting().getFreemarkerTemplate(bean.getTemplateName());
-
-		Map<String, Object> root = new HashMap<>();
-
-		// put the parameters into the root
-		root.put("reportParameters", bean.getParameters());
-
-		// put all the datasets into the root
-		for (ReportDatasetExtension dataset : bean.getDatasets()) {
-			DatasetType type = dataset.getDatasetType();
-			if (type != null) {
-				switch (type) {
-					case bizQL:
-						List<Bean> results = dataset.executeQuery();
-						if (results != null) {
-							root.put(dataset.getDatasetName(), results);
-						}
-						break;
-					case SQL:
-						List<DynaBean> sqlResults = dataset.executeSQLQuery();
-						if (sqlResults != null) {
-							root.put(dataset.getDatasetName(), sqlResults);
-						}
-						break;
-					case constant:
-						root.put(dataset.getDatasetName(), dataset.getQuery());
-						break;
-					case classValue:
-						List<DynaBean> beanResults = dataset.executeClass();
-						if (beanResults != null) {
-							root.put(dataset.getDatasetName(), beanResults);
-						}
-						break;
-					default:
-						throw new IllegalStateException(type + " is not catered for");
-				}
+		// CSV reports are streamed to a file when downloaded
+		if (ReportTemplate.OutputFormat.CSV != bean.getOutputFormat()) {
+			Template template = EXT.getReporting().getFreemarkerTemplate(bean.getTemplateName());
+			try (StringWriter sw = new StringWriter()) {
+				bean.process(template, sw, false, false);
+				bean.setResults(sw.toString());
 			}
 		}
-
-		try (StringWriter sw = new StringWriter()) {
-			template.process(root, sw);
-			bean.setResults(sw.toString());
-		}
 	}
 
 	@Override
 	public Download download(ReportTemplateExtension bean, WebContext webContext) throws Exception {
 		// return the correct report type
+		Path tempDir = Paths.get(Util.getContentDirectory(), "temp");
+		tempDir.toFile().mkdirs();
+
 		if (ReportTemplate.OutputFormat.CSV == bean.getOutputFormat()) {
-			return new Download(String.format("%s.csv", bean.getName()), bean.getResults(), MimeType.csv);
+			// stream the datasets through the template into a file of its own, as the same report can be downloaded at once
+			File csvFile = File.createTempFile("report", ".csv", tempDir.toFile());
+			csvFile.deleteOnExit();
+
+			Template template = EXT.getReporting().getFreemarkerTemplate(bean.getTemplateName());
+			try (Writer writer = Files.newBufferedWriter(csvFile.toPath(), StandardCharsets.UTF_8)) {
+				bean.process(template, writer, true, false);
+			}
+
+			// the file is gone once the download closes it, deleteOnExit covers a download that is never streamed
+			InputStream in = Files.newInputStream(csvFile.toPath(), StandardOpenOption.DELETE_ON_CLOSE);
+			return new Download(String.format("%s.csv", bean.getName()), in, MimeType.csv);
 		}
 
 		// html report download
 		// return new Download(String.format("%s.html", bean.getName()), inputStream, MimeType.html);
 
 		// pdf report download
-		Path tempDir = Paths.get(Util.getContentDirectory(), "temp");
-		tempDir.toFile().mkdirs();
-
-		File pdfFile = tempDir.resolve(String.format("%s.pdf", bean.getName())).toFile();
+		File pdfFile = File.createTempFile("report", ".pdf", tempDir.toFile());
 		pdfFile.deleteOnExit();
 		
 		EXT.getReporting().generateFreemarkerPDFFromHTML(bean.getResults(), pdfFile);
 		
-		return new Download(String.format("%s.pdf", bean.getName()), pdfFile, MimeType.pdf);
+		InputStream in = Files.newInputStream(pdfFile.toPath(), StandardOpenOption.DELETE_ON_CLOSE);
+		return new Download(String.format("%s.pdf", bean.getName()), in, MimeType.pdf);
 	}
 }
@@ -1,25 +1,53 @@
 package modules.admin.Tag;
 
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.Iterator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.skyve.CORE;
 import org.skyve.EXT;
-import org.skyve.domain.Bean;
 import org.skyve.domain.PersistentBean;
 import org.skyve.domain.messages.MessageSeverity;
 import org.skyve.job.Job;
 import org.skyve.metadata.customer.Customer;
+import org.skyve.metadata.model.Attribute;
+import org.skyve.metadata.model.Attribute.AttributeType;
+import org.skyve.metadata.model.document.Document;
+import org.skyve.metadata.model.document.Relation;
 import org.skyve.metadata.module.Module;
 import org.skyve.metadata.user.User;
+import org.skyve.persistence.BizQL;
+import org.skyve.persistence.DocumentQuery;
+import org.skyve.persistence.DocumentQuery.AggregateFunction;
 import org.skyve.persistence.Persistence;
-import org.skyve.tag.TagManager;
 import org.skyve.util.PushMessage;
 
+import modules.admin.ChunkExecutor.Progress;
+import modules.admin.domain.Tagged;
+
+/**
+ * Deletes every item of a tag.
+ * <p>
+ * The tagged items are counted by document in one query, and the documents are deleted in an order where documents
+ * that refer to other tagged documents go first, so that a referenced item is not deleted while it is still referred to.
+ * Each document's items are deleted one per transaction by {@link TaggedItemExecutor}, which checkpoints its progress,
+ * and then the tag entries of the deleted items are removed in one statement. The delete bizlets can do more than
+ * change the database, so a failed delete is logged rather than deleting any other item again.
+ */
 public class DeleteAllTaggedDataForTagJob extends Job {
+	private volatile boolean cancelled = false;
+
+	private int size = 0;
+	private int processed = 0;
+	private int groupSize = 0;
+
 	@Override
 	public String cancel() {
+		cancelled = true;
 		return null;
 	}
 
@@ -30,46 +58,157 @@ public class DeleteAllTaggedDataForTagJob extends Job {
 		TagExtension tag = (TagExtension) getBean();
 		log.add("Started Delete All Tagged Data Job at " + new Date());
 
-		// get relevant document to action
+		// get relevant documents to action in a single pass over the tag
 		Persistence pers = CORE.getPersistence();
 		User user = pers.getUser();
 		Customer customer = user.getCustomer();
-		TagManager tm = EXT.getTagManager();
-		for (Module module : customer.getModules()) {
-			for (String documentRef : module.getDocumentRefs().keySet()) {
-
-				List<Bean> beans = TagBizlet.getTaggedItemsForDocument(tag, module.getName(), documentRef);
-
-				int size = beans.size();
-				int processed = 0;
-				Iterator<Bean> it = beans.iterator();
-				while (it.hasNext()) {
-					PersistentBean pb = (PersistentBean) it.next();
-					StringBuilder sb = new StringBuilder();
-					sb.append("Attempting to delete ");
-					sb.append(module.getName()).append(".").append(documentRef);
-					sb.append(" ").append(pb.getBizKey());
-					try {
-						// remove from tag and delete
-						tm.untag(tag.getBizId(), pb);
-						pers.delete(pb);
-						pers.commit(false);
-						pers.evictCached(pb);
-						pers.begin();
-					} catch (Exception e) {
-						sb.append(" - Unsuccessful");
-						sb.append("\n").append(e.getMessage());
-					}
-					processed++;
-					setPercentComplete((int) (((float) processed) / ((float) size) * 100F));
+		Map<Document, Integer> counts = countTaggedDocuments(pers, customer, tag);
+		for (Integer count : counts.values()) {
+			size += count.intValue();
+		}
 
-					log.add(sb.toString());
-				}
+		Progress progress = new Progress() {
+			@Override
+			public void log(String line) {
+				log.add(line);
+			}
+
+			@Override
+			public void setPercentComplete(int percentComplete) {
+				// convert the progress through one document into the progress through the whole tag
+				float done = processed + (groupSize * percentComplete / 100F);
+				DeleteAllTaggedDataForTagJob.this.setPercentComplete((int) Math.min(100F, done / Math.max(1, size) * 100F));
 			}
+
+			@Override
+			public boolean isCancelled() {
+				return cancelled;
+			}
+		};
+
+		for (Document document : deletionOrder(customer, counts.keySet())) {
+			String moduleName = document.getOwningModuleName();
+			String documentName = document.getName();
+			groupSize = counts.get(document).intValue();
+			log.add("Deleting " + groupSize + " tagged " + moduleName + "." + documentName);
+
+			TaggedItemExecutor executor = new TaggedItemExecutor(getClass().getName(),
+																	tag,
+																	moduleName,
+																	documentName,
+																	1);
+			executor.evict(tag.getEvictOption());
+			executor.execute(bean -> {
+				PersistentBean pb = bean;
+				StringBuilder sb = new StringBuilder();
+				sb.append("Attempting to delete ");
+				sb.append(moduleName).append(".").append(documentName);
+				sb.append(" ").append(pb.getBizKey());
+				pers.delete(pb);
+				return sb.toString();
+			}, progress);
+
+			// the deleted items are no longer tagged
+			untagDeleted(pers, customer, tag, document);
+
+			if (cancelled) {
+				log.add("Delete All Tagged Data Job cancelled - run the job again to carry on from here");
+				return;
+			}
+			processed += groupSize;
 		}
 
 		setPercentComplete(100);
 		log.add("Finished Delete All Tagged Data Job at " + new Date());
 		EXT.push(new PushMessage().user(CORE.getUser()).growl(MessageSeverity.info, "Delete All Tagged Data Job completed."));
 	}
+
+	/**
+	 * Count the tagged items of each document.
+	 */
+	private static Map<Document, Integer> countTaggedDocuments(Persistence pers, Customer customer, TagExtension tag) {
+		DocumentQuery q = pers.newDocumentQuery(Tagged.MODULE_NAME, Tagged.DOCUMENT_NAME);
+		q.getFilter().addEquals(Tagged.tagPropertyName, tag);
+		q.addBoundProjection(Tagged.taggedModulePropertyName);
+		q.addBoundProjection(Tagged.taggedDocumentPropertyName);
+		q.addAggregateProjection(AggregateFunction.Count, Tagged.taggedBizIdPropertyName, "tagged");
+		q.addBoundGrouping(Tagged.taggedModulePropertyName);
+		q.addBoundGrouping(Tagged.taggedDocumentPropertyName);
+
+		Map<Document, Integer> result = new LinkedHashMap<>();
+		for (Object[] row : q.tupleResults()) {
+			Module module = customer.getModule((String) row[0]);
+			Document document = module.getDocument(customer, (String) row[1]);
+			result.put(document, Integer.valueOf(((Number) row[2]).intValue()));
+		}
+		return result;
+	}
+
+	/**
+	 * Order the documents so that each comes before any document it refers to.
+	 * Documents that refer to each other are left in the order given.
+	 */
+	private static List<Document> deletionOrder(Customer customer, Set<Document> documents) {
+		Map<Document, Set<Document>> referencedBy = new LinkedHashMap<>();
+		for (Document document : documents) {
+			referencedBy.put(document, new HashSet<>());
+		}
+		for (Document document : documents) {
+			Module module = customer.getModule(document.getOwningModuleName());
+			for (Attribute attribute : document.getAttributes()) {
+				AttributeType type = attribute.getAttributeType();
+				if ((type == AttributeType.association) || (type == AttributeType.collection)) {
+					Document referenced = module.getDocument(customer, ((Relation) attribute).getDocumentName());
+					if ((referenced != document) && referencedBy.containsKey(referenced)) {
+						referencedBy.get(referenced).add(document);
+					}
+				}
+			}
+		}
+
+		List<Document> result = new ArrayList<>(documents.size());
+		while (! referencedBy.isEmpty()) {
+			Document next = null;
+			for (Map.Entry<Document, Set<Document>> entry : referencedBy.entrySet()) {
+				if (entry.getValue().isEmpty()) {
+					next = entry.getKey();
+					break;
+				}
+			}
+			if (next == null) {
+				result.addAll(referencedBy.keySet());
+				break;
+			}
+			referencedBy.remove(next);
+			for (Set<Document> referrers : referencedBy.values()) {
+				referrers.remove(next);
+			}
+			result.add(next);
+		}
+		return result;
+	}
+
+	/**
+	 * Remove the tag entries of the document's items that no longer exist.
+	 */
+	private static void untagDeleted(Persistence pers, Customer customer, TagExtension tag, Document document) {
+		BizQL delete = pers.newBizQL(String.format("delete from {%s.%s} as t where t.%s.bizId = :tagId " +
+														"and t.%s = :taggedModule and t.%s = :taggedDocument and t.bizCustomer = :bizCustomer " +
+														"and not exists (select d.bizId from {%s.%s} as d where d.bizId = t.%s)",
+													Tagged.MODULE_NAME,
+													Tagged.DOCUMENT_NAME,
+													Tagged.tagPropertyName,
+													Tagged.taggedModulePropertyName,
+													Tagged.taggedDocumentPropertyName,
+													document.getOwningModuleName(),
+													document.getName(),
+													Tagged.taggedBizIdPropertyName));
+		delete.putParameter("tagId", tag.getBizId());
+		delete.putParameter("taggedModule", document.getOwningModuleName());
+		delete.putParameter("taggedDocument", document.getName());
+		delete.putParameter("bizCustomer", customer.getName());
+		delete.execute();
+		pers.commit(false);
+		pers.begin();
+	}
 }
@@ -1,7 +1,6 @@
 package modules.admin.Tag;
 
 import java.util.Date;
-import java.util.Iterator;
 import java.util.List;
 
 import org.skyve.CORE;
@@ -24,14 +23,27 @@ import org.skyve.util.CommunicationUtil;
 import org.skyve.util.CommunicationUtil.ResponseMode;
 import org.skyve.util.PushMessage;
 
-import modules.admin.domain.DataMaintenance.EvictOption;
+import modules.admin.ChunkExecutor.Progress;
+
+public class PerformDocumentActionForTagJob extends Job implements Progress {
+	private volatile boolean cancelled = false;
 
-public class PerformDocumentActionForTagJob extends Job {
 	@Override
 	public String cancel() {
+		cancelled = true;
 		return null;
 	}
 
+	@Override
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	@Override
+	public void log(String line) {
+		getLog().add(line);
+	}
+
 	@Override
 	public void execute() throws Exception {
 
@@ -49,91 +61,71 @@ public class PerformDocumentActionForTagJob extends Job {
 			Module module = customer.getModule(tag.getActionModuleName());
 			Document document = module.getDocument(customer, tag.getActionDocumentName());
 
-			// get action from actionname
-			ServerSideAction<Bean> act = null;
-			EvictOption evict = tag.getEvictOption();
-			
-
-			// retrieve action for non-default actions only
-			if (!TagDefaultAction.isDefaultTagAction(tag.getDocumentAction())) {
-				act = document.getServerSideAction(customer, tag.getDocumentAction(), true);
-			}
-
-			List<Bean> beans = TagBizlet.getTaggedItemsForDocument(tag, tag.getActionModuleName(), tag.getActionDocumentName());
+			// get action from actionname, for non-default actions only
+			ServerSideAction<Bean> act = TagDefaultAction.isDefaultTagAction(tag.getDocumentAction()) ?
+											null :
+											document.getServerSideAction(customer, tag.getDocumentAction(), true);
 
-			int size = beans.size();
-			int processed = 0;
-			Iterator<Bean> it = beans.iterator();
+			String documentAction = tag.getDocumentAction();
+			TagDefaultAction defaultAction = TagDefaultAction.fromCode(documentAction);
+			String condition = tag.getDocumentCondition();
+			boolean untag = Boolean.TRUE.equals(tag.getUnTagSuccessful());
 			TagManager tm = EXT.getTagManager();
-			while (it.hasNext()) {
-				PersistentBean pb = (PersistentBean) it.next();
 
+			// actions and bizlets can send messages or call other systems, so each item is committed on its own
+			// and a failed item is logged rather than processed again
+			TaggedItemExecutor executor = new TaggedItemExecutor(getClass().getName(),
+																	tag,
+																	tag.getActionModuleName(),
+																	tag.getActionDocumentName(),
+																	1);
+			executor.evict(tag.getEvictOption());
+			int processed = executor.execute(bean -> {
+				PersistentBean pb = bean;
 				StringBuilder sb = new StringBuilder();
-				sb.append("Action request for [").append(tag.getDocumentAction());
+				sb.append("Action request for [").append(documentAction);
 				sb.append("] for document [").append(tag.getActionDocumentName()).append("] - ");
-				if (tag.getDocumentCondition() != null) {
-					sb.append(" with condition [").append(tag.getDocumentCondition()).append("] - ");
+				if (condition != null) {
+					sb.append(" with condition [").append(condition).append("] - ");
 				} else {
 					sb.append(" unconditionally ");
 				}
 				sb.append("'").append(pb.getBizKey()).append("'");
-				try {
-					boolean conditionSatisfied = true;
-					if (tag.getDocumentCondition() != null) {
-						conditionSatisfied = conditionSatisfied && pb.evaluateCondition(tag.getDocumentCondition());
-					}
-					if (conditionSatisfied) {
-						if (act != null) {
-							CustomerImpl internalCustomer = (CustomerImpl) customer;
-							boolean vetoed = internalCustomer.interceptBeforeServerSideAction(document, tag.getDocumentAction(), pb, null);
-							if (!vetoed) {
-								ServerSideActionResult<Bean> result = act.execute(pb, null);
-								internalCustomer.interceptAfterServerSideAction(document, tag.getDocumentAction(), result, null);
-								pb = (PersistentBean) result.getBean();
-							}
-						}
-						
-						if (TagDefaultAction.tagDelete.equals(TagDefaultAction.fromCode(tag.getDocumentAction()))) {
-							// remove from tag and delete
-							tm.untag(tag.getBizId(), pb);
-							pers.delete(pb);
-						} else if (TagDefaultAction.tagValidate.equals(TagDefaultAction.fromCode(tag.getDocumentAction()))) {
-							BeanValidator.validateBeanAgainstDocument(document, pb);
-						} else if (TagDefaultAction.tagUpsert.equals(TagDefaultAction.fromCode(tag.getDocumentAction()))) {
-							pers.upsertBeanTuple(pb);
-						} else {
-							pers.save(pb);
-						}
-						
-						// untag successfully processed beans
-						if (Boolean.TRUE.equals(tag.getUnTagSuccessful())) {
-							tm.untag(tag.getBizId(), pb);
-						}
-						
-						pers.commit(false);
-						if (EvictOption.bean.equals(evict)) {
-							pers.evictCached(pb);
-						}
-						else if (EvictOption.all.equals(evict)) {
-							pers.evictAllCached();
-						}
-						pers.begin();
-
-						sb.append(" - Successful");
-
-					} else {
-						sb.append(" - Condition not satisfied");
+
+				if ((condition != null) && (! pb.evaluateCondition(condition))) {
+					return sb.append(" - Condition not satisfied").toString();
+				}
+
+				if (act != null) {
+					CustomerImpl internalCustomer = (CustomerImpl) customer;
+					boolean vetoed = internalCustomer.interceptBeforeServerSideAction(document, documentAction, pb, null);
+					if (!vetoed) {
+						ServerSideActionResult<Bean> result = act.execute(pb, null);
+						internalCustomer.interceptAfterServerSideAction(document, documentAction, result, null);
+						pb = (PersistentBean) result.getBean();
 					}
+				}
 
-				} catch (Exception e) {
-					sb.append(" - Unsuccessful");
-					sb.append("\n").append(e.getMessage());
+				if (TagDefaultAction.tagDelete.equals(defaultAction)) {
+					// remove from tag and delete
+					tm.untag(tag.getBizId(), pb);
+					pers.delete(pb);
+				} else if (TagDefaultAction.tagValidate.equals(defaultAction)) {
+					BeanValidator.validateBeanAgainstDocument(document, pb);
+				} else if (TagDefaultAction.tagUpsert.equals(defaultAction)) {
+					pers.upsertBeanTuple(pb);
+				} else {
+					pers.save(pb);
 				}
-				processed++;
-				setPercentComplete((int) (((float) processed) / ((float) size) * 100F));
 
-				log.add(sb.toString());
-			}
+				// untag successfully processed beans
+				if (untag) {
+					tm.untag(tag.getBizId(), pb);
+				}
+
+				return sb.append(" - Successful").toString();
+			}, this);
+			log.add("Processed " + processed + " tagged items");
 
 			if (Boolean.TRUE.equals(tag.getNotification())) {
 				
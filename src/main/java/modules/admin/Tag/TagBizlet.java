@@ -26,6 +26,7 @@ import modules.admin.Jobs.JobsBizlet;
 import modules.admin.domain.Tag;
 import modules.admin.domain.Tag.FilterAction;
 import modules.admin.domain.Tag.FilterOperator;
+import modules.admin.domain.Tagged;
 
 public class TagBizlet extends Bizlet<TagExtension> {
 	public static final String SYSTEM_TAG_ACTION_NOTIFICATION = "SYSTEM Tag Action Notification";
@@ -277,6 +278,37 @@ public class TagBizlet extends Bizlet<TagExtension> {
 		return beans;
 	}
 
+	/**
+	 * Retrieve the first item tagged which matches the specified module and document, without reading the rest
+	 * 
+	 * @param tag
+	 * @param moduleName
+	 * @param documentName
+	 * @return the first tagged item, or null if there are none
+	 * @throws Exception
+	 */
+	public static Bean getFirstTaggedItemForDocument(TagExtension tag, String moduleName, String documentName) throws Exception {
+		if (tag == null || moduleName == null || documentName == null) {
+			return null;
+		}
+
+		Persistence pers = CORE.getPersistence();
+		DocumentQuery q = pers.newDocumentQuery(Tagged.MODULE_NAME, Tagged.DOCUMENT_NAME);
+		q.getFilter().addEquals(Tagged.tagPropertyName, tag);
+		q.getFilter().addEquals(Tagged.taggedModulePropertyName, moduleName);
+		q.getFilter().addEquals(Tagged.taggedDocumentPropertyName, documentName);
+		q.addBoundProjection(Tagged.taggedBizIdPropertyName);
+		q.setMaxResults(1);
+		String bizId = q.scalarResult(String.class);
+		if (bizId == null) {
+			return null;
+		}
+
+		Customer customer = pers.getUser().getCustomer();
+		Document document = customer.getModule(moduleName).getDocument(customer, documentName);
+		return pers.retrieve(document, bizId);
+	}
+
 	@Override
 	public void preRerender(String source, TagExtension bean, WebContext webContext) throws Exception {
 		
@@ -0,0 +1,132 @@
+package modules.admin.Tag;
+
+import java.util.List;
+
+import org.skyve.CORE;
+import org.skyve.domain.PersistentBean;
+import org.skyve.metadata.SortDirection;
+import org.skyve.metadata.customer.Customer;
+import org.skyve.metadata.model.document.Document;
+import org.skyve.metadata.module.Module;
+import org.skyve.persistence.DocumentQuery;
+import org.skyve.persistence.DocumentQuery.AggregateFunction;
+
+import modules.admin.ChunkExecutor;
+import modules.admin.ChunkExecutor.ItemAction;
+import modules.admin.ChunkExecutor.Progress;
+import modules.admin.ChunkExecutor.Source;
+import modules.admin.domain.DataMaintenance.EvictOption;
+import modules.admin.domain.Tag;
+import modules.admin.domain.Tagged;
+
+/**
+ * Processes the items of a tag for one document a chunk at a time with a {@link ChunkExecutor}.
+ * <p>
+ * The tagged bizIds are read a page at a time in bizId order, filtered to the document by the query, so items can be
+ * untagged or deleted as they are processed. An item that fails on its own is logged as unsuccessful with its bizKey.
+ * <p>
+ * The checkpoint is kept for the job, tag and document.
+ */
+public class TaggedItemExecutor implements Source<PersistentBean> {
+	/**
+	 * The default number of items committed in each transaction.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 100;
+
+	private final Tag tag;
+	private final Document document;
+	private final String checkpointKey;
+	private final ChunkExecutor<PersistentBean> executor;
+
+	/**
+	 * @param jobName	The name of the job, used to keep its checkpoint apart from other jobs for the same tag.
+	 * @param tag	The tag.
+	 * @param moduleName	The module of the items to process.
+	 * @param documentName	The document of the items to process.
+	 * @param chunkSize	The number of items committed in each transaction.
+	 */
+	public TaggedItemExecutor(String jobName, Tag tag, String moduleName, String documentName, int chunkSize) {
+		Customer customer = CORE.getCustomer();
+		Module module = customer.getModule(moduleName);
+		this.tag = tag;
+		this.document = module.getDocument(customer, documentName);
+		this.checkpointKey = String.format("%s/%s/%s/%s.%s", customer.getName(), jobName, tag.getBizId(), moduleName, documentName);
+		this.executor = new ChunkExecutor<>(chunkSize);
+	}
+
+	/**
+	 * @param evict	What to evict from the first level cache after each commit - all beans by default.
+	 */
+	public TaggedItemExecutor evict(EvictOption evict) {
+		executor.evict(evict);
+		return this;
+	}
+
+	/**
+	 * Process the tagged items.
+	 *
+	 * @return	The number of items processed.
+	 */
+	public int execute(ItemAction<PersistentBean> action, Progress progress) {
+		String after = ChunkExecutor.checkpoint(checkpointKey);
+		if (after != null) {
+			progress.log("Resuming after the last processed item " + after);
+		}
+		executor.size(count(after));
+
+		boolean complete = executor.execute(checkpointKey, this, new ItemAction<PersistentBean>() {
+			@Override
+			public String process(PersistentBean bean) throws Exception {
+				return action.process(bean);
+			}
+
+			@Override
+			public void failed(PersistentBean bean, Exception e) {
+				progress.log(bean.getBizKey() + " - Unsuccessful\n" + e.getMessage());
+			}
+		}, progress);
+		if (! complete) {
+			progress.log("Cancelled - run the job again to carry on from here");
+		}
+
+		return (int) executor.getProcessed();
+	}
+
+	/**
+	 * The next page of tagged bizIds for the document, after the given bizId.
+	 */
+	@Override
+	public List<String> page(String after, int max) {
+		DocumentQuery q = newQuery(after);
+		q.addBoundProjection(Tagged.taggedBizIdPropertyName);
+		q.addBoundOrdering(Tagged.taggedBizIdPropertyName, SortDirection.ascending);
+		q.setMaxResults(max);
+		return q.scalarResults(String.class);
+	}
+
+	/**
+	 * The tagged item, which may have been deleted while it was tagged.
+	 */
+	@Override
+	public PersistentBean load(String bizId) {
+		return CORE.getPersistence().retrieve(document, bizId);
+	}
+
+	private long count(String after) {
+		DocumentQuery q = newQuery(after);
+		q.addAggregateProjection(AggregateFunction.Count, Tagged.taggedBizIdPropertyName, "tagged");
+		Number result = q.scalarResult(Number.class);
+		return (result == null) ? 0L : result.longValue();
+	}
+
+	private DocumentQuery newQuery(String after) {
+		DocumentQuery q = CORE.getPersistence().newDocumentQuery(Tagged.MODULE_NAME, Tagged.DOCUMENT_NAME);
+		q.getFilter().addEquals(Tagged.tagPropertyName, tag);
+		q.getFilter().addEquals(Tagged.taggedModulePropertyName, document.getOwningModuleName());
+		q.getFilter().addEquals(Tagged.taggedDocumentPropertyName, document.getName());
+		if (after != null) {
+			q.getFilter().addGreaterThan(Tagged.taggedBizIdPropertyName, after);
+		}
+		return q;
+	}
+}
@@ -22,6 +22,7 @@ import org.skyve.persistence.Persistence;
 import org.skyve.util.Binder;
 import org.skyve.web.WebContext;
 
+import modules.admin.ModulesUtil;
 import modules.admin.Configuration.ConfigurationExtension;
 import modules.admin.domain.ChangePassword;
 import modules.admin.domain.Configuration;
@@ -230,11 +231,13 @@ public class UserBizlet extends Bizlet<UserExtension> {
 		bean.setNewGroup(null);
 		bean.setNewPassword(null);
 		evictUserProxy(bean);
+		ModulesUtil.evictCurrentAdminUser(bean.getBizId());
 	}
 	
 	@Override
 	public void preDelete(UserExtension bean) throws Exception {
 		evictUserProxy(bean);
+		ModulesUtil.evictCurrentAdminUser(bean.getBizId());
 	}
 
 	// Evict UserProxy bean if its been cached
@@ -42,8 +42,12 @@ public class UserDashboardExtension extends UserDashboard {
 	private static final int TILE_COUNT_LIMIT = 6;
 	private final Set<Tile> tiles = new HashSet<>();
 	
-	// used for 14 day dashboard calculations
-	public static final Long TWO_WEEKS_AGO = Long.valueOf(System.currentTimeMillis() - 1209600000L);
+	/**
+	 * Used for 14 day dashboard calculations, worked out for each request rather than when the class is loaded.
+	 */
+	public static Long twoWeeksAgo() {
+		return Long.valueOf(System.currentTimeMillis() - 1209600000L);
+	}
 
 	/**
 	 * Returns true if the current logged in user has access to the Jobs document.
@@ -136,7 +140,7 @@ public class UserDashboardExtension extends UserDashboard {
 	private List<Bean> popularUpdates(UserExtension filterUser) {
 
 		DocumentQuery q = persistence.newDocumentQuery(Audit.MODULE_NAME, Audit.DOCUMENT_NAME);
-		q.getFilter().addGreaterThan(Audit.millisPropertyName, TWO_WEEKS_AGO);
+		q.getFilter().addGreaterThan(Audit.millisPropertyName, twoWeeksAgo());
 		q.getFilter().addNotEquals(Audit.operationPropertyName, Operation.delete);
 		if (filterUser != null) {
 			q.getFilter().addEquals(Audit.userNamePropertyName, filterUser.getUserName());
@@ -164,7 +168,7 @@ public class UserDashboardExtension extends UserDashboard {
 	 */
 	private List<Bean> recentInsertDocuments(UserExtension filterUser) {
 		DocumentQuery q = persistence.newDocumentQuery(Audit.MODULE_NAME, Audit.DOCUMENT_NAME);
-		q.getFilter().addGreaterThan(Audit.millisPropertyName, TWO_WEEKS_AGO);
+		q.getFilter().addGreaterThan(Audit.millisPropertyName, twoWeeksAgo());
 		q.getFilter().addEquals(Audit.operationPropertyName, Operation.insert);
 		q.getFilter().addNotEquals(Audit.auditModuleNamePropertyName, Audit.MODULE_NAME);
 		if (filterUser != null) {
@@ -461,7 +465,7 @@ public class UserDashboardExtension extends UserDashboard {
 	private List<Bean> recentUpdates(UserExtension filterUser) {
 
 		DocumentQuery q = persistence.newDocumentQuery(Audit.MODULE_NAME, Audit.DOCUMENT_NAME);
-		q.getFilter().addGreaterThan(Audit.millisPropertyName, TWO_WEEKS_AGO);
+		q.getFilter().addGreaterThan(Audit.millisPropertyName, twoWeeksAgo());
 		q.getFilter().addNotEquals(Audit.operationPropertyName, Operation.delete);
 		if (filterUser != null) {
 			q.getFilter().addEquals(Audit.userNamePropertyName, filterUser.getUserName());
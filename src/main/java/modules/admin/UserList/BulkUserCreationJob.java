@@ -1,8 +1,15 @@
 package modules.admin.UserList;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.skyve.CORE;
 import org.skyve.EXT;
@@ -20,21 +27,96 @@ import org.skyve.persistence.Persistence;
 import org.skyve.util.CommunicationUtil;
 import org.skyve.web.WebContext;
 
+import modules.admin.ChunkExecutor;
+import modules.admin.ChunkExecutor.ItemAction;
+import modules.admin.ChunkExecutor.Progress;
+import modules.admin.ChunkExecutor.Source;
 import modules.admin.Group.GroupExtension;
 import modules.admin.domain.Contact;
 import modules.admin.domain.Contact.ContactType;
+import modules.admin.domain.DataMaintenance.EvictOption;
 import modules.admin.domain.Group;
 import modules.admin.domain.User;
 import modules.admin.domain.UserList;
 
-public class BulkUserCreationJob extends Job {
+/**
+ * Creates a user for each email address in a user list.
+ * <p>
+ * Password hashing is the slow part of creating a user, so the hashes are worked out ahead on a small pool of
+ * threads while the job thread saves the users. Hashing needs no persistence, so it is safe off the job thread.
+ * The groups are retrieved once, existing users are found {@link #BATCH_SIZE} names per query, and the users and
+ * contacts are committed {@link #BATCH_SIZE} at a time by a {@link ChunkExecutor}, so only the failing users are not
+ * created. Invitations are sent once a user's batch is committed, so a batch done again does not send them twice.
+ */
+public class BulkUserCreationJob extends Job implements Progress {
 	private static final String SPACE_COMMA_OR_SEMICOLON = "[\\s,;]+";
 
+	/**
+	 * The number of users created in each transaction.
+	 */
+	private static final int BATCH_SIZE = 100;
+
+	/**
+	 * The most passwords hashed at once, leaving a processor for the job thread.
+	 */
+	private static final int HASHING_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+	/**
+	 * The least time between progress lines in the job log.
+	 */
+	private static final long PROGRESS_INTERVAL_MILLIS = 30000L;
+
+	private volatile boolean cancelled = false;
+
+	private int size = 0;
+	private int created = 0;
+	private long started;
+	private long lastProgress;
+
+	/**
+	 * A user to create, with its password hash being worked out.
+	 */
+	private static final class NewUser {
+		private final String email;
+		private final String token;
+		private final Future<String> hash;
+		private User user;
+
+		NewUser(String email, String token, Future<String> hash) {
+			this.email = email;
+			this.token = token;
+			this.hash = hash;
+		}
+	}
+
 	@Override
 	public String cancel() {
+		cancelled = true;
 		return null;
 	}
 
+	@Override
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	@Override
+	public void log(String line) {
+		getLog().add(line);
+	}
+
+	@Override
+	public void processed(long processed, long failed) {
+		long now = System.currentTimeMillis();
+		if ((now - lastProgress) >= PROGRESS_INTERVAL_MILLIS) {
+			lastProgress = now;
+			getLog().add(String.format("%d of %d users created, %d users/sec",
+										Integer.valueOf(created),
+										Integer.valueOf(size),
+										Long.valueOf(processed / Math.max(1L, (now - started) / 1000L))));
+		}
+	}
+
 	@Override
 	public void execute() throws Exception {
 
@@ -44,33 +126,75 @@ public class BulkUserCreationJob extends Job {
 
 		log.add("Job to create new users has commenced");
 		
-		List<Contact> validatedContacts = getValidatedContacts(userList);
-		int size = validatedContacts.size();
-		int processed = 1;
-		int created = 0;
-		for (Contact contact : validatedContacts) {
-
-			User newUser = createUserFromContact(contact, userList, log);
-			if (newUser != null) {
-				created++;
-				if (Boolean.TRUE.equals(userList.getBulkCreateWithEmail())) {
-					try {
-						// send invitation email
-						CommunicationUtil.sendFailSafeSystemCommunication(UserListUtil.SYSTEM_USER_INVITATION,
-								UserListUtil.SYSTEM_USER_INVITATION_DEFAULT_SUBJECT,
-								UserListUtil.SYSTEM_USER_INVITATION_DEFAULT_BODY,
-								CommunicationUtil.ResponseMode.EXPLICIT, null, newUser);
-
-						log.add("New user '" + newUser.getUserName() + "' created and emailed ok");
-					} catch (@SuppressWarnings("unused") Exception e) {
-						log.add("New user '" + newUser.getUserName() + "' created ok but emailed FAILED");
+		Persistence pers = CORE.getPersistence();
+		List<String> emails = newUserNames(pers, getValidatedContacts(userList), log);
+		size = emails.size();
+		started = System.currentTimeMillis();
+		lastProgress = started;
+
+		ExecutorService hashers = Executors.newFixedThreadPool(HASHING_THREADS);
+		try {
+			// start hashing every password, the job thread takes the hashes in order as it saves
+			Map<String, NewUser> newUsers = new HashMap<>();
+			Map<String, Integer> positions = new HashMap<>();
+			for (String email : emails) {
+				final String token = UUID.randomUUID().toString() + Long.toString(System.currentTimeMillis());
+				newUsers.put(email, new NewUser(email, token, hashers.submit(() -> EXT.hashPassword(token))));
+				positions.put(email, Integer.valueOf(positions.size()));
+			}
+
+			ChunkExecutor<NewUser> executor = new ChunkExecutor<NewUser>(BATCH_SIZE).evict(EvictOption.none).size(size);
+			boolean complete = executor.execute(null, new Source<NewUser>() {
+				@Override
+				public List<String> page(String after, int max) {
+					int from = (after == null) ? 0 : positions.get(after).intValue() + 1;
+					return emails.subList(Math.min(size, from), Math.min(size, from + max));
+				}
+
+				@Override
+				public NewUser load(String email) {
+					return newUsers.get(email);
+				}
+			}, new ItemAction<NewUser>() {
+				private List<GroupExtension> groups = null;
+
+				@Override
+				public String process(NewUser newUser) throws Exception {
+					if (groups == null) {
+						groups = retrieveGroups(pers, userList);
 					}
-				} else {
-					log.add("New user '" + newUser.getUserName() + "'created ok");
+					newUser.user = create(pers, newUser, groups, userList);
+					return null;
 				}
-			}
 
-			setPercentComplete((int) (((float) processed++) / ((float) size) * 100F));
+				@Override
+				public void committed(NewUser newUser) {
+					// keep the groups but let go of the new user and contact
+					pers.evictCached(newUser.user.getContact());
+					pers.evictCached(newUser.user);
+					created++;
+					BulkUserCreationJob.notify(newUser.user, userList, log);
+				}
+
+				@Override
+				public void failed(NewUser newUser, Exception e) {
+					log.add("The user '" + newUser.email + "' could not be created");
+				}
+
+				@Override
+				public void rolledBack() {
+					// the groups are detached by the rollback
+					groups = null;
+				}
+			}, this);
+
+			if (! complete) {
+				log.add("Job to create new users was cancelled - " + created + " users created");
+				return;
+			}
+		}
+		finally {
+			hashers.shutdownNow();
 		}
 
 		setPercentComplete(100);
@@ -143,64 +267,98 @@ public class BulkUserCreationJob extends Job {
 	}
 
 	/**
-	 * Create a new user from a contact, using the groups assigned in the UserList bean
+	 * Remove the email addresses that are repeated or already have a user.
 	 * 
-	 * @param contact
-	 * @param bean
-	 * @return the new User (saved)
+	 * @return the user names to create, in the order given
 	 */
-	public static User createUserFromContact(Contact c, UserList bean, List<String> log) throws Exception {
+	private static List<String> newUserNames(Persistence pers, List<Contact> contacts, List<String> log) {
+		Set<String> emails = new LinkedHashSet<>();
+		for (Contact contact : contacts) {
+			emails.add(contact.getEmail1());
+		}
+
+		List<String> result = new ArrayList<>(emails);
+		for (int from = 0; from < result.size(); from += BATCH_SIZE) {
+			List<String> batch = result.subList(from, Math.min(result.size(), from + BATCH_SIZE));
+			DocumentQuery q = pers.newDocumentQuery(User.MODULE_NAME, User.DOCUMENT_NAME);
+			q.getFilter().addIn(User.userNamePropertyName, batch.toArray());
+			q.addBoundProjection(User.userNamePropertyName);
+			for (String found : q.scalarResults(String.class)) {
+				log.add("The user '" + found + "' already exists - no action will be taken");
+				emails.remove(found);
+			}
+		}
 
-		// check if user already exists
-		DocumentQuery q = CORE.getPersistence().newDocumentQuery(User.MODULE_NAME, User.DOCUMENT_NAME);
-		q.getFilter().addEquals(User.userNamePropertyName, c.getEmail1());
-		q.setMaxResults(1);
+		return new ArrayList<>(emails);
+	}
+
+	/**
+	 * Retrieve the groups assigned in the UserList bean.
+	 * <p>
+	 * This job is in its own thread, own persistence, own transaction
+	 * and UserList bean is from another persistence that haven't been fully populated
+	 * so we need to re-retrieve each group.
+	 */
+	private static List<GroupExtension> retrieveGroups(Persistence pers, UserList bean) {
+		List<GroupExtension> result = new ArrayList<>(bean.getUserInvitationGroups().size());
+		for (GroupExtension group : bean.getUserInvitationGroups()) {
+			String id = group.getBizId();
+			pers.evictCached(group);
+			result.add(pers.retrieve(Group.MODULE_NAME, Group.DOCUMENT_NAME, id));
+		}
+		return result;
+	}
 
-		User found = q.beanResult();
-		if (found != null) {
-			log.add("The user '" + c.getEmail1() + "' already exists - no action will be taken");
-			return null;
+	/**
+	 * Create a user, with a new contact.
+	 * 
+	 * @return the new user (saved)
+	 */
+	private static User create(Persistence pers, NewUser newUser, List<GroupExtension> groups, UserList bean) throws Exception {
+		Contact contact = Contact.newInstance();
+		contact.setName(newUser.email);
+		contact.setContactType(ContactType.person);
+		contact.setEmail1(newUser.email);
+		contact = pers.save(contact);
+
+		// create a user - not with a generated password
+		User user = User.newInstance();
+		user.setUserName(newUser.email);
+		user.setPassword(newUser.hash.get());
+		user.setPasswordExpired(Boolean.TRUE);
+		user.setPasswordResetToken(newUser.token);
+		user.setContact(contact);
+
+		// set default module
+		String defaultModuleName = bean.getDefaultModuleName();
+		if (defaultModuleName != null) {
+			user.setHomeModule(defaultModuleName);
 		}
 
+		// assign groups as selected
+		user.getGroups().addAll(groups);
 
-		try {
-			Contact contact = c;
-			contact = CORE.getPersistence().save(contact);
-
-			final String token = UUID.randomUUID().toString() + Long.toString(System.currentTimeMillis());
-			// create a user - not with a generated password
-			User newUser = User.newInstance();
-			newUser.setUserName(contact.getEmail1());
-			newUser.setPassword(EXT.hashPassword(token));
-			newUser.setPasswordExpired(Boolean.TRUE);
-			newUser.setPasswordResetToken(token);
-			newUser.setContact(contact);
-
-			// set default module
-			String defaultModuleName = bean.getDefaultModuleName();
-			if (defaultModuleName != null) {
-				newUser.setHomeModule(defaultModuleName);
-			}
+		return pers.save(user);
+	}
 
-			// assign groups as selected
-			List<GroupExtension> groups = bean.getUserInvitationGroups();
-			for (GroupExtension group : groups) {
-				// this job is in its own thread, own persistence, own transaction
-				// and UserList bean is from another persistence that haven�t been fully populagted
-				// so we need to re-retrieve each group
-				String id = group.getBizId();
-				CORE.getPersistence().evictCached(group);
-				group = CORE.getPersistence().retrieve(Group.MODULE_NAME, Group.DOCUMENT_NAME, id);
-
-				// now the group can be added to the new user
-				newUser.getGroups().add(group);
+	/**
+	 * Log the new user, sending an invitation if requested.
+	 */
+	private static void notify(User newUser, UserList bean, List<String> log) {
+		if (Boolean.TRUE.equals(bean.getBulkCreateWithEmail())) {
+			try {
+				// send invitation email
+				CommunicationUtil.sendFailSafeSystemCommunication(UserListUtil.SYSTEM_USER_INVITATION,
+						UserListUtil.SYSTEM_USER_INVITATION_DEFAULT_SUBJECT,
+						UserListUtil.SYSTEM_USER_INVITATION_DEFAULT_BODY,
+						CommunicationUtil.ResponseMode.EXPLICIT, null, newUser);
+
+				log.add("New user '" + newUser.getUserName() + "' created and emailed ok");
+			} catch (@SuppressWarnings("unused") Exception e) {
+				log.add("New user '" + newUser.getUserName() + "' created ok but emailed FAILED");
 			}
-
-			newUser = CORE.getPersistence().save(newUser);
-			return newUser;
-		} catch (@SuppressWarnings("unused") Exception e) {
-			log.add("The user '" + c.getEmail1()+ "' could not be created");
-			return null;
+		} else {
+			log.add("New user '" + newUser.getUserName() + "'created ok");
 		}
 	}
 }
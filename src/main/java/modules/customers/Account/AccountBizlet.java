@@ -6,6 +6,7 @@ import org.skyve.metadata.model.document.Bizlet;
 import org.skyve.web.WebContext;
 
 import modules.admin.ModulesUtil;
+import modules.customers.AccountSalesSummary.AccountSalesSummaryService;
 
 public class AccountBizlet extends Bizlet<AccountExtension> {
 	
@@ -19,7 +20,7 @@ public class AccountBizlet extends Bizlet<AccountExtension> {
 				bean.updateInteraction();
 			}	
 		}
-		bean.sortInteractions();
+		bean.loadInteractions();
 		return super.preExecute(actionName, bean, parentBean, webContext);
 	}
 	
@@ -33,4 +34,17 @@ public class AccountBizlet extends Bizlet<AccountExtension> {
 		bean.setAccountManager(bean.getCurrentUser().getContact().getName());
 		return super.newInstance(bean);
 	}
+	
+	@Override
+	public void postSave(AccountExtension bean) throws Exception {
+		// keep the last interaction time of the sales summary current
+		AccountSalesSummaryService.refresh(bean);
+		super.postSave(bean);
+	}
+	
+	@Override
+	public void preDelete(AccountExtension bean) throws Exception {
+		AccountSalesSummaryService.delete(bean);
+		super.preDelete(bean);
+	}
 }
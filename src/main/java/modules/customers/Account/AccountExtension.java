@@ -1,15 +1,11 @@
 package modules.customers.Account;
 
 import org.locationtech.jts.geom.Point;
-import org.skyve.CORE;
-import org.skyve.metadata.customer.Customer;
-import org.skyve.metadata.model.document.Document;
-import org.skyve.metadata.module.Module;
-import org.skyve.metadata.user.User;
-import org.skyve.util.Binder;
 
 import modules.admin.ModulesUtil;
 import modules.customers.Interaction.InteractionExtension;
+import modules.customers.Interaction.InteractionTimeline;
+import modules.customers.Interaction.InteractionWriter;
 import modules.customers.domain.Account;
 import modules.customers.domain.Interaction;
 import modules.customers.domain.Interaction.Type;
@@ -24,7 +20,7 @@ public class AccountExtension extends Account {
 		interaction.setTitle("Updated Account");
 		interaction.setType(Type.other);
 		interaction.setDescription(interaction.getUser().getContact().getName() + " updated the account details for " + getAccountName());
-		getInteractions().add(interaction);
+		addInteraction(interaction);
 	}
 
 	public void createInteraction() {
@@ -32,7 +28,7 @@ public class AccountExtension extends Account {
 		interaction.setTitle("Created New Account");
 		interaction.setType(Type.other);
 		interaction.setDescription(interaction.getUser().getContact().getName() + " created a new account.");
-		getInteractions().add(interaction);
+		addInteraction(interaction);
 	}
 	
 	public void createInteraction(final Type type, final String description, final String document) {
@@ -43,20 +39,36 @@ public class AccountExtension extends Account {
 		if (document != null) {
 			interaction.setDocument(document);
 		}
-		getInteractions().add(interaction);
+		addInteraction(interaction);
 	}
 	
-	public void sortInteractions() {
-		User user = CORE.getUser();
-		Customer customer = user.getCustomer();
-		Module module = customer.getModule(AccountExtension.MODULE_NAME);
-		Document document = module.getDocument(customer, AccountExtension.DOCUMENT_NAME);
-		String collectionBinding = AccountExtension.interactionsPropertyName;
-		Binder.sortCollectionByMetaData(this, customer, module, document, collectionBinding);
-		
-		if (getInteractions().size() > 50) {
-			getInteractions().retainAll(getInteractions().subList(0, 50));
-		}
+	/**
+	 * Add a new interaction without rewriting the existing interactions.
+	 */
+	public void addInteraction(InteractionExtension interaction) {
+		InteractionTimeline.append(this, getInteractions(), getTimeline(), interaction);
+	}
+
+	/**
+	 * Queue a new interaction raised by another document's save, to be linked in the background.
+	 */
+	public void queueInteraction(InteractionExtension interaction) {
+		InteractionWriter.enqueue(this, getInteractions(), getTimeline(), interaction);
+	}
+
+	/**
+	 * Load the latest page of interactions into the timeline.
+	 */
+	public void loadInteractions() {
+		InteractionTimeline.load(this, getInteractions(), getTimeline());
+	}
+
+	/**
+	 * Add the next page of older interactions to the end of the timeline.
+	 * @return	true if there were any older interactions.
+	 */
+	public boolean loadOlderInteractions() {
+		return InteractionTimeline.loadOlder(this, getTimeline());
 	}
 
 	public void geocode() throws Exception{
@@ -24,7 +24,7 @@ public class AccountFactory {
 				.optional(true, true)
 				.required(true, true)
 				.factoryBuild(Account.MODULE_NAME, Account.DOCUMENT_NAME);
-		bean.setAccountManager(ModulesUtil.currentAdminUser().getUserName());
+		bean.setAccountManager(ModulesUtil.currentAdminUserSummary().getUserName());
 		bean.setSelectedTab(0);
 		bean.setAccountName(bean.getPrimaryContact().getLastName());
 		bean.setLine2(null);
@@ -0,0 +1,24 @@
+package modules.customers.Account.actions;
+
+import org.skyve.domain.messages.MessageSeverity;
+import org.skyve.metadata.controller.ServerSideAction;
+import org.skyve.metadata.controller.ServerSideActionResult;
+import org.skyve.web.WebContext;
+
+import modules.customers.Account.AccountExtension;
+
+public class LoadOlderInteractions implements ServerSideAction<AccountExtension> {
+
+	private static final long serialVersionUID = 7672839777343800470L;
+
+	@Override
+	public ServerSideActionResult<AccountExtension> execute(AccountExtension bean, WebContext webContext)
+			throws Exception {
+		// add the next page of older interactions below those already shown
+		if (! bean.loadOlderInteractions()) {
+			webContext.growl(MessageSeverity.info, "There are no older interactions");
+		}
+		return new ServerSideActionResult<>(bean);
+	}
+
+}
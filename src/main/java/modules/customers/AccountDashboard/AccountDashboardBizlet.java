@@ -28,14 +28,8 @@ public class AccountDashboardBizlet extends Bizlet<AccountDashboardExtension> {
 			bean.setNumbers();
 			bean.setDates();
 			bean.setAccountLocation(bean.getAccount().getLocation());	
-			bean.getInteractions().clear();
 			// add up to 4 interactions to the view
-			if (bean.getAccount().getInteractions().size() < 4) {
-				bean.getInteractions().addAll(bean.getAccount().getInteractions());
-			}
-			else {
-				bean.getInteractions().addAll(bean.getAccount().getInteractions().subList(0, 4)); 
-			}
+			bean.loadRecentInteractions();
 		}	
 		super.preRerender(source, bean, webContext);
 	}
@@ -47,12 +41,7 @@ public class AccountDashboardBizlet extends Bizlet<AccountDashboardExtension> {
 			bean.setAccount(bean.getRecentAccount());
 
 			// add up to 4 interactions to the view
-			if (bean.getAccount().getInteractions().size() < 4) {
-				bean.getInteractions().addAll(bean.getAccount().getInteractions());
-			}
-			else {
-				bean.getInteractions().addAll(bean.getAccount().getInteractions().subList(0, 4)); 
-			}
+			bean.loadRecentInteractions();
 		}
 		return super.newInstance(bean);
 	}
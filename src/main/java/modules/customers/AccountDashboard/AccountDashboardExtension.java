@@ -1,7 +1,5 @@
 package modules.customers.AccountDashboard;
 
-import java.util.stream.Collectors;
-
 import org.skyve.CORE;
 import org.skyve.EXT;
 import org.skyve.domain.Bean;
@@ -18,9 +16,12 @@ import org.skyve.util.Util;
 
 import modules.admin.ModulesUtil;
 import modules.customers.Account.AccountExtension;
+import modules.customers.AccountSalesSummary.AccountSalesSummaryService;
 import modules.customers.Interaction.InteractionExtension;
+import modules.customers.Interaction.InteractionTimeline;
 import modules.customers.domain.Account;
 import modules.customers.domain.AccountDashboard;
+import modules.customers.domain.AccountSalesSummary;
 import modules.customers.domain.ContactDetail;
 import modules.customers.domain.Interaction;
 import modules.customers.domain.Interaction.Type;
@@ -71,42 +72,25 @@ public class AccountDashboardExtension extends AccountDashboard {
 	}
 	
 	public void setNumbers() {
-		setNoOpportunity(numberDocuments(Opportunity.MODULE_NAME, Opportunity.DOCUMENT_NAME));
-		setNoQuote(numberDocuments(Quote.MODULE_NAME, Quote.DOCUMENT_NAME));
-		setNoOrder(numberDocuments(Order.MODULE_NAME, Order.DOCUMENT_NAME));
-		setNoInvoice(numberDocuments(Invoice.MODULE_NAME, Invoice.DOCUMENT_NAME));
-	}
-	
-	// returns number of documents for this account
-	public int numberDocuments(String moduleName, String documentName) {
-		Persistence persistence = CORE.getPersistence();
-		DocumentQuery query = persistence.newDocumentQuery(moduleName, documentName);
-		switch (documentName) {
-		case "Opportunity":
-			query.getFilter().addEquals(Binder.createCompoundBinding(Opportunity.accountPropertyName, Bean.DOCUMENT_ID), this.getAccount().getBizId());
-			break;
-		case "Quote":
-			query.getFilter().addEquals(Binder.createCompoundBinding(Quote.accountPropertyName, Bean.DOCUMENT_ID), this.getAccount().getBizId());
-			break;
-		case "Order":
-			query.getFilter().addEquals(Binder.createCompoundBinding(Order.accountPropertyName, Bean.DOCUMENT_ID), this.getAccount().getBizId());
-			break;
-		case "Invoice":
-			query.getFilter().addEquals(Binder.createCompoundBinding(Invoice.accountPropertyName, Bean.DOCUMENT_ID), this.getAccount().getBizId());
-			break;
-		default:
-			break;
+		// read the maintained summary rather than counting the account's documents
+		AccountSalesSummary summary = AccountSalesSummaryService.get(getAccount());
+		if (summary != null) {
+			setNoOpportunity(summary.getOpportunityCount());
+			setNoQuote(summary.getQuoteCount());
+			setNoOrder(summary.getOrderCount());
+			setNoInvoice(summary.getInvoiceCount());
 		}
-		return query.beanResults().size();
+	}
+
+	// shows the account's newest few interactions
+	public void loadRecentInteractions() {
+		getInteractions().clear();
+		getInteractions().addAll(InteractionTimeline.latest(getAccount(), 4));
 	}
 
 	// returns the last interaction made for a document for this account
 	public Interaction lastCreated(String documentName) {
-		Persistence persistence = CORE.getPersistence();
-		DocumentQuery query = persistence.newDocumentQuery(Interaction.MODULE_NAME, Interaction.DOCUMENT_NAME);
-		query.getFilter().addIn(Interaction.DOCUMENT_ID, getAccount().getInteractions().stream()
-				.map(i -> i.getBizId())
-				.collect(Collectors.toList()));
+		DocumentQuery query = InteractionTimeline.query(getAccount());
 		query.getFilter().addEquals(Interaction.typePropertyName, "Other");
 		query.getFilter().addEquals(Interaction.titlePropertyName, "Created New " + documentName);
 		query.addBoundOrdering(Interaction.interactionTimePropertyName, SortDirection.descending);
@@ -115,11 +99,7 @@ public class AccountDashboardExtension extends AccountDashboard {
 	
 	// returns the last auto update interaction
 	public Interaction lastUpdated() {
-		Persistence persistence = CORE.getPersistence();
-		DocumentQuery query = persistence.newDocumentQuery(Interaction.MODULE_NAME, Interaction.DOCUMENT_NAME);
-		query.getFilter().addIn(Interaction.DOCUMENT_ID, getAccount().getInteractions().stream()
-				.map(i -> i.getBizId())
-				.collect(Collectors.toList()));
+		DocumentQuery query = InteractionTimeline.query(getAccount());
 		
 		query.getFilter().addNotEquals(Interaction.typePropertyName, "Other");
 		query.addBoundOrdering(Interaction.interactionTimePropertyName, SortDirection.descending);
@@ -147,7 +127,7 @@ public class AccountDashboardExtension extends AccountDashboard {
 		Persistence persistence = CORE.getPersistence();
 		DocumentQuery query = persistence.newDocumentQuery(Account.MODULE_NAME, Account.DOCUMENT_NAME);
 		query.getFilter().addEquals(Account.accountManagerPropertyName,
-				ModulesUtil.currentAdminUser().getContact().getName());
+				ModulesUtil.currentAdminUserSummary().getContactName());
 		query.addBoundOrdering(Account.LOCK_NAME, SortDirection.descending);
 		return query.beanResult();
 	}
@@ -196,7 +176,7 @@ public class AccountDashboardExtension extends AccountDashboard {
 		if (document != null) {
 			interaction.setDocument(document);
 		}
-		getAccount().getInteractions().add(interaction);
+		getAccount().addInteraction(interaction);
 	}
 	
 	/**
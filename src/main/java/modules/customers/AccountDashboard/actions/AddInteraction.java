@@ -4,10 +4,6 @@ import org.skyve.CORE;
 import org.skyve.domain.messages.ValidationException;
 import org.skyve.metadata.controller.ServerSideAction;
 import org.skyve.metadata.controller.ServerSideActionResult;
-import org.skyve.metadata.customer.Customer;
-import org.skyve.metadata.model.document.Document;
-import org.skyve.metadata.module.Module;
-import org.skyve.metadata.user.User;
 import org.skyve.util.Binder;
 import org.skyve.web.WebContext;
 
@@ -49,23 +45,8 @@ public class AddInteraction implements ServerSideAction<AccountDashboardExtensio
 		account = CORE.getPersistence().save(account);
 		bean.setAccount(account);		
 		
-		// resort account interactions after adding
-		User user = CORE.getUser();
-		Customer customer = user.getCustomer();
-		Module module = customer.getModule(Account.MODULE_NAME);
-		Document document = module.getDocument(customer, Account.DOCUMENT_NAME);
-		String collectionBinding = Account.interactionsPropertyName;
-		Binder.sortCollectionByMetaData(bean.getAccount(), customer, module, document, collectionBinding);
-		
-		// clear current shown interactions then add resorted list
-		bean.getInteractions().clear();
-		
-		if (bean.getAccount().getInteractions().size() < 4) {
-			bean.getInteractions().addAll(bean.getAccount().getInteractions());
-		}
-		else {
-			bean.getInteractions().addAll(bean.getAccount().getInteractions().subList(0, 4)); 
-		}
+		// show the new interaction along with the previous few
+		bean.loadRecentInteractions();
 		
 		
 
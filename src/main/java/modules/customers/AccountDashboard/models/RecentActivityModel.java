@@ -1,8 +1,5 @@
 package modules.customers.AccountDashboard.models;
 
-import java.util.stream.Collectors;
-
-import org.skyve.CORE;
 import org.skyve.metadata.SortDirection;
 import org.skyve.metadata.view.model.chart.ChartBuilder;
 import org.skyve.metadata.view.model.chart.ChartData;
@@ -12,8 +9,8 @@ import org.skyve.metadata.view.model.chart.TemporalBucket;
 import org.skyve.metadata.view.model.chart.TemporalBucket.TemporalBucketType;
 import org.skyve.persistence.DocumentQuery;
 import org.skyve.persistence.DocumentQuery.AggregateFunction;
-import org.skyve.persistence.Persistence;
 import modules.customers.AccountDashboard.AccountDashboardExtension;
+import modules.customers.Interaction.InteractionTimeline;
 import modules.customers.domain.Interaction;
 
 public class RecentActivityModel extends ChartModel<AccountDashboardExtension> {
@@ -23,12 +20,7 @@ public class RecentActivityModel extends ChartModel<AccountDashboardExtension> {
 	@Override
 	public ChartData getChartData() {
 		
-		Persistence persistence = CORE.getPersistence();
-		
-		DocumentQuery query = persistence.newDocumentQuery(Interaction.MODULE_NAME, Interaction.DOCUMENT_NAME);
-		query.getFilter().addIn(Interaction.DOCUMENT_ID, getBean().getAccount().getInteractions().stream()
-				.map(i -> i.getBizId())
-				.collect(Collectors.toList()));
+		DocumentQuery query = InteractionTimeline.query(getBean().getAccount());
 		
 		ChartBuilder cb = new ChartBuilder();
 		
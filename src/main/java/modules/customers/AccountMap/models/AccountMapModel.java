@@ -1,74 +1,77 @@
 package modules.customers.AccountMap.models;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import org.locationtech.jts.geom.Geometry;
 import org.skyve.CORE;
-import org.skyve.metadata.view.model.map.MapFeature;
-import org.skyve.metadata.view.model.map.MapItem;
-import org.skyve.metadata.view.model.map.MapModel;
-import org.skyve.metadata.view.model.map.MapResult;
+import org.skyve.domain.Bean;
 import org.skyve.persistence.DocumentQuery;
-import org.skyve.persistence.Persistence;
+import org.skyve.util.Binder;
 
 import modules.admin.ModulesUtil;
 import modules.customers.domain.Account;
 import modules.customers.domain.AccountMap;
+import modules.customers.domain.ContactDetail;
+import modules.customers.service.ViewportMapModel;
 
-public class AccountMapModel extends MapModel<AccountMap> {
+public class AccountMapModel extends ViewportMapModel<AccountMap> {
 
 	private static final long serialVersionUID = -2579086300708483513L;
 
+	private static final String FIRST_NAME = "primaryContactFirstName";
+	private static final String LAST_NAME = "primaryContactLastName";
+
 	@Override
-	public MapResult getResult(Geometry mapBounds) throws Exception {
-		Persistence persistence = CORE.getPersistence();
-		DocumentQuery qMyAccounts = persistence.newDocumentQuery(Account.MODULE_NAME, Account.DOCUMENT_NAME);
-		qMyAccounts.getFilter().addEquals(Account.accountManagerPropertyName, ModulesUtil.currentAdminUser().getUserName());
-		List<Account> accounts = qMyAccounts.beanResults();
-		List<MapItem> items = new ArrayList<>();
-		
-		for(Account account : accounts) {
-			MapItem item = new MapItem();
-			item.setBizId(account.getBizId());
-			item.setModuleName(account.getBizModule());
-			item.setDocumentName(account.getBizDocument());
-			
-			MapFeature location = new MapFeature();
-			location.setGeometry(account.getLocation());
-			item.getFeatures().add(location);
-			
-			
-			StringBuilder markup = new StringBuilder();
-			markup.append("<div><h2>").append(account.getAccountName()).append("</h2>");
-			if (account.getWebsite() != null) {
-				markup.append("<span><b>Website: </b><i><a href=//").append(account.getWebsite()).append(">").append(account.getWebsite()).append("</a></i></br></span>");
-			}			
-			markup.append("<span><b>Primary Contact: </b>").append(account.getPrimaryContact().getFirstName()).append(" ")
-					.append(account.getPrimaryContact().getLastName()).append("</br></span>");
-			if (account.getEmail() != null) {
-				markup.append("<span><b>Email: </b>").append(account.getEmail()).append("</br></span>");
-			}
-			if (account.getPhone() != null) {
-				markup.append("<span><b>Phone: </b>").append(account.getPhone()).append("</br></span>");
-			}
-			if (account.getRelationshipType() != null) {
-				markup.append("<span><b>Relationship Type: </b>").append(account.getRelationshipType()).append("</br></span>");
-			}
-			
-			markup.append("</span></div>");
-			item.setInfoMarkup(markup.toString());
-			
-			
-			
-			items.add(item);
-		}
-		
-		// TODO: info markup
-		
-		
-		
-		return new MapResult(items, null);
+	protected DocumentQuery newQuery() {
+		DocumentQuery qMyAccounts = CORE.getPersistence().newDocumentQuery(Account.MODULE_NAME, Account.DOCUMENT_NAME);
+		qMyAccounts.getFilter().addEquals(Account.accountManagerPropertyName, ModulesUtil.currentAdminUserSummary().getUserName());
+		return qMyAccounts;
+	}
+
+	@Override
+	protected String getGeometryBinding() {
+		return Account.locationPropertyName;
+	}
+
+	@Override
+	protected String getPluralAlias() {
+		return "Accounts";
+	}
+
+	@Override
+	protected void addInfoProjections(DocumentQuery query) {
+		query.addBoundProjection(Account.accountNamePropertyName);
+		query.addBoundProjection(Account.websitePropertyName);
+		query.addBoundProjection(Account.emailPropertyName);
+		query.addBoundProjection(Account.phonePropertyName);
+		query.addBoundProjection(Account.relationshipTypePropertyName);
+		// join the primary contact into the same query rather than loading each one
+		query.addBoundProjection(Binder.createCompoundBinding(Account.primaryContactPropertyName, ContactDetail.firstNamePropertyName), FIRST_NAME);
+		query.addBoundProjection(Binder.createCompoundBinding(Account.primaryContactPropertyName, ContactDetail.lastNamePropertyName), LAST_NAME);
 	}
 
+	@Override
+	protected String infoMarkup(Bean row) {
+		Object website = Binder.get(row, Account.websitePropertyName);
+		Object email = Binder.get(row, Account.emailPropertyName);
+		Object phone = Binder.get(row, Account.phonePropertyName);
+		Object relationshipType = Binder.get(row, Account.relationshipTypePropertyName);
+
+		StringBuilder markup = new StringBuilder();
+		markup.append("<div><h2>").append(Binder.get(row, Account.accountNamePropertyName)).append("</h2>");
+		if (website != null) {
+			markup.append("<span><b>Website: </b><i><a href=//").append(website).append(">").append(website).append("</a></i></br></span>");
+		}
+		markup.append("<span><b>Primary Contact: </b>").append(Binder.get(row, FIRST_NAME)).append(" ")
+				.append(Binder.get(row, LAST_NAME)).append("</br></span>");
+		if (email != null) {
+			markup.append("<span><b>Email: </b>").append(email).append("</br></span>");
+		}
+		if (phone != null) {
+			markup.append("<span><b>Phone: </b>").append(phone).append("</br></span>");
+		}
+		if (relationshipType != null) {
+			markup.append("<span><b>Relationship Type: </b>").append(relationshipType).append("</br></span>");
+		}
+
+		markup.append("</span></div>");
+		return markup.toString();
+	}
 }
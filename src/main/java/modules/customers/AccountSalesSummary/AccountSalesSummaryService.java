@@ -0,0 +1,174 @@
+package modules.customers.AccountSalesSummary;
+
+import java.util.Date;
+import java.util.List;
+
+import org.skyve.CORE;
+import org.skyve.domain.Bean;
+import org.skyve.domain.PersistentBean;
+import org.skyve.domain.types.DateTime;
+import org.skyve.persistence.Persistence;
+import org.skyve.persistence.SQL;
+
+import modules.customers.domain.Account;
+import modules.customers.domain.AccountSalesSummary;
+import modules.customers.domain.Interaction;
+import modules.sales.domain.Invoice;
+import modules.sales.domain.Opportunity;
+import modules.sales.domain.Order;
+import modules.sales.domain.Quote;
+
+/**
+ * Maintains the {@link AccountSalesSummary} for each account.
+ * <p>
+ * A summary shares its bizId with its account so the Account Dashboard can read it by primary key.
+ * The sales document bizlets call {@link #refresh(Account)} after each save or delete,
+ * which recalculates the one affected account with aggregate queries rather than loading its documents.
+ * A document moved to another account refreshes the account it was moved from as well, see {@link #movedFrom}.
+ * Anything missed (such as changes that bypass the bizlets) is corrected by {@link RebuildAccountSalesSummariesJob}.
+ */
+public final class AccountSalesSummaryService {
+	private static final String ACCOUNT_ID_PARAMETER = "accountId";
+
+	private static final String AGGREGATE_SQL = String.format("select %s, %s, %s, %s, %s, %s",
+																count("SAL_Opportunity", Opportunity.accountPropertyName),
+																count("SAL_Quote", Quote.accountPropertyName),
+																count("SAL_Order", Order.accountPropertyName),
+																count("SAL_Invoice", Invoice.accountPropertyName),
+																aggregate("sum", Invoice.totalPropertyName, "SAL_Invoice", Invoice.accountPropertyName),
+																lastInteraction());
+
+	private static final String DELETE_SQL = String.format("delete from CUS_AccountSalesSummary where %s = :%s and %s = :%s",
+																Bean.DOCUMENT_ID,
+																ACCOUNT_ID_PARAMETER,
+																Bean.CUSTOMER_NAME,
+																Bean.CUSTOMER_NAME);
+
+	private AccountSalesSummaryService() {
+		// static methods only
+	}
+
+	private static String count(String tableName, String accountPropertyName) {
+		return aggregate("count", "*", tableName, accountPropertyName);
+	}
+
+	private static String aggregate(String function, String column, String tableName, String accountPropertyName) {
+		return String.format("(select %s(%s) from %s where %s = :%s and %s_id = :%s)",
+								function,
+								column,
+								tableName,
+								Bean.CUSTOMER_NAME,
+								Bean.CUSTOMER_NAME,
+								accountPropertyName,
+								ACCOUNT_ID_PARAMETER);
+	}
+
+	private static String lastInteraction() {
+		// include interactions still queued to be linked to the account
+		return String.format("(select max(i.%s) from CUS_Interaction i where i.%s = :%s or i.%s in (select ai.element_id from CUS_Account_interactions ai where ai.owner_id = :%s))",
+								Interaction.interactionTimePropertyName,
+								Interaction.pendingOwnerIdPropertyName,
+								ACCOUNT_ID_PARAMETER,
+								Bean.DOCUMENT_ID,
+								ACCOUNT_ID_PARAMETER);
+	}
+
+	/**
+	 * Get the summary for an account, calculating it if it does not exist yet.
+	 *
+	 * @param account	The account.
+	 * @return	The summary, or null if there is no account.
+	 */
+	public static AccountSalesSummary get(Account account) {
+		if (account == null) {
+			return null;
+		}
+
+		AccountSalesSummary result = CORE.getPersistence().retrieve(AccountSalesSummary.MODULE_NAME,
+																		AccountSalesSummary.DOCUMENT_NAME,
+																		account.getBizId());
+		if (result == null) {
+			result = refresh(account);
+		}
+		return result;
+	}
+
+	/**
+	 * Recalculate and store the summary for an account.
+	 * The summary tuple is upserted directly so that concurrent saves on the same account
+	 * do not contend for an optimistic lock.
+	 *
+	 * @param account	The account to summarise.
+	 * @return	The refreshed summary, or null if there is no account or it has not been saved yet.
+	 */
+	public static AccountSalesSummary refresh(Account account) {
+		if ((account == null) || account.isNotPersisted()) {
+			return null;
+		}
+
+		Persistence persistence = CORE.getPersistence();
+		SQL sql = persistence.newSQL(AGGREGATE_SQL);
+		sql.putParameter(Bean.CUSTOMER_NAME, account.getBizCustomer(), false);
+		sql.putParameter(ACCOUNT_ID_PARAMETER, account.getBizId(), false);
+		List<Object[]> rows = sql.tupleResults();
+		Object[] row = rows.get(0);
+
+		AccountSalesSummary result = AccountSalesSummary.newInstance();
+		result.setBizId(account.getBizId());
+		// the summary is visible to whoever can see the account
+		result.setBizDataGroupId(account.getBizDataGroupId());
+		result.setBizUserId(account.getBizUserId());
+		result.setOpportunityCount(Integer.valueOf(intValue(row[0])));
+		result.setQuoteCount(Integer.valueOf(intValue(row[1])));
+		result.setOrderCount(Integer.valueOf(intValue(row[2])));
+		result.setInvoiceCount(Integer.valueOf(intValue(row[3])));
+		result.setInvoiceTotal(Long.valueOf((row[4] == null) ? 0L : ((Number) row[4]).longValue()));
+		if (row[5] instanceof Date) {
+			result.setLastInteractionTime(new DateTime(((Date) row[5]).getTime()));
+		}
+
+		result.setRefreshed(new DateTime());
+
+		persistence.upsertBeanTuple(result);
+		return result;
+	}
+
+	/**
+	 * The account a saved sales document was moved from, so that its summary can be refreshed as well.
+	 *
+	 * @param document	The saved sales document.
+	 * @param accountPropertyName	The name of the document's account association.
+	 * @param account	The document's account now.
+	 * @return	The account the document had before it was saved, or null if its account has not changed.
+	 */
+	public static Account movedFrom(PersistentBean document, String accountPropertyName, Account account) {
+		Object original = document.originalValues().get(accountPropertyName);
+		if (original instanceof Account) {
+			Account result = (Account) original;
+			if ((account == null) || (! account.getBizId().equals(result.getBizId()))) {
+				return result;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Remove the summary for an account that is being deleted.
+	 *
+	 * @param account	The account.
+	 */
+	public static void delete(Account account) {
+		if ((account == null) || account.isNotPersisted()) {
+			return;
+		}
+
+		SQL sql = CORE.getPersistence().newSQL(DELETE_SQL);
+		sql.putParameter(Bean.CUSTOMER_NAME, account.getBizCustomer(), false);
+		sql.putParameter(ACCOUNT_ID_PARAMETER, account.getBizId(), false);
+		sql.execute();
+	}
+
+	private static int intValue(Object value) {
+		return (value == null) ? 0 : ((Number) value).intValue();
+	}
+}
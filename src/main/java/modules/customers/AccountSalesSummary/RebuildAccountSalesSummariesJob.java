@@ -0,0 +1,69 @@
+package modules.customers.AccountSalesSummary;
+
+import java.util.Date;
+import java.util.List;
+
+import org.skyve.CORE;
+import org.skyve.domain.Bean;
+import org.skyve.job.Job;
+import org.skyve.persistence.DocumentQuery;
+import org.skyve.persistence.Persistence;
+
+import modules.customers.domain.Account;
+
+/**
+ * Recalculates the sales summary of every account to correct any drift
+ * from the incremental maintenance done by the sales document bizlets.
+ */
+public class RebuildAccountSalesSummariesJob extends Job {
+	private static final int COMMIT_SIZE = 100;
+
+	private volatile boolean cancelled = false;
+
+	@Override
+	public String cancel() {
+		cancelled = true;
+		return null;
+	}
+
+	@Override
+	public void execute() throws Exception {
+		List<String> log = getLog();
+		log.add("Started Account Sales Summary Rebuild Job at " + new Date());
+
+		// load the ids up front so that committing each chunk cannot invalidate an open cursor
+		Persistence pers = CORE.getPersistence();
+		DocumentQuery q = pers.newDocumentQuery(Account.MODULE_NAME, Account.DOCUMENT_NAME);
+		q.addBoundProjection(Bean.DOCUMENT_ID);
+		List<String> accountIds = q.scalarResults(String.class);
+		int size = accountIds.size();
+
+		int processed = 0;
+		int failed = 0;
+		for (String accountId : accountIds) {
+			if (cancelled) {
+				log.add("Cancelled after " + processed + " accounts");
+				break;
+			}
+			try {
+				Account account = pers.retrieve(Account.MODULE_NAME, Account.DOCUMENT_NAME, accountId);
+				AccountSalesSummaryService.refresh(account);
+			}
+			catch (Exception e) {
+				failed++;
+				log.add(String.format("Summary for account %s failed - %s", accountId, e.getMessage()));
+			}
+			processed++;
+			if ((processed % COMMIT_SIZE) == 0) {
+				pers.commit(false);
+				pers.evictAllCached();
+				pers.begin();
+			}
+			setPercentComplete((int) (((float) processed) / ((float) size) * 100F));
+		}
+
+		setPercentComplete(100);
+		log.add(String.format("Finished Account Sales Summary Rebuild Job at %s - %d accounts processed, %d failed",
+								new Date(), Integer.valueOf(processed), Integer.valueOf(failed)));
+	}
+}
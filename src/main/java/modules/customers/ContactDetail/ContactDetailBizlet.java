@@ -19,7 +19,7 @@ public class ContactDetailBizlet extends Bizlet<ContactDetailExtension> {
 				bean.updateInteraction();
 			}
 		}
-		bean.getNewInteractions();
+		bean.loadInteractions();
 		return super.preExecute(actionName, bean, parentBean, webContext);
 	}
 	
@@ -1,13 +1,9 @@
 package modules.customers.ContactDetail;
 
-import org.skyve.CORE;
-import org.skyve.metadata.customer.Customer;
-import org.skyve.metadata.model.document.Document;
-import org.skyve.metadata.module.Module;
-import org.skyve.metadata.user.User;
-import org.skyve.util.Binder;
 
 import modules.customers.Interaction.InteractionExtension;
+import modules.customers.Interaction.InteractionTimeline;
+import modules.customers.Interaction.InteractionWriter;
 import modules.customers.domain.ContactDetail;
 import modules.customers.domain.Interaction;
 import modules.customers.domain.Interaction.Type;
@@ -21,7 +17,7 @@ public class ContactDetailExtension extends ContactDetail {
 		interaction.setTitle("Updated Contact");
 		interaction.setType(Type.other);
 		interaction.setDescription(interaction.getUser().getContact().getName() + " updated the contact details for " + getFirstName() + " " + getLastName());
-		getInteractions().add(interaction);
+		addInteraction(interaction);
 	}
 
 	public void createInteraction() {
@@ -29,7 +25,7 @@ public class ContactDetailExtension extends ContactDetail {
 		interaction.setTitle("Created New Contact");
 		interaction.setType(Type.other);
 		interaction.setDescription(interaction.getUser().getContact().getName() + " created a new contact.");
-		getInteractions().add(interaction);
+		addInteraction(interaction);
 	}
 	
 	public void createInteraction(final Type type, final String description, final String document) {
@@ -40,19 +36,35 @@ public class ContactDetailExtension extends ContactDetail {
 		if (document != null) {
 			interaction.setDocument(document);
 		}		
-		getInteractions().add(interaction);
+		addInteraction(interaction);
 	}
 	
-	public void getNewInteractions() {
-		User user = CORE.getUser();
-		Customer customer = user.getCustomer();
-		Module module = customer.getModule(ContactDetail.MODULE_NAME);
-		Document document = module.getDocument(customer, ContactDetail.DOCUMENT_NAME);
-		String collectionBinding = ContactDetail.interactionsPropertyName;
-		Binder.sortCollectionByMetaData(this, customer, module, document, collectionBinding);
-		
-		if (getInteractions().size() > 50) {
-			getInteractions().retainAll(getInteractions().subList(0, 50));
-		}		
+	/**
+	 * Add a new interaction without rewriting the existing interactions.
+	 */
+	public void addInteraction(InteractionExtension interaction) {
+		InteractionTimeline.append(this, getInteractions(), getTimeline(), interaction);
+	}
+
+	/**
+	 * Queue a new interaction raised by another document's save, to be linked in the background.
+	 */
+	public void queueInteraction(InteractionExtension interaction) {
+		InteractionWriter.enqueue(this, getInteractions(), getTimeline(), interaction);
+	}
+
+	/**
+	 * Load the latest page of interactions into the timeline.
+	 */
+	public void loadInteractions() {
+		InteractionTimeline.load(this, getInteractions(), getTimeline());
+	}
+
+	/**
+	 * Add the next page of older interactions to the end of the timeline.
+	 * @return	true if there were any older interactions.
+	 */
+	public boolean loadOlderInteractions() {
+		return InteractionTimeline.loadOlder(this, getTimeline());
 	}
 }
@@ -5,11 +5,6 @@ import org.skyve.domain.messages.Message;
 import org.skyve.domain.messages.ValidationException;
 import org.skyve.metadata.controller.ServerSideAction;
 import org.skyve.metadata.controller.ServerSideActionResult;
-import org.skyve.metadata.customer.Customer;
-import org.skyve.metadata.model.document.Document;
-import org.skyve.metadata.module.Module;
-import org.skyve.metadata.user.User;
-import org.skyve.util.Binder;
 import org.skyve.web.WebContext;
 
 import modules.customers.ContactDetail.ContactDetailExtension;
@@ -37,22 +32,9 @@ public class AddInteraction implements ServerSideAction<ContactDetailExtension>
 		bean.setInteractionDescription(null);
 		bean.setInteractionType(null);
 		bean.setDocument(null);
-		
-		
-		
-		User user = CORE.getUser();
-		Customer customer = user.getCustomer();
-		Module module = customer.getModule(ContactDetail.MODULE_NAME);
-		Document document = module.getDocument(customer, ContactDetail.DOCUMENT_NAME);
-		String collectionBinding = ContactDetail.interactionsPropertyName;
-		Binder.sortCollectionByMetaData(bean, customer, module, document, collectionBinding);
-		
-		// keep only the newest interactions
-		if (bean.getInteractions().size() > 50) {
-			bean.getInteractions().retainAll(bean.getInteractions().subList(0, 50));
-		}
 
 		bean = CORE.getPersistence().save(bean);
+		bean.loadInteractions();
 		return new ServerSideActionResult<>(bean);
 	}
 }
@@ -0,0 +1,24 @@
+package modules.customers.ContactDetail.actions;
+
+import org.skyve.domain.messages.MessageSeverity;
+import org.skyve.metadata.controller.ServerSideAction;
+import org.skyve.metadata.controller.ServerSideActionResult;
+import org.skyve.web.WebContext;
+
+import modules.customers.ContactDetail.ContactDetailExtension;
+
+public class LoadOlderInteractions implements ServerSideAction<ContactDetailExtension> {
+
+	private static final long serialVersionUID = -552584733265133295L;
+
+	@Override
+	public ServerSideActionResult<ContactDetailExtension> execute(ContactDetailExtension bean, WebContext webContext)
+			throws Exception {
+		// add the next page of older interactions below those already shown
+		if (! bean.loadOlderInteractions()) {
+			webContext.growl(MessageSeverity.info, "There are no older interactions");
+		}
+		return new ServerSideActionResult<>(bean);
+	}
+
+}
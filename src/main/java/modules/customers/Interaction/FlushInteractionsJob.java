@@ -0,0 +1,54 @@
+package modules.customers.Interaction;
+
+import java.util.Date;
+import java.util.List;
+
+import org.skyve.CORE;
+import org.skyve.job.Job;
+import org.skyve.persistence.Persistence;
+
+/**
+ * Links interactions queued by {@link InteractionWriter} to their Account or ContactDetail,
+ * committing after each batch.
+ * <p>
+ * Started by the writer as interactions are queued; it can also be scheduled
+ * to pick up anything queued before a restart or during quiet periods.
+ */
+public class FlushInteractionsJob extends Job {
+	private volatile boolean cancelled = false;
+
+	@Override
+	public String cancel() {
+		cancelled = true;
+		return null;
+	}
+
+	@Override
+	public void execute() throws Exception {
+		List<String> log = getLog();
+		Persistence pers = CORE.getPersistence();
+
+		int processed = 0;
+		try {
+			int batch = InteractionWriter.flushBatch();
+			while (batch > 0) {
+				processed += batch;
+				pers.commit(false);
+				pers.evictAllCached();
+				pers.begin();
+
+				if (cancelled) {
+					log.add("Cancelled after " + processed + " interactions");
+					break;
+				}
+				batch = InteractionWriter.flushBatch();
+			}
+		}
+		finally {
+			InteractionWriter.flushed();
+		}
+
+		setPercentComplete(100);
+		log.add(String.format("Finished Flush Interactions Job at %s - %d queued interactions processed", new Date(), Integer.valueOf(processed)));
+	}
+}
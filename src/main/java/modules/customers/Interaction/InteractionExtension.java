@@ -1,6 +1,10 @@
 package modules.customers.Interaction;
 
-import java.text.SimpleDateFormat;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.skyve.util.Util;
 
@@ -9,64 +13,80 @@ import modules.customers.domain.Interaction;
 public class InteractionExtension extends Interaction {
 
 	private static final long serialVersionUID = 7036377442570071671L;
-	private static final SimpleDateFormat sdf = new SimpleDateFormat("hh:mm a, dd/MM/yy");
+	private static final DateTimeFormatter INTERACTION_TIME_FORMAT = DateTimeFormatter.ofPattern("hh:mm a, dd/MM/yy");
+
+	/**
+	 * The markup of an interaction - URL, icon, title, description, time and author.
+	 * The styles are in pages/css/interactions.css, loaded once by the interaction views.
+	 */
+	private static final String TEMPLATE = "<div class='interaction' onclick=\"location.href='%s';\">"
+			+ "<div class='interaction-icon'><span class='%s'></span></div>"
+			+ "<div class='interaction-info'><span class='interaction-title'> %s</span></br>"
+			+ "<p class='interaction-description'> %s</p></div>"
+			+ "<div class='interaction-dateAuth'><span class='interaction-date'>%s</span></br>"
+			+ "<span class='interaction-author'> %s</span></div></div>";
+
+	/**
+	 * The most rendered interactions kept.
+	 */
+	private static final int MAX_CACHED_MARKUP = 5000;
+
+	/**
+	 * Rendered markup by interaction bizId, with the bizVersion it was rendered from
+	 * so that a saved change renders it again. Interactions with unsaved changes are not cached.
+	 */
+	private static final Map<String, Object[]> MARKUP = Collections.synchronizedMap(new LinkedHashMap<String, Object[]>(256, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Object[]> eldest) {
+			return size() > MAX_CACHED_MARKUP;
+		}
+	});
 
 	@Override
 	public String getInteractionTemplate() {
-		String type = getType().toString();
-		switch (type) {
-		case "email":
-			type = "fa fa-envelope";
-			break;
-		case "phone":
-			type = "fa fa-phone";
-			break;
-		case "meeting":
-			type = "fa fa-users";
-			break;
-		case "socialMedia":
-			type = "fa fa-share-alt-square";
-			break;
-		case "comment":
-			type = "fa fa-comment";
-			break;
-		case "upload":
-			type = "fa fa-file";
-			break;
-		case "other":
-			type = "fa fa-info-circle";
-			break;
-		default:
-			break;
+		Integer version = isChanged() ? null : getBizVersion();
+		if (version != null) {
+			Object[] cached = MARKUP.get(getBizId());
+			if ((cached != null) && version.equals(cached[0])) {
+				return (String) cached[1];
+			}
 		}
 
-		StringBuilder markup = new StringBuilder();
-		markup.append("<style>" + ".container {\r\n" + "	overflow: hidden;\r\n"
-				+ "	border-left: 4px solid #007ad9;	\r\n" + "}\r\n" + ".container:hover {\r\n"
-				+ "	border-left: 4px solid #007ad9;\r\n" + "	background-color: rgba(0, 122, 217, 0.2);\r\n"
-				+ "	cursor: pointer;\r\n" + "}\r\n" + "\r\n" + ".infoTemp {\r\n" + "  	float: left;\r\n"
-				+ "  	text-align: left;\r\n" + "  	width: 60%;\r\n" + "  	margin-left: 10px;\r\n"
-				+ "  	line-height: 30px;\r\n" + "}\r\n" + "\r\n" + ".dateAuth {\r\n" + "  	float: left;\r\n"
-				+ "  	line-height: 30px;\r\n" + "  	text-align: end;\r\n" + "}\r\n" + ".iconTemp {\r\n"
-				+ " 	float: left;\r\n" + "  	margin-top: 20px;\r\n" + "  	text-align: center;\r\n"
-				+ "  	width: 10%;\r\n" + "  	font-size: 25px;\r\n" + "}\r\n" + "\r\n" + ".titleTemp {\r\n"
-				+ "  	font-weight: bold;\r\n" + "}\r\n" + "\r\n" + ".descriptionTemp {\r\n"
-				+ "  	font-style: italic;\r\n" + "  	color: grey;\r\n" + "}\r\n" + "\r\n" + ".dateTemp {\r\n"
-				+ "  	color: grey;\r\n" + "}\r\n" + "\r\n" + ".authorTemp {\r\n" + "  	color: grey;\r\n" + "}"
-				+ "</style>");
-		markup.append("<div class='container' onclick=\"location.href='"+ Util.getDocumentUrl(this) +"';\">"
-				+ "<div class='iconTemp'><span class='"+ type +"'></span></div>");
-		markup.append("<div class='infoTemp'><span class='titleTemp'> ").append(getTitle());
-		markup.append("</span></br><p class='descriptionTemp'> ");
-		if(getDescription()!=null) {
-			markup.append(getDescription());
+		String markup = String.format(TEMPLATE,
+										Util.getDocumentUrl(this),
+										icon(),
+										getTitle(),
+										(getDescription() == null) ? "" : getDescription(),
+										(getInteractionTime() == null) ?
+											"" :
+											INTERACTION_TIME_FORMAT.format(getInteractionTime().toInstant().atZone(ZoneId.systemDefault())),
+										getUser().getContact().getName());
+		if (version != null) {
+			MARKUP.put(getBizId(), new Object[] {version, markup});
+		}
+		return markup;
+	}
+
+	private String icon() {
+		switch (getType()) {
+		case email:
+			return "fa fa-envelope";
+		case phone:
+			return "fa fa-phone";
+		case meeting:
+			return "fa fa-users";
+		case socialMedia:
+			return "fa fa-share-alt-square";
+		case comment:
+			return "fa fa-comment";
+		case upload:
+			return "fa fa-file";
+		case other:
+			return "fa fa-info-circle";
+		default:
+			return getType().toString();
 		}
-		markup.append("</p></div><div class='dateAuth'><span class='dateTemp'>").append(sdf.format(getInteractionTime()));
-		markup.append("</span></br><span class='authorTemp'> ").append(getUser().getContact().getName());
-		markup.append("</span></div></div>");
-			
-		
-		return markup.toString();		
 	}
-	
 }
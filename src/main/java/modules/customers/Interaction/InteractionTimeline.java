@@ -0,0 +1,257 @@
+package modules.customers.Interaction;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.skyve.CORE;
+import org.skyve.domain.Bean;
+import org.skyve.domain.PersistentBean;
+import org.skyve.metadata.customer.Customer;
+import org.skyve.metadata.model.document.Document;
+import org.skyve.persistence.BizQL;
+import org.skyve.persistence.DocumentQuery;
+import org.skyve.persistence.Persistence;
+import org.skyve.persistence.SQL;
+
+import modules.customers.domain.Account;
+import modules.customers.domain.Interaction;
+
+/**
+ * Reads and appends to the interaction history of an Account or ContactDetail
+ * without loading or rewriting the owner's whole interactions collection.
+ * <p>
+ * Pages are ordered and limited by the database, newest first, so only the interactions
+ * shown are hydrated. Older interactions are never removed; they stay in the database
+ * and are fetched a page at a time when asked for.
+ */
+public final class InteractionTimeline {
+	/**
+	 * The number of interactions shown initially and added by each request for older interactions.
+	 */
+	public static final int PAGE_SIZE = 50;
+
+	private static final String OWNER_ID_PARAMETER = "ownerId";
+
+	private InteractionTimeline() {
+		// static methods only
+	}
+
+	/**
+	 * Get an owner's newest interactions, including any still queued by {@link InteractionWriter}.
+	 * The newest of the queued and the linked interactions are each read up to the maximum and merged by interaction time.
+	 * Older interactions are paged with {@link #loadOlder(PersistentBean, List)}.
+	 *
+	 * @param owner	The Account or ContactDetail.
+	 * @param max	The maximum number of interactions to return.
+	 * @return	The interactions, newest first, or an empty list if the owner has not been saved yet.
+	 */
+	public static List<InteractionExtension> latest(PersistentBean owner, int max) {
+		List<InteractionExtension> result = new ArrayList<>(max);
+		if ((owner == null) || owner.isNotPersisted()) {
+			return result;
+		}
+
+		List<InteractionExtension> pending = pending(owner, max);
+		List<InteractionExtension> linked = linked(owner, 0, max);
+		int p = 0;
+		int l = 0;
+		while ((result.size() < max) && ((p < pending.size()) || (l < linked.size()))) {
+			if ((l == linked.size()) || ((p < pending.size()) && (! isOlder(pending.get(p), linked.get(l))))) {
+				result.add(pending.get(p++));
+			}
+			else {
+				result.add(linked.get(l++));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return	true if the first interaction took place before the second, with interactions without a time the oldest.
+	 */
+	private static boolean isOlder(Interaction first, Interaction second) {
+		Date firstTime = first.getInteractionTime();
+		Date secondTime = second.getInteractionTime();
+		if (firstTime == null) {
+			return (secondTime != null);
+		}
+		return (secondTime != null) && firstTime.before(secondTime);
+	}
+
+	/**
+	 * Get a page of the interactions in an owner's collection, newest first.
+	 */
+	private static List<InteractionExtension> linked(PersistentBean owner, int first, int max) {
+		BizQL q = CORE.getPersistence().newBizQL(String.format("select i from {%s.%s} as o inner join o.%s as i where o.%s = :%s order by i.%s desc",
+																owner.getBizModule(),
+																owner.getBizDocument(),
+																Account.interactionsPropertyName,
+																Bean.DOCUMENT_ID,
+																OWNER_ID_PARAMETER,
+																Interaction.interactionTimePropertyName));
+		q.putParameter(OWNER_ID_PARAMETER, owner.getBizId());
+		q.setFirstResult(first);
+		q.setMaxResults(max);
+		return q.beanResults();
+	}
+
+	/**
+	 * Get the newest interactions queued for an owner that the writer has not linked yet, newest first.
+	 */
+	private static List<InteractionExtension> pending(PersistentBean owner, int max) {
+		BizQL q = CORE.getPersistence().newBizQL(String.format("select i from {%s.%s} as i where i.%s = :%s order by i.%s desc",
+																Interaction.MODULE_NAME,
+																Interaction.DOCUMENT_NAME,
+																Interaction.pendingOwnerIdPropertyName,
+																OWNER_ID_PARAMETER,
+																Interaction.interactionTimePropertyName));
+		q.putParameter(OWNER_ID_PARAMETER, owner.getBizId());
+		q.setMaxResults(max);
+		return q.beanResults();
+	}
+
+	/**
+	 * Replace the timeline with the latest interactions, keeping the number already shown.
+	 *
+	 * @param owner	The Account or ContactDetail.
+	 * @param interactions	The owner's persistent interactions collection.
+	 * @param timeline	The owner's non-persistent timeline collection.
+	 */
+	public static void load(PersistentBean owner, List<InteractionExtension> interactions, List<InteractionExtension> timeline) {
+		int size = Math.max(timeline.size(), PAGE_SIZE);
+		timeline.clear();
+		if (owner.isNotPersisted()) {
+			// interactions of an unsaved owner are only in its collection
+			timeline.addAll(interactions);
+		}
+		else {
+			timeline.addAll(latest(owner, size));
+		}
+	}
+
+	/**
+	 * Add the next page of older interactions to the end of the timeline.
+	 *
+	 * @param owner	The Account or ContactDetail.
+	 * @param timeline	The owner's non-persistent timeline collection.
+	 * @return	true if there were any older interactions.
+	 */
+	public static boolean loadOlder(PersistentBean owner, List<InteractionExtension> timeline) {
+		if (owner.isNotPersisted()) {
+			return false;
+		}
+
+		// queued interactions are not part of the linked collection being paged
+		Set<String> shown = new TreeSet<>();
+		int linkedCount = 0;
+		for (InteractionExtension interaction : timeline) {
+			shown.add(interaction.getBizId());
+			if (interaction.getPendingOwnerId() == null) {
+				linkedCount++;
+			}
+		}
+
+		boolean result = false;
+		for (InteractionExtension interaction : linked(owner, linkedCount, PAGE_SIZE)) {
+			// skip any queued interactions that have been linked since they were shown
+			if (shown.add(interaction.getBizId())) {
+				timeline.add(interaction);
+				result = true;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Add a new interaction to an owner.
+	 * <p>
+	 * For a saved owner the interaction is saved and linked with a single row insert into the
+	 * collection's joining table, so the owner and its existing interactions are not touched.
+	 * An unsaved owner has no rows to link to yet, so the interaction is added to its collection
+	 * and saved along with it.
+	 *
+	 * @param owner	The Account or ContactDetail.
+	 * @param interactions	The owner's persistent interactions collection.
+	 * @param timeline	The owner's non-persistent timeline collection.
+	 * @param interaction	The new interaction.
+	 */
+	public static void append(PersistentBean owner,
+								List<InteractionExtension> interactions,
+								List<InteractionExtension> timeline,
+								InteractionExtension interaction) {
+		InteractionExtension result = interaction;
+		if (owner.isNotPersisted()) {
+			interactions.add(result);
+		}
+		else {
+			result = CORE.getPersistence().save(result);
+			link(owner, result);
+		}
+		timeline.add(0, result);
+	}
+
+	/**
+	 * Get a query over all of an owner's interactions, linked or still queued, to be filtered, ordered or aggregated further.
+	 * The owner is matched with an exists subquery on its collection rather than a list of bizIds,
+	 * so the statement stays the same size however many interactions the owner has.
+	 *
+	 * @param owner	The Account or ContactDetail - an unsaved or null owner matches no interactions.
+	 * @return	The query.
+	 */
+	public static DocumentQuery query(PersistentBean owner) {
+		Persistence persistence = CORE.getPersistence();
+		Customer customer = persistence.getUser().getCustomer();
+		Document document = customer.getModule(Interaction.MODULE_NAME).getDocument(customer, Interaction.DOCUMENT_NAME);
+		String ownerModuleName = (owner == null) ? Account.MODULE_NAME : owner.getBizModule();
+		String ownerDocumentName = (owner == null) ? Account.DOCUMENT_NAME : owner.getBizDocument();
+
+		String from = String.format("{%s.%s} as bean", Interaction.MODULE_NAME, Interaction.DOCUMENT_NAME);
+		String filter = String.format("(bean.%s = :%s or exists (select o.%s from {%s.%s} as o inner join o.%s as i where o.%s = :%s and i.%s = bean.%s))",
+										Interaction.pendingOwnerIdPropertyName,
+										OWNER_ID_PARAMETER,
+										Bean.DOCUMENT_ID,
+										ownerModuleName,
+										ownerDocumentName,
+										Account.interactionsPropertyName,
+										Bean.DOCUMENT_ID,
+										OWNER_ID_PARAMETER,
+										Bean.DOCUMENT_ID,
+										Bean.DOCUMENT_ID);
+		DocumentQuery result = persistence.newDocumentQuery(document, from, filter, null, null);
+		result.putParameter(OWNER_ID_PARAMETER, (owner == null) ? "" : owner.getBizId());
+		return result;
+	}
+
+	/**
+	 * Insert the joining table row that makes an interaction part of the owner's collection.
+	 */
+	static void link(PersistentBean owner, Interaction interaction) {
+		SQL sql = CORE.getPersistence().newSQL(String.format("insert into %s (owner_id, element_id) values (:owner_id, :element_id)", joinTable(owner.getBizDocument())));
+		sql.putParameter("owner_id", owner.getBizId(), false);
+		sql.putParameter("element_id", interaction.getBizId(), false);
+		sql.execute();
+	}
+
+	/**
+	 * @param ownerDocumentName	Account or ContactDetail.
+	 * @return	The table the owner document is persisted to.
+	 */
+	static String ownerTable(String ownerDocumentName) {
+		Customer customer = CORE.getUser().getCustomer();
+		Document document = customer.getModule(Account.MODULE_NAME).getDocument(customer, ownerDocumentName);
+		@SuppressWarnings("null")
+		String result = document.getPersistent().getPersistentIdentifier();
+		return result;
+	}
+
+	/**
+	 * @param ownerDocumentName	Account or ContactDetail.
+	 * @return	The joining table of the owner document's interactions collection.
+	 */
+	static String joinTable(String ownerDocumentName) {
+		return ownerTable(ownerDocumentName) + '_' + Account.interactionsPropertyName;
+	}
+}
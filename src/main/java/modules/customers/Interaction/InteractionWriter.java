@@ -0,0 +1,192 @@
+package modules.customers.Interaction;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+import org.skyve.CORE;
+import org.skyve.EXT;
+import org.skyve.domain.Bean;
+import org.skyve.domain.PersistentBean;
+import org.skyve.metadata.customer.Customer;
+import org.skyve.metadata.module.JobMetaData;
+import org.skyve.metadata.module.Module;
+import org.skyve.metadata.user.User;
+import org.skyve.persistence.BizQL;
+import org.skyve.persistence.Persistence;
+import org.skyve.persistence.SQL;
+import org.skyve.util.Util;
+
+import modules.customers.domain.Interaction;
+
+/**
+ * Queues interactions raised by sales document saves so they are linked to their Account or ContactDetail
+ * in batches by {@link FlushInteractionsJob} instead of inside the sales document's transaction.
+ * <p>
+ * A queued interaction is saved straight away with its owner recorded in pendingOwnerDocument and pendingOwnerId,
+ * so the queue survives a restart and nothing is lost if a flush fails; the next flush picks it up again.
+ * A flush claims each interaction by clearing its pending owner in the database before linking it, in the same
+ * transaction, so overlapping flushes on this or another server still link an interaction only once.
+ * {@link InteractionTimeline} shows queued interactions as soon as they are saved.
+ * <p>
+ * If more than {@link #MAX_QUEUED} interactions are waiting, new interactions are linked immediately
+ * so that the queue cannot grow without bound when the flush job is not keeping up.
+ * The queue is counted from the table, so it stays right across rolled back saves and restarts.
+ */
+public final class InteractionWriter {
+	/**
+	 * The number of queued interactions linked in each transaction of a flush,
+	 * and the number that triggers a flush.
+	 */
+	public static final int BATCH_SIZE = 100;
+
+	/**
+	 * The number of queued interactions beyond which new interactions are linked immediately.
+	 */
+	public static final int MAX_QUEUED = 5000;
+
+	/**
+	 * The longest a queued interaction waits before a flush is triggered by the next interaction queued.
+	 * Schedule jFlushInteractions to cover quiet periods and restarts.
+	 */
+	private static final long FLUSH_INTERVAL_MILLIS = 30000L;
+
+	private static final String FLUSH_JOB_NAME = "jFlushInteractions";
+
+	private static final AtomicBoolean FLUSHING = new AtomicBoolean();
+	private static volatile long lastFlush = System.currentTimeMillis();
+
+	private InteractionWriter() {
+		// static methods only
+	}
+
+	/**
+	 * Queue a new interaction for an owner.
+	 *
+	 * @param owner	The Account or ContactDetail.
+	 * @param interactions	The owner's persistent interactions collection.
+	 * @param timeline	The owner's non-persistent timeline collection.
+	 * @param interaction	The new interaction.
+	 */
+	public static void enqueue(PersistentBean owner,
+								List<InteractionExtension> interactions,
+								List<InteractionExtension> timeline,
+								InteractionExtension interaction) {
+		// an unsaved owner cannot be linked to later
+		if (owner.isNotPersisted()) {
+			InteractionTimeline.append(owner, interactions, timeline, interaction);
+			return;
+		}
+
+		// a full queue pushes back on the caller
+		long queued = queued();
+		if (queued >= MAX_QUEUED) {
+			InteractionTimeline.append(owner, interactions, timeline, interaction);
+			return;
+		}
+
+		interaction.setPendingOwnerDocument(owner.getBizDocument());
+		interaction.setPendingOwnerId(owner.getBizId());
+		InteractionExtension result = CORE.getPersistence().save(interaction);
+		timeline.add(0, result);
+
+		if (((queued + 1) >= BATCH_SIZE) || ((System.currentTimeMillis() - lastFlush) > FLUSH_INTERVAL_MILLIS)) {
+			requestFlush();
+		}
+	}
+
+	/**
+	 * @return	The number of interactions waiting to be linked.
+	 */
+	static long queued() {
+		BizQL q = CORE.getPersistence().newBizQL(String.format("select count(i.%s) from {%s.%s} as i where i.%s is not null",
+																Bean.DOCUMENT_ID,
+																Interaction.MODULE_NAME,
+																Interaction.DOCUMENT_NAME,
+																Interaction.pendingOwnerIdPropertyName));
+		Number result = q.scalarResult(Number.class);
+		return (result == null) ? 0L : result.longValue();
+	}
+
+	/**
+	 * Start the flush job unless this server has already started one.
+	 * This only saves starting flush jobs that have nothing left to do - flushes can safely overlap.
+	 */
+	public static void requestFlush() {
+		if (FLUSHING.compareAndSet(false, true)) {
+			try {
+				Persistence persistence = CORE.getPersistence();
+				User user = persistence.getUser();
+				Customer customer = user.getCustomer();
+				Module module = customer.getModule(Interaction.MODULE_NAME);
+				JobMetaData job = module.getJob(FLUSH_JOB_NAME);
+				EXT.getJobScheduler().runOneShotJob(job, null, user);
+			}
+			catch (Exception e) {
+				FLUSHING.set(false);
+				Util.LOGGER.log(Level.WARNING, "Could not start the interaction flush job", e);
+			}
+		}
+	}
+
+	/**
+	 * Link the next batch of queued interactions to their owners.
+	 *
+	 * @return	The number of queued interactions processed - 0 when the queue is empty.
+	 */
+	static int flushBatch() {
+		Persistence persistence = CORE.getPersistence();
+		BizQL q = persistence.newBizQL(String.format("select i.%s, i.%s, i.%s from {%s.%s} as i where i.%s is not null order by i.%s",
+														Bean.DOCUMENT_ID,
+														Interaction.pendingOwnerDocumentPropertyName,
+														Interaction.pendingOwnerIdPropertyName,
+														Interaction.MODULE_NAME,
+														Interaction.DOCUMENT_NAME,
+														Interaction.pendingOwnerIdPropertyName,
+														Interaction.interactionTimePropertyName));
+		q.setMaxResults(BATCH_SIZE);
+		List<Object[]> rows = q.tupleResults();
+
+		for (Object[] row : rows) {
+			String interactionId = (String) row[0];
+			String ownerDocument = (String) row[1];
+			String ownerId = (String) row[2];
+
+			// claim the interaction - another flush that got to it first has already linked it
+			SQL sql = persistence.newSQL(String.format("update CUS_Interaction set %s = null, %s = null where %s = :element_id and %s is not null",
+														Interaction.pendingOwnerDocumentPropertyName,
+														Interaction.pendingOwnerIdPropertyName,
+														Bean.DOCUMENT_ID,
+														Interaction.pendingOwnerIdPropertyName));
+			sql.putParameter("element_id", interactionId, false);
+			if (sql.execute() != 1) {
+				continue;
+			}
+
+			// link through the owner's row
+			sql = persistence.newSQL(String.format("insert into %s (owner_id, element_id) select %s, :element_id from %s where %s = :owner_id",
+													InteractionTimeline.joinTable(ownerDocument),
+													Bean.DOCUMENT_ID,
+													InteractionTimeline.ownerTable(ownerDocument),
+													Bean.DOCUMENT_ID));
+			sql.putParameter("owner_id", ownerId, false);
+			sql.putParameter("element_id", interactionId, false);
+			if (sql.execute() == 0) {
+				// the owner was deleted while the interaction was queued
+				sql = persistence.newSQL(String.format("delete from CUS_Interaction where %s = :element_id", Bean.DOCUMENT_ID));
+				sql.putParameter("element_id", interactionId, false);
+				sql.execute();
+			}
+		}
+
+		return rows.size();
+	}
+
+	/**
+	 * Called by {@link FlushInteractionsJob} when it finishes, whether it was started by the writer or scheduled.
+	 */
+	static void flushed() {
+		lastFlush = System.currentTimeMillis();
+		FLUSHING.set(false);
+	}
+}
@@ -0,0 +1,157 @@
+package modules.customers.service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.locationtech.jts.geom.Point;
+import org.skyve.CORE;
+import org.skyve.domain.Bean;
+import org.skyve.domain.PersistentBean;
+import org.skyve.job.Job;
+import org.skyve.persistence.DocumentQuery;
+import org.skyve.persistence.Persistence;
+import org.skyve.util.Binder;
+
+import modules.admin.ModulesUtil;
+import modules.customers.domain.Account;
+import modules.sales.domain.Lead;
+
+/**
+ * Geocodes every Account and Lead that has an address but no location.
+ * <p>
+ * Each batch of addresses is sent to the geocoding service concurrently (paced by its rate limiter)
+ * and the batch is committed once its locations are saved.
+ */
+public class GeocodeMissingLocationsJob extends Job {
+	private static final int BATCH_SIZE = 20;
+
+	private volatile boolean cancelled = false;
+
+	@Override
+	public String cancel() {
+		cancelled = true;
+		return null;
+	}
+
+	@Override
+	public void execute() throws Exception {
+		List<String> log = getLog();
+		log.add("Started Geocode Missing Locations Job at " + new Date());
+
+		PhotonGeocodeServiceImpl service = new PhotonGeocodeServiceImpl();
+		List<Object[]> accounts = missing(Account.MODULE_NAME,
+											Account.DOCUMENT_NAME,
+											Account.locationPropertyName,
+											Account.line1PropertyName,
+											Account.line2PropertyName,
+											Account.suburbPropertyName,
+											Account.statePropertyName,
+											Account.postCodePropertyName);
+		List<Object[]> leads = missing(Lead.MODULE_NAME,
+										Lead.DOCUMENT_NAME,
+										Lead.companyLocationPropertyName,
+										Lead.line1PropertyName,
+										Lead.line2PropertyName,
+										Lead.suburbPropertyName,
+										Lead.statePropertyName,
+										Lead.postCodePropertyName);
+		int size = accounts.size() + leads.size();
+
+		int processed = geocode(service, Account.MODULE_NAME, Account.DOCUMENT_NAME, Account.locationPropertyName, accounts, 0, size);
+		processed = geocode(service, Lead.MODULE_NAME, Lead.DOCUMENT_NAME, Lead.companyLocationPropertyName, leads, processed, size);
+
+		setPercentComplete(100);
+		log.add(String.format("Finished Geocode Missing Locations Job at %s - %d of %d addresses processed",
+								new Date(), Integer.valueOf(processed), Integer.valueOf(size)));
+	}
+
+	/**
+	 * Find the bizIds and addresses of the documents with no location.
+	 *
+	 * @param addressBindings	The document's line 1, line 2, suburb, state and post code bindings, in that order.
+	 */
+	private static List<Object[]> missing(String moduleName,
+											String documentName,
+											String locationBinding,
+											String... addressBindings) {
+		DocumentQuery q = CORE.getPersistence().newDocumentQuery(moduleName, documentName);
+		q.getFilter().addNull(locationBinding);
+		q.addBoundProjection(Bean.DOCUMENT_ID);
+		for (String addressBinding : addressBindings) {
+			q.addBoundProjection(addressBinding);
+		}
+		return q.tupleResults();
+	}
+
+	private int geocode(PhotonGeocodeServiceImpl service,
+							String moduleName,
+							String documentName,
+							String locationBinding,
+							List<Object[]> rows,
+							int processedSoFar,
+							int size)
+	throws Exception {
+		List<String> log = getLog();
+		Persistence pers = CORE.getPersistence();
+		int processed = processedSoFar;
+
+		for (int start = 0, l = rows.size(); start < l; start += BATCH_SIZE) {
+			if (cancelled) {
+				log.add("Cancelled after " + processed + " addresses");
+				break;
+			}
+
+			List<Object[]> batch = rows.subList(start, Math.min(start + BATCH_SIZE, l));
+			List<CompletableFuture<Point>> results = new ArrayList<>(batch.size());
+			for (Object[] row : batch) {
+				String address = address(row);
+				results.add((address == null) ? CompletableFuture.completedFuture(null) : service.geocodeAsync(address));
+			}
+
+			for (int i = 0, n = batch.size(); i < n; i++) {
+				String bizId = (String) batch.get(i)[0];
+				try {
+					Point point = results.get(i).join();
+					if (point != null) {
+						PersistentBean bean = pers.retrieve(moduleName, documentName, bizId);
+						if (bean != null) {
+							Binder.set(bean, locationBinding, point);
+							pers.save(bean);
+						}
+					}
+					else {
+						log.add(String.format("%s %s could not be geocoded", documentName, bizId));
+					}
+				}
+				catch (Exception e) {
+					log.add(String.format("%s %s failed - %s", documentName, bizId, e.getMessage()));
+				}
+				processed++;
+			}
+
+			pers.commit(false);
+			pers.evictAllCached();
+			pers.begin();
+			setPercentComplete((int) (((float) processed) / ((float) size) * 100F));
+		}
+
+		return processed;
+	}
+
+	/**
+	 * Build the address the same way as the Geocode actions, or null if there is no address to geocode.
+	 */
+	private static String address(Object[] row) {
+		String line1 = (String) row[1];
+		String line2 = (String) row[2];
+		String suburb = (String) row[3];
+		String state = (String) row[4];
+		String postCode = (String) row[5];
+		if ((line1 == null) && (line2 == null) && (suburb == null) && (state == null) && (postCode == null)) {
+			return null;
+		}
+		return ModulesUtil.concatWithDelim(" ", line1, line2, suburb, state, postCode, "Australia");
+	}
+}
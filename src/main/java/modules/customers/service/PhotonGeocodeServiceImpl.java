@@ -1,17 +1,28 @@
 package modules.customers.service;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import javax.enterprise.inject.Default;
 
+import org.ehcache.Cache;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.Point;
+import org.skyve.EXT;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -21,6 +32,11 @@ import net.minidev.json.parser.JSONParser;
 
 /**
  * Basic implementation of a Geocoding service using Photon.
+ * <p>
+ * All instances share one HTTP client (and so its connection pool), one rate limiter and the
+ * "geocodes" application cache, which maps normalised addresses to results for the time to live
+ * configured in the application JSON. Requests time out and are retried with back off when Photon
+ * is unavailable or asks us to slow down. Pass a different base URL to run against a local stub server.
  */
 @Default
 public class PhotonGeocodeServiceImpl {
@@ -29,25 +45,132 @@ public class PhotonGeocodeServiceImpl {
 	private static final String PHOTON_BASE_URL = "https://photon.komoot.io/api/";
 	private static final String USER_AGENT_HEADER = "Skyve Simple CRM";
 
-	@SuppressWarnings({ "static-method" })
+	/**
+	 * The name of the application cache of geocoding results.
+	 */
+	public static final String CACHE_NAME = "geocodes";
+
+	private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+	private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+	private static final int MAX_ATTEMPTS = 3;
+	private static final long RETRY_BACKOFF_MILLIS = 1000L;
+
+	// the public Photon instance asks for no more than about one request a second
+	private static final TokenBucket RATE_LIMITER = new TokenBucket(2, 1.0);
+
+	private static final HttpClient CLIENT = HttpClient.newBuilder()
+														.connectTimeout(CONNECT_TIMEOUT)
+														.followRedirects(HttpClient.Redirect.NORMAL)
+														.build();
+
+	private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+	// cached for addresses Photon could not find, as the cache cannot hold nulls
+	private static final String NOT_FOUND = "";
+
+	private final String baseUrl;
+
+	public PhotonGeocodeServiceImpl() {
+		this(PHOTON_BASE_URL);
+	}
+
+	/**
+	 * @param baseUrl	The Photon API URL, such as a local stub server for testing.
+	 */
+	public PhotonGeocodeServiceImpl(String baseUrl) {
+		this.baseUrl = baseUrl;
+	}
+
+	/**
+	 * Geocode an address, waiting for the result.
+	 *
+	 * @param address	The address to find.
+	 * @return	The location, or null if the address could not be found.
+	 */
 	public Point geocode(String address) throws Exception {
+		try {
+			return geocodeAsync(address).get();
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Exception) {
+				throw (Exception) cause;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Geocode an address without blocking the calling thread.
+	 *
+	 * @param address	The address to find.
+	 * @return	A future completed with the location, or null if the address could not be found.
+	 */
+	public CompletableFuture<Point> geocodeAsync(String address) {
 		if (address == null) {
 			throw new IllegalArgumentException("address is required");
 		}
-		
-		URI photonQueryUri = URI.create(String.format(PHOTON_BASE_URL + "?q=%s&limit=%s",
-				URLEncoder.encode(address, "UTF-8").replaceAll("\\+", "%20"), String.valueOf(1)));
 
-		HttpRequest request = HttpRequest.newBuilder()
+		String key = normalise(address);
+		Cache<String, String> cache = cache();
+		if (cache != null) {
+			String cached = cache.get(key);
+			if (cached != null) {
+				return CompletableFuture.completedFuture(fromCacheValue(cached));
+			}
+		}
+
+		return fetch(key, 1).thenApply(point -> {
+			if (cache != null) {
+				cache.put(key, toCacheValue(point));
+			}
+			return point;
+		});
+	}
+
+	private CompletableFuture<Point> fetch(String address, int attempt) {
+		// wait for the rate limiter on a timer rather than in a thread
+		long delay = RATE_LIMITER.reserve();
+		return CompletableFuture.supplyAsync(() -> request(address),
+												CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS))
+				.thenCompose(request -> CLIENT.sendAsync(request, HttpResponse.BodyHandlers.ofString()))
+				.handle((response, t) -> {
+					int status = (response == null) ? 0 : response.statusCode();
+					if ((t == null) && (status == 200)) {
+						return CompletableFuture.completedFuture(parse(response.body()));
+					}
+
+					boolean retryable = (t != null) || (status == 429) || (status >= 500);
+					if (retryable && (attempt < MAX_ATTEMPTS)) {
+						LOGGER.debug("Photon request attempt {} failed for {} - retrying", Integer.valueOf(attempt), address);
+						return CompletableFuture.runAsync(() -> { /* back off */ },
+															CompletableFuture.delayedExecutor(RETRY_BACKOFF_MILLIS * attempt, TimeUnit.MILLISECONDS))
+								.thenCompose(v -> fetch(address, attempt + 1));
+					}
+
+					Throwable cause = (t instanceof CompletionException) ? t.getCause() : t;
+					if (cause == null) {
+						cause = new IOException("Photon responded with status " + status);
+					}
+					return CompletableFuture.<Point> failedFuture(cause);
+				})
+				.thenCompose(Function.identity());
+	}
+
+	private HttpRequest request(String address) {
+		URI photonQueryUri = URI.create(String.format(baseUrl + "?q=%s&limit=%s",
+				URLEncoder.encode(address, StandardCharsets.UTF_8).replaceAll("\\+", "%20"), String.valueOf(1)));
+
+		return HttpRequest.newBuilder()
 				.uri(photonQueryUri)
+				.timeout(REQUEST_TIMEOUT)
 				.header("User-Agent", USER_AGENT_HEADER)
 				.method("GET", HttpRequest.BodyPublishers.noBody())
 				.build();
+	}
 
-		HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
-
-		if (response != null) {
-			String json = response.body();
+	private static Point parse(String json) {
+		try {
 			// parse out the payload
 			JSONParser parser = new JSONParser(JSONParser.MODE_JSON_SIMPLE);
 			JSONObject jsonBody = (JSONObject) parser.parse(json);
@@ -61,22 +184,55 @@ public class PhotonGeocodeServiceImpl {
 						if ("Point".equals(geometry.getAsString("type"))) {
 							JSONArray coords = (JSONArray) geometry.get("coordinates");
 							if (coords != null) {
-								GeometryFactory gf = new GeometryFactory();
 								LOGGER.debug("Found coordinates lng:{}, lat:{}", coords.get(0), coords.get(1));
 								double lng = toDouble(coords.get(0));
 								double lat = toDouble(coords.get(1));
 
-								return gf.createPoint(new Coordinate(lng, lat));
+								return GEOMETRY_FACTORY.createPoint(new Coordinate(lng, lat));
 							}
 						}
 					}
 				}
 			}
 		}
+		catch (Exception e) {
+			throw new CompletionException(e);
+		}
 
 		return null;
 	}
 
+	/**
+	 * Collapse whitespace and case so that trivially different addresses share a cache entry.
+	 */
+	private static String normalise(String address) {
+		return address.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+	}
+
+	private static Cache<String, String> cache() {
+		try {
+			return EXT.getCaching().getEHCache(CACHE_NAME, String.class, String.class);
+		}
+		catch (@SuppressWarnings("unused") Exception e) {
+			// the cache is not configured - geocode without it
+			return null;
+		}
+	}
+
+	private static String toCacheValue(Point point) {
+		return (point == null) ? NOT_FOUND : (point.getX() + " " + point.getY());
+	}
+
+	private static Point fromCacheValue(String value) {
+		if (NOT_FOUND.equals(value)) {
+			return null;
+		}
+		int space = value.indexOf(' ');
+		double lng = Double.parseDouble(value.substring(0, space));
+		double lat = Double.parseDouble(value.substring(space + 1));
+		return GEOMETRY_FACTORY.createPoint(new Coordinate(lng, lat));
+	}
+
 	private static double toDouble(final Object number) {
 		if (number instanceof Double) {
 			return ((Double) number).doubleValue();
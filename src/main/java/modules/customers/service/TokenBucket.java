@@ -0,0 +1,40 @@
+package modules.customers.service;
+
+/**
+ * A token bucket rate limiter that hands out reservations rather than blocking,
+ * so asynchronous callers can schedule their work after the returned delay.
+ */
+public final class TokenBucket {
+	private final double capacity;
+	private final double tokensPerNano;
+	private double tokens;
+	private long lastRefill;
+
+	/**
+	 * @param capacity	The largest burst allowed.
+	 * @param tokensPerSecond	The sustained rate.
+	 */
+	public TokenBucket(int capacity, double tokensPerSecond) {
+		if ((capacity < 1) || (tokensPerSecond <= 0.0)) {
+			throw new IllegalArgumentException("capacity and rate must be positive");
+		}
+		this.capacity = capacity;
+		this.tokensPerNano = tokensPerSecond / 1000000000.0;
+		this.tokens = capacity;
+		this.lastRefill = System.nanoTime();
+	}
+
+	/**
+	 * Take a token, going into debt if none are left.
+	 *
+	 * @return	The number of nanoseconds the caller must wait before using the token - 0 if it can be used now.
+	 */
+	public synchronized long reserve() {
+		long now = System.nanoTime();
+		tokens = Math.min(capacity, tokens + ((now - lastRefill) * tokensPerNano));
+		lastRefill = now;
+
+		tokens -= 1.0;
+		return (tokens >= 0.0) ? 0L : (long) Math.ceil(-tokens / tokensPerNano);
+	}
+}
@@ -0,0 +1,175 @@
+package modules.customers.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.skyve.domain.Bean;
+import org.skyve.metadata.view.model.map.MapFeature;
+import org.skyve.metadata.view.model.map.MapItem;
+import org.skyve.metadata.view.model.map.MapModel;
+import org.skyve.metadata.view.model.map.MapResult;
+import org.skyve.persistence.DocumentQuery;
+import org.skyve.persistence.DocumentQuery.AggregateFunction;
+import org.skyve.util.Binder;
+
+/**
+ * A map model that only queries the features inside the map's viewport.
+ * <p>
+ * Only the bizId, geometry and the columns the info markup needs are projected, so no beans are hydrated.
+ * When more than {@link #CLUSTER_THRESHOLD} features are in view, they are grouped into a grid over the viewport
+ * by the database and one item is returned per occupied cell, positioned at the average of its members.
+ * <p>
+ * The viewport filter needs a spatial index on the geometry column - see the readme for the DDL of each database.
+ *
+ * @param <T>	The map document.
+ */
+public abstract class ViewportMapModel<T extends Bean> extends MapModel<T> {
+	private static final long serialVersionUID = 2907461389450377013L;
+
+	/**
+	 * The number of features in view above which they are clustered.
+	 */
+	public static final int CLUSTER_THRESHOLD = 500;
+
+	/**
+	 * The number of cells across and down the viewport when clustering.
+	 */
+	private static final int GRID_SIZE = 20;
+
+	private static final String COUNT_ALIAS = "featureCount";
+	private static final String X_ALIAS = "averageX";
+	private static final String Y_ALIAS = "averageY";
+
+	/**
+	 * @return	A query over the mapped document, with any filters, but no projections.
+	 */
+	protected abstract DocumentQuery newQuery();
+
+	/**
+	 * @return	The binding of the geometry to map.
+	 */
+	protected abstract String getGeometryBinding();
+
+	/**
+	 * Add the projections needed by {@link #infoMarkup(Bean)}.
+	 */
+	protected abstract void addInfoProjections(DocumentQuery query);
+
+	/**
+	 * @param row	A projected row with the bindings added by {@link #addInfoProjections(DocumentQuery)}.
+	 * @return	The info markup for the row.
+	 */
+	protected abstract String infoMarkup(Bean row);
+
+	/**
+	 * @return	The plural name of the features, used in the cluster markup.
+	 */
+	protected abstract String getPluralAlias();
+
+	@Override
+	public MapResult getResult(Geometry mapBounds) throws Exception {
+		if ((mapBounds != null) && (count(mapBounds) > CLUSTER_THRESHOLD)) {
+			return new MapResult(clusters(mapBounds), null);
+		}
+
+		DocumentQuery q = inView(mapBounds);
+		q.addBoundProjection(Bean.DOCUMENT_ID);
+		q.addBoundProjection(getGeometryBinding());
+		addInfoProjections(q);
+
+		String geometryBinding = getGeometryBinding();
+		List<MapItem> items = new ArrayList<>();
+		for (Bean row : q.projectedResults()) {
+			MapItem item = new MapItem();
+			item.setBizId(row.getBizId());
+			item.setModuleName(row.getBizModule());
+			item.setDocumentName(row.getBizDocument());
+
+			MapFeature feature = new MapFeature();
+			feature.setGeometry((Geometry) Binder.get(row, geometryBinding));
+			item.getFeatures().add(feature);
+
+			item.setInfoMarkup(infoMarkup(row));
+			items.add(item);
+		}
+		return new MapResult(items, null);
+	}
+
+	/**
+	 * Create the query for the features inside the viewport.
+	 */
+	private DocumentQuery inView(Geometry mapBounds) {
+		DocumentQuery result = newQuery();
+		String geometryBinding = getGeometryBinding();
+		result.getFilter().addNotNull(geometryBinding);
+		if (mapBounds != null) {
+			result.getFilter().addWithin(geometryBinding, mapBounds);
+		}
+		return result;
+	}
+
+	private long count(Geometry mapBounds) {
+		DocumentQuery q = inView(mapBounds);
+		q.addAggregateProjection(AggregateFunction.Count, Bean.DOCUMENT_ID, COUNT_ALIAS);
+		Number result = q.scalarResult(Number.class);
+		return (result == null) ? 0L : result.longValue();
+	}
+
+	/**
+	 * Group the geometries in view into a grid of cells in the database and return an item for each occupied cell.
+	 * <p>
+	 * Each feature falls in the cell of its centroid, using the OGC ST_X, ST_Y and ST_Centroid functions of the
+	 * spatial database, so only one row is read per occupied cell.
+	 */
+	private List<MapItem> clusters(Geometry mapBounds) {
+		Envelope envelope = mapBounds.getEnvelopeInternal();
+		double cellWidth = Math.max(envelope.getWidth() / GRID_SIZE, Double.MIN_VALUE);
+		double cellHeight = Math.max(envelope.getHeight() / GRID_SIZE, Double.MIN_VALUE);
+
+		String geometry = DocumentQuery.THIS_ALIAS + '.' + getGeometryBinding();
+		String x = String.format("ST_X(ST_Centroid(%s))", geometry);
+		String y = String.format("ST_Y(ST_Centroid(%s))", geometry);
+
+		DocumentQuery q = inView(mapBounds);
+		q.addAggregateProjection(AggregateFunction.Count, Bean.DOCUMENT_ID, COUNT_ALIAS);
+		q.addExpressionProjection(String.format("avg(%s)", x), X_ALIAS);
+		q.addExpressionProjection(String.format("avg(%s)", y), Y_ALIAS);
+		q.addExpressionGrouping(cell(x, envelope.getMinX(), cellWidth));
+		q.addExpressionGrouping(cell(y, envelope.getMinY(), cellHeight));
+
+		GeometryFactory gf = new GeometryFactory();
+		List<MapItem> result = new ArrayList<>();
+		for (Bean row : q.projectedResults()) {
+			Number count = (Number) Binder.get(row, COUNT_ALIAS);
+			Number averageX = (Number) Binder.get(row, X_ALIAS);
+			Number averageY = (Number) Binder.get(row, Y_ALIAS);
+			if ((count != null) && (averageX != null) && (averageY != null)) {
+				MapItem item = new MapItem();
+				MapFeature feature = new MapFeature();
+				feature.setGeometry(gf.createPoint(new Coordinate(averageX.doubleValue(), averageY.doubleValue())));
+				item.getFeatures().add(feature);
+				item.setInfoMarkup(String.format("<div><h2>%d %s</h2><span>Zoom in to see them individually</span></div>",
+													Long.valueOf(count.longValue()),
+													getPluralAlias()));
+				result.add(item);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * The expression for the column or row of the grid that an ordinate falls in.
+	 * The numbers are written out in plain notation, without exponents.
+	 */
+	private static String cell(String ordinate, double min, double size) {
+		return String.format("floor((%s - %s) / %s)",
+								ordinate,
+								BigDecimal.valueOf(min).toPlainString(),
+								BigDecimal.valueOf(size).toPlainString());
+	}
+}
@@ -6,6 +6,10 @@ import org.skyve.metadata.controller.ImplicitActionName;
 import org.skyve.metadata.model.document.Bizlet;
 import org.skyve.web.WebContext;
 
+import modules.customers.AccountSalesSummary.AccountSalesSummaryService;
+import modules.customers.domain.Account;
+import modules.sales.ProcessLifeCycle.ProcessLifeCycleResolver;
+
 public class InvoiceBizlet extends Bizlet<InvoiceExtension> {
 
 	private static final long serialVersionUID = -3315242171599158721L;
@@ -31,12 +35,30 @@ public class InvoiceBizlet extends Bizlet<InvoiceExtension> {
 			}
 		}
 		if (bean.isPersisted()) {
-			bean.sortInteractions();
+			bean.loadInteractions();
 		}
 		return super.preExecute(actionName, bean, parentBean, webContext);
 	}
 	
 	
+	@Override
+	public void postSave(InvoiceExtension bean) throws Exception {
+		// the latest invoice and sales summary may have changed for the account, and for any account it was moved from
+		Account movedFrom = AccountSalesSummaryService.movedFrom(bean, InvoiceExtension.accountPropertyName, bean.getAccount());
+		ProcessLifeCycleResolver.invalidate(bean.getAccount());
+		ProcessLifeCycleResolver.invalidate(movedFrom);
+		AccountSalesSummaryService.refresh(bean.getAccount());
+		AccountSalesSummaryService.refresh(movedFrom);
+		super.postSave(bean);
+	}
+	
+	@Override
+	public void postDelete(InvoiceExtension bean) throws Exception {
+		ProcessLifeCycleResolver.invalidate(bean.getAccount());
+		AccountSalesSummaryService.refresh(bean.getAccount());
+		super.postDelete(bean);
+	}
+	
 	@Override
 	public void preRerender(String source, InvoiceExtension bean, WebContext webContext) throws Exception {
 		if (bean.getOrder() != null) {
@@ -1,14 +1,6 @@
 package modules.sales.Invoice;
 
-import org.skyve.CORE;
-import org.skyve.metadata.customer.Customer;
-import org.skyve.metadata.model.document.Document;
-import org.skyve.metadata.module.Module;
-import org.skyve.metadata.user.User;
-import org.skyve.util.Binder;
-
 import modules.customers.Interaction.InteractionExtension;
-import modules.customers.domain.Account;
 import modules.customers.domain.Interaction;
 import modules.customers.domain.Interaction.Type;
 import modules.sales.domain.Invoice;
@@ -25,7 +17,7 @@ public class InvoiceExtension extends Invoice {
 		if (document != null) {
 			interaction.setDocument(document);
 		}
-		getAccount().getInteractions().add(interaction);
+		getAccount().queueInteraction(interaction);
 	}
 
 	public void createInteraction() {
@@ -35,7 +27,7 @@ public class InvoiceExtension extends Invoice {
 		interaction.setDescription(interaction.getUser().getContact().getName() + " created a new invoice for account: " + 
 				getAccount().getPrimaryContact().getFirstName()
 				+ " " + getAccount().getPrimaryContact().getLastName());
-		getAccount().getInteractions().add(interaction);
+		getAccount().queueInteraction(interaction);
 	}
 
 	
@@ -44,7 +36,7 @@ public class InvoiceExtension extends Invoice {
 		interaction.setTitle("Updated Invoice");
 		interaction.setType(Type.other);
 		interaction.setDescription(interaction.getUser().getContact().getName() + " updated the invoice details for " + getInvoiceId() + " with account: " + getAccount().getAccountName() + ".");
-		getAccount().getInteractions().add(interaction);
+		getAccount().queueInteraction(interaction);
 	}
 
 	public void deletedInteraction() {
@@ -54,19 +46,10 @@ public class InvoiceExtension extends Invoice {
 		interaction.setTitle("Deleted Invoice");
 		interaction.setType(Type.other);
 		interaction.setDescription(interaction.getUser().getContact().getName() + " deleted the invoice " + getInvoiceId() + ".");
-		getAccount().getInteractions().add(interaction);
+		getAccount().queueInteraction(interaction);
 	}
 	
-	public void sortInteractions() {
-		User user = CORE.getUser();
-		Customer customer = user.getCustomer();
-		Module module = customer.getModule(Account.MODULE_NAME);
-		Document document = module.getDocument(customer, Account.DOCUMENT_NAME);
-		String collectionBinding = Account.interactionsPropertyName;
-		Binder.sortCollectionByMetaData(getAccount(), customer, module, document, collectionBinding);
-
-		if (getAccount().getInteractions().size() > 50) {
-			getAccount().getInteractions().retainAll(getAccount().getInteractions().subList(0, 50));
-		}
+	public void loadInteractions() {
+		getAccount().loadInteractions();
 	}
 }
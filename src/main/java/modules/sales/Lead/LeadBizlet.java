@@ -31,7 +31,7 @@ public class LeadBizlet extends Bizlet<LeadExtension> {
 			}	
 		}
 		if (bean.isPersisted()) {
-			bean.sortInteractions();
+			bean.loadInteractions();
 		}
 		return super.preExecute(actionName, bean, parentBean, webContext);
 	}
@@ -1,16 +1,9 @@
 package modules.sales.Lead;
 
 import org.locationtech.jts.geom.Point;
-import org.skyve.CORE;
-import org.skyve.metadata.customer.Customer;
-import org.skyve.metadata.model.document.Document;
-import org.skyve.metadata.module.Module;
-import org.skyve.metadata.user.User;
-import org.skyve.util.Binder;
 
 import modules.admin.ModulesUtil;
 import modules.customers.Interaction.InteractionExtension;
-import modules.customers.domain.ContactDetail;
 import modules.customers.domain.Interaction;
 import modules.customers.domain.Interaction.Type;
 import modules.customers.service.PhotonGeocodeServiceImpl;
@@ -25,14 +18,14 @@ public class LeadExtension extends Lead {
 		interaction.setTitle("Created New Lead");
 		interaction.setType(Type.other);
 		interaction.setDescription(interaction.getUser().getContact().getName() + " created a new lead for contact: " + getContactDetails().getFirstName() + " " + getContactDetails().getLastName());
-		getContactDetails().getInteractions().add(interaction);
+		getContactDetails().queueInteraction(interaction);
 	}
 	public void createInteraction(final Type type, final String description) {
 		InteractionExtension interaction = Interaction.newInstance();
 		interaction.setTitle(String.format("New %s", type.toLocalisedDescription()));
 		interaction.setType(type);
 		interaction.setDescription(description);
-		getContactDetails().getInteractions().add(interaction);
+		getContactDetails().queueInteraction(interaction);
 	}
 	
 	public void createInteraction(final Type type, final String description, final String document) {
@@ -43,7 +36,7 @@ public class LeadExtension extends Lead {
 		if (document != null) {
 			interaction.setDocument(document);
 		}
-		getContactDetails().getInteractions().add(interaction);
+		getContactDetails().queueInteraction(interaction);
 	}
 	
 	public void updateInteraction() {
@@ -51,7 +44,7 @@ public class LeadExtension extends Lead {
 		interaction.setTitle("Updated Lead");
 		interaction.setType(Type.other);
 		interaction.setDescription(interaction.getUser().getContact().getName() + " updated the lead details for " + getName() + " with contact: " + getContactDetails().getFirstName() + " " + getContactDetails().getLastName());
-		getContactDetails().getInteractions().add(interaction);
+		getContactDetails().queueInteraction(interaction);
 	}
 	
 	public void deletedInteraction() {
@@ -61,21 +54,11 @@ public class LeadExtension extends Lead {
 		interaction.setTitle("Deleted Lead");
 		interaction.setType(Type.other);
 		interaction.setDescription(interaction.getUser().getContact().getName() + " deleted the lead for " + getName());
-		getContactDetails().getInteractions().add(interaction);
+		getContactDetails().queueInteraction(interaction);
 	}
 	
-	public void sortInteractions() {
-		User user = CORE.getUser();
-		Customer customer = user.getCustomer();
-		Module module = customer.getModule(ContactDetail.MODULE_NAME);
-		Document document = module.getDocument(customer, ContactDetail.DOCUMENT_NAME);
-		String collectionBinding = ContactDetail.interactionsPropertyName;
-		Binder.sortCollectionByMetaData(getContactDetails(), customer, module, document, collectionBinding);
-			
-		// keep only the newest interactions
-		if (getContactDetails().getInteractions().size() > 50) {
-			getContactDetails().getInteractions().retainAll(getContactDetails().getInteractions().subList(0, 50));
-		}
+	public void loadInteractions() {
+		getContactDetails().loadInteractions();
 	}
 	
 	public void geocode() throws Exception {
@@ -5,11 +5,6 @@ import org.skyve.domain.messages.Message;
 import org.skyve.domain.messages.ValidationException;
 import org.skyve.metadata.controller.ServerSideAction;
 import org.skyve.metadata.controller.ServerSideActionResult;
-import org.skyve.metadata.customer.Customer;
-import org.skyve.metadata.model.document.Document;
-import org.skyve.metadata.module.Module;
-import org.skyve.metadata.user.User;
-import org.skyve.util.Binder;
 import org.skyve.web.WebContext;
 
 import modules.customers.domain.ContactDetail;
@@ -37,21 +32,9 @@ public class AddInteraction implements ServerSideAction<LeadExtension> {
 		bean.getContactDetails().setInteractionDescription(null);
 		bean.getContactDetails().setInteractionType(null);
 		bean.getContactDetails().setDocument(null);
-		
-				
-		User user = CORE.getUser();
-		Customer customer = user.getCustomer();
-		Module module = customer.getModule(ContactDetail.MODULE_NAME);
-		Document document = module.getDocument(customer, ContactDetail.DOCUMENT_NAME);
-		String collectionBinding = ContactDetail.interactionsPropertyName;
-		Binder.sortCollectionByMetaData(bean.getContactDetails(), customer, module, document, collectionBinding);
-			
-		// keep only the newest interactions
-		if (bean.getContactDetails().getInteractions().size() > 50) {
-			bean.getContactDetails().getInteractions().retainAll(bean.getContactDetails().getInteractions().subList(0, 50));
-		}
-		
+
 		bean = CORE.getPersistence().save(bean);
+		bean.loadInteractions();
 
 		return new ServerSideActionResult<>(bean);
 	}
@@ -1,67 +1,76 @@
 package modules.sales.LeadMap.models;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import org.locationtech.jts.geom.Geometry;
 import org.skyve.CORE;
-import org.skyve.metadata.view.model.map.MapFeature;
-import org.skyve.metadata.view.model.map.MapItem;
-import org.skyve.metadata.view.model.map.MapModel;
-import org.skyve.metadata.view.model.map.MapResult;
+import org.skyve.domain.Bean;
 import org.skyve.persistence.DocumentQuery;
-import org.skyve.persistence.Persistence;
+import org.skyve.util.Binder;
 
 import modules.customers.domain.ContactDetail;
+import modules.customers.service.ViewportMapModel;
 import modules.sales.domain.Lead;
 import modules.sales.domain.LeadMap;
 
-public class LeadMapModel extends MapModel<LeadMap> {
+public class LeadMapModel extends ViewportMapModel<LeadMap> {
 
 	private static final long serialVersionUID = -6620665458880660348L;
 
+	private static final String FIRST_NAME = "contactFirstName";
+	private static final String LAST_NAME = "contactLastName";
+	private static final String EMAIL = "contactEmail";
+	private static final String MOBILE = "contactMobileNumber";
+	private static final String BUSINESS = "contactBusinessNumber";
+	private static final String METHOD = "contactMethod";
+
 	@Override
-	public MapResult getResult(Geometry mapBounds) throws Exception {
-		Persistence persistence = CORE.getPersistence();
-		DocumentQuery qleads = persistence.newDocumentQuery(Lead.MODULE_NAME, Lead.DOCUMENT_NAME);
-		List<Lead> leads = qleads.beanResults();
-		List<MapItem> items = new ArrayList<>();		
+	protected DocumentQuery newQuery() {
+		return CORE.getPersistence().newDocumentQuery(Lead.MODULE_NAME, Lead.DOCUMENT_NAME);
+	}
 
-		for (Lead lead : leads) {
+	@Override
+	protected String getGeometryBinding() {
+		return Lead.companyLocationPropertyName;
+	}
 
-			ContactDetail contact = lead.getContactDetails();
-			
-			MapItem item = new MapItem();
-			item.setBizId(lead.getBizId());
-			item.setModuleName(lead.getBizModule());
-			item.setDocumentName(lead.getBizDocument());
+	@Override
+	protected String getPluralAlias() {
+		return "Leads";
+	}
 
-			MapFeature myLocation = new MapFeature();
-			myLocation.setGeometry(lead.getCompanyLocation());
+	@Override
+	protected void addInfoProjections(DocumentQuery query) {
+		query.addBoundProjection(Lead.namePropertyName);
+		query.addBoundProjection(Lead.websitePropertyName);
+		// join the contact details into the same query rather than loading each one
+		query.addBoundProjection(Binder.createCompoundBinding(Lead.contactDetailsPropertyName, ContactDetail.firstNamePropertyName), FIRST_NAME);
+		query.addBoundProjection(Binder.createCompoundBinding(Lead.contactDetailsPropertyName, ContactDetail.lastNamePropertyName), LAST_NAME);
+		query.addBoundProjection(Binder.createCompoundBinding(Lead.contactDetailsPropertyName, ContactDetail.emailPropertyName), EMAIL);
+		query.addBoundProjection(Binder.createCompoundBinding(Lead.contactDetailsPropertyName, ContactDetail.mobileNumberPropertyName), MOBILE);
+		query.addBoundProjection(Binder.createCompoundBinding(Lead.contactDetailsPropertyName, ContactDetail.businessNumberPropertyName), BUSINESS);
+		query.addBoundProjection(Binder.createCompoundBinding(Lead.contactDetailsPropertyName, ContactDetail.methodPropertyName), METHOD);
+	}
+
+	@Override
+	protected String infoMarkup(Bean row) {
+		Object website = Binder.get(row, Lead.websitePropertyName);
 
-			StringBuilder markup = new StringBuilder();
-			markup.append("<div><h2>").append(lead.getName()).append("</h2>");
-			if (lead.getWebsite() != null) {
-				markup.append("<span><b>Website: </b><i><a href=//").append(lead.getWebsite()).append(">").append(lead.getWebsite()).append("</a></i></br></span>");
-			}			
-			markup.append("<span><b>Contact: </b>").append(contact.getFirstName()).append(" ")
-					.append(contact.getLastName()).append("</br></span>");
-			if (lead.getContactDetails().getEmail() != null) {
-				markup.append("<span><b>Email: </b>").append(contact.getEmail()).append("</br></span>");
-			}
-			if (lead.getContactDetails().getMobileNumber() != null) {
-				markup.append("<span><b>Mobile: </b>").append(contact.getMobileNumber()).append("</br></span>");
-			}
-			if (lead.getContactDetails().getBusinessNumber() != null) {
-				markup.append("<span><b>Business: </b>").append(contact.getBusinessNumber()).append("</br></span>");
-			}
-			markup.append("<span><b>Preferred Method of Contact: </b>").append(contact.getMethod());
-			markup.append("</span></div>");
-			item.setInfoMarkup(markup.toString());
-			item.getFeatures().add(myLocation);
-			items.add(item);
+		StringBuilder markup = new StringBuilder();
+		markup.append("<div><h2>").append(Binder.get(row, Lead.namePropertyName)).append("</h2>");
+		if (website != null) {
+			markup.append("<span><b>Website: </b><i><a href=//").append(website).append(">").append(website).append("</a></i></br></span>");
+		}
+		markup.append("<span><b>Contact: </b>").append(Binder.get(row, FIRST_NAME)).append(" ")
+				.append(Binder.get(row, LAST_NAME)).append("</br></span>");
+		appendIfPresent(markup, "Email", Binder.get(row, EMAIL));
+		appendIfPresent(markup, "Mobile", Binder.get(row, MOBILE));
+		appendIfPresent(markup, "Business", Binder.get(row, BUSINESS));
+		markup.append("<span><b>Preferred Method of Contact: </b>").append(Binder.get(row, METHOD));
+		markup.append("</span></div>");
+		return markup.toString();
+	}
 
+	private static void appendIfPresent(StringBuilder markup, String label, Object value) {
+		if (value != null) {
+			markup.append("<span><b>").append(label).append(": </b>").append(value).append("</br></span>");
 		}
-		return new MapResult(items, null);
 	}
 }
\ No newline at end of file
@@ -5,6 +5,10 @@ import org.skyve.metadata.controller.ImplicitActionName;
 import org.skyve.metadata.model.document.Bizlet;
 import org.skyve.web.WebContext;
 
+import modules.customers.AccountSalesSummary.AccountSalesSummaryService;
+import modules.customers.domain.Account;
+import modules.sales.ProcessLifeCycle.ProcessLifeCycleResolver;
+
 public class OpportunityBizlet extends Bizlet<OpportunityExtension> {
 
 	private static final long serialVersionUID = -1901236116078837869L;
@@ -31,7 +35,7 @@ public class OpportunityBizlet extends Bizlet<OpportunityExtension> {
 			}	
 		}
 		if (bean.isPersisted()) {
-			bean.sortInteractions();
+			bean.loadInteractions();
 		}
 		
 		return super.preExecute(actionName, bean, parentBean, webContext);
@@ -42,4 +46,22 @@ public class OpportunityBizlet extends Bizlet<OpportunityExtension> {
 		bean.deletedInteraction();
 		super.preDelete(bean);
 	}
+	
+	@Override
+	public void postSave(OpportunityExtension bean) throws Exception {
+		// the latest opportunity and sales summary may have changed for the account, and for any account it was moved from
+		Account movedFrom = AccountSalesSummaryService.movedFrom(bean, OpportunityExtension.accountPropertyName, bean.getAccount());
+		ProcessLifeCycleResolver.invalidate(bean.getAccount());
+		ProcessLifeCycleResolver.invalidate(movedFrom);
+		AccountSalesSummaryService.refresh(bean.getAccount());
+		AccountSalesSummaryService.refresh(movedFrom);
+		super.postSave(bean);
+	}
+	
+	@Override
+	public void postDelete(OpportunityExtension bean) throws Exception {
+		ProcessLifeCycleResolver.invalidate(bean.getAccount());
+		AccountSalesSummaryService.refresh(bean.getAccount());
+		super.postDelete(bean);
+	}
 }
@@ -6,6 +6,9 @@ import org.skyve.metadata.controller.ImplicitActionName;
 import org.skyve.metadata.model.document.Bizlet;
 import org.skyve.web.WebContext;
 
+import modules.customers.AccountSalesSummary.AccountSalesSummaryService;
+import modules.customers.domain.Account;
+import modules.sales.ProcessLifeCycle.ProcessLifeCycleResolver;
 import modules.sales.domain.Order;
 
 public class OrderBizlet extends Bizlet<OrderExtension> {
@@ -33,7 +36,7 @@ public class OrderBizlet extends Bizlet<OrderExtension> {
 			}
 		}
 		if (bean.isPersisted()) {
-			bean.sortInteractions();
+			bean.loadInteractions();
 		}
 		return super.preExecute(actionName, bean, parentBean, webContext);
 	}
@@ -44,6 +47,24 @@ public class OrderBizlet extends Bizlet<OrderExtension> {
 		super.preDelete(bean);
 	}
 	
+	@Override
+	public void postSave(OrderExtension bean) throws Exception {
+		// the latest order and sales summary may have changed for the account, and for any account it was moved from
+		Account movedFrom = AccountSalesSummaryService.movedFrom(bean, OrderExtension.accountPropertyName, bean.getAccount());
+		ProcessLifeCycleResolver.invalidate(bean.getAccount());
+		ProcessLifeCycleResolver.invalidate(movedFrom);
+		AccountSalesSummaryService.refresh(bean.getAccount());
+		AccountSalesSummaryService.refresh(movedFrom);
+		super.postSave(bean);
+	}
+	
+	@Override
+	public void postDelete(OrderExtension bean) throws Exception {
+		ProcessLifeCycleResolver.invalidate(bean.getAccount());
+		AccountSalesSummaryService.refresh(bean.getAccount());
+		super.postDelete(bean);
+	}
+	
 	@Override
 	public void preRerender(String source, OrderExtension bean, WebContext webContext) throws Exception {
 		if (bean.getQuote() != null) {
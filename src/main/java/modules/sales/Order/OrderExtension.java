@@ -1,14 +1,6 @@
 package modules.sales.Order;
 
-import org.skyve.CORE;
-import org.skyve.metadata.customer.Customer;
-import org.skyve.metadata.model.document.Document;
-import org.skyve.metadata.module.Module;
-import org.skyve.metadata.user.User;
-import org.skyve.util.Binder;
-
 import modules.customers.Interaction.InteractionExtension;
-import modules.customers.domain.Account;
 import modules.customers.domain.Interaction;
 import modules.customers.domain.Interaction.Type;
 import modules.sales.domain.Order;
@@ -24,7 +16,7 @@ public class OrderExtension extends Order {
 		interaction.setDescription(interaction.getUser().getContact().getName() + " created a new order for account: " + 
 				getAccount().getPrimaryContact().getFirstName()
 				+ " " + getAccount().getPrimaryContact().getLastName());
-		getAccount().getInteractions().add(interaction);
+		getAccount().queueInteraction(interaction);
 	}
 	public void createInteraction(final Type type, final String description, final String document) {
 		InteractionExtension interaction = Interaction.newInstance();
@@ -34,7 +26,7 @@ public class OrderExtension extends Order {
 		if (document != null) {
 			interaction.setDocument(document);
 		}
-		getAccount().getInteractions().add(interaction);
+		getAccount().queueInteraction(interaction);
 	}
 	
 	public void updateInteraction() {
@@ -42,7 +34,7 @@ public class OrderExtension extends Order {
 		interaction.setTitle("Updated Order");
 		interaction.setType(Type.other);
 		interaction.setDescription(interaction.getUser().getContact().getName() + " updated the order details for " + getOrderId() + " with account: " + getAccount().getAccountName() + ".");
-		getAccount().getInteractions().add(interaction);
+		getAccount().queueInteraction(interaction);
 	}
 
 	public void deletedInteraction() {
@@ -52,19 +44,10 @@ public class OrderExtension extends Order {
 		interaction.setTitle("Deleted Order");
 		interaction.setType(Type.other);
 		interaction.setDescription(interaction.getUser().getContact().getName() + " deleted the order " + getOrderId() + ".");
-		getAccount().getInteractions().add(interaction);
+		getAccount().queueInteraction(interaction);
 	}
 	
-	public void sortInteractions() {
-		User user = CORE.getUser();
-		Customer customer = user.getCustomer();
-		Module module = customer.getModule(Account.MODULE_NAME);
-		Document document = module.getDocument(customer, Account.DOCUMENT_NAME);
-		String collectionBinding = Account.interactionsPropertyName;
-		Binder.sortCollectionByMetaData(getAccount(), customer, module, document, collectionBinding);
-		
-		if (getAccount().getInteractions().size() > 50) {
-			getAccount().getInteractions().retainAll(getAccount().getInteractions().subList(0, 50));
-		}
+	public void loadInteractions() {
+		getAccount().loadInteractions();
 	}
 }
\ No newline at end of file
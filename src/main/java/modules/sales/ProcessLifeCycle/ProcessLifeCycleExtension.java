@@ -3,13 +3,7 @@ package modules.sales.ProcessLifeCycle;
 import java.util.HashMap;
 import java.util.Map;
 
-import org.skyve.CORE;
 import org.skyve.EXT;
-import org.skyve.domain.Bean;
-import org.skyve.metadata.SortDirection;
-import org.skyve.persistence.DocumentQuery;
-import org.skyve.persistence.Persistence;
-import org.skyve.util.Binder;
 import org.skyve.util.Util;
 
 import modules.customers.domain.Account;
@@ -29,64 +23,45 @@ public class ProcessLifeCycleExtension extends ProcessLifeCycle {
 
 	private static final long serialVersionUID = -5362551133619242186L;
 	
-	@Override
-	public OpportunityExtension getOpportunity() {
-		if (getAccount() != null) {
-			Persistence persistence = CORE.getPersistence();
-			DocumentQuery query = persistence.newDocumentQuery(Opportunity.MODULE_NAME, Opportunity.DOCUMENT_NAME);
-			query.getFilter().addEquals(Binder.createCompoundBinding(Opportunity.accountPropertyName, Bean.DOCUMENT_ID), this.getAccount().getBizId());
-			query.addBoundOrdering(Opportunity.LOCK_NAME, SortDirection.descending);
-			
-			return query.beanResult();
+	/**
+	 * The latest sales documents for the selected account, resolved in one query and
+	 * kept until the account changes or one of its sales documents is saved.
+	 */
+	private transient ProcessLifeCycleResolver.Resolution latest;
+	
+	private ProcessLifeCycleResolver.Resolution getLatest() {
+		Account account = getAccount();
+		if (account == null) {
+			latest = null;
 		}
-		else {
-			return null;
+		else if ((latest == null) || (! latest.isCurrent(account.getBizId()))) {
+			latest = ProcessLifeCycleResolver.resolve(account);
 		}
+		return latest;
 	}
 	
 	@Override
-	public QuoteExtension getQuote() {
-		if (getAccount() != null) {
-			Persistence persistence = CORE.getPersistence();
-			DocumentQuery query = persistence.newDocumentQuery(Quote.MODULE_NAME, Quote.DOCUMENT_NAME);
-			query.getFilter().addEquals(Binder.createCompoundBinding(Quote.accountPropertyName, Bean.DOCUMENT_ID), this.getAccount().getBizId());				
-			query.addBoundOrdering(Quote.LOCK_NAME, SortDirection.descending);
+	public OpportunityExtension getOpportunity() {
+		ProcessLifeCycleResolver.Resolution resolution = getLatest();
+		return (resolution == null) ? null : resolution.getOpportunity();
+	}
 	
-			return query.beanResult();
-		}
-		else {
-			return null;
-		}
+	@Override
+	public QuoteExtension getQuote() {
+		ProcessLifeCycleResolver.Resolution resolution = getLatest();
+		return (resolution == null) ? null : resolution.getQuote();
 	}
 	
 	@Override
 	public OrderExtension getOrder() {
-		if (getAccount() != null) {
-			Persistence persistence = CORE.getPersistence();
-			DocumentQuery query = persistence.newDocumentQuery(Order.MODULE_NAME, Order.DOCUMENT_NAME);
-			query.getFilter().addEquals(Binder.createCompoundBinding(Order.accountPropertyName, Bean.DOCUMENT_ID), this.getAccount().getBizId());
-			query.addBoundOrdering(Order.LOCK_NAME, SortDirection.descending);
-			
-			return query.beanResult();
-		}
-		else {
-			return null;
-		}
+		ProcessLifeCycleResolver.Resolution resolution = getLatest();
+		return (resolution == null) ? null : resolution.getOrder();
 	}
 	
 	@Override
 	public InvoiceExtension getInvoice() {
-		if (getAccount() != null) {
-			Persistence persistence = CORE.getPersistence();
-			DocumentQuery query = persistence.newDocumentQuery(Invoice.MODULE_NAME, Invoice.DOCUMENT_NAME);
-			query.getFilter().addEquals(Binder.createCompoundBinding(Invoice.accountPropertyName, Bean.DOCUMENT_ID), this.getAccount().getBizId());
-			query.addBoundOrdering(Invoice.LOCK_NAME, SortDirection.descending);
-			
-			return query.beanResult();
-		}
-		else {
-			return null;
-		}
+		ProcessLifeCycleResolver.Resolution resolution = getLatest();
+		return (resolution == null) ? null : resolution.getInvoice();
 	}
 	
 	@Override
@@ -115,20 +90,22 @@ public class ProcessLifeCycleExtension extends ProcessLifeCycle {
 			accountUrl = Util.getDocumentUrl(Account.MODULE_NAME, Account.DOCUMENT_NAME, getAccount().getBizId());
 			accountClass = "current";
 			
-			if (getOpportunity() != null) {
-				opportunityUrl = Util.getDocumentUrl(Opportunity.MODULE_NAME, Opportunity.DOCUMENT_NAME, getOpportunity().getBizId());
+			// only the bizIds are needed for the links so no beans are retrieved here
+			ProcessLifeCycleResolver.Resolution resolution = getLatest();
+			if (resolution.getOpportunityId() != null) {
+				opportunityUrl = Util.getDocumentUrl(Opportunity.MODULE_NAME, Opportunity.DOCUMENT_NAME, resolution.getOpportunityId());
 				opportunityClass = "current";
 			}
-			if (getQuote() != null) {
-				quoteUrl = Util.getDocumentUrl(Quote.MODULE_NAME, Quote.DOCUMENT_NAME, getQuote().getBizId());
+			if (resolution.getQuoteId() != null) {
+				quoteUrl = Util.getDocumentUrl(Quote.MODULE_NAME, Quote.DOCUMENT_NAME, resolution.getQuoteId());
 				quoteClass = "current";
 			}
-			if (getOrder() != null) {
-				orderUrl = Util.getDocumentUrl(Order.MODULE_NAME, Order.DOCUMENT_NAME, getOrder().getBizId());
+			if (resolution.getOrderId() != null) {
+				orderUrl = Util.getDocumentUrl(Order.MODULE_NAME, Order.DOCUMENT_NAME, resolution.getOrderId());
 				orderClass = "current";
 			}
-			if (getInvoice() != null) {
-				invoiceUrl = Util.getDocumentUrl(Invoice.MODULE_NAME, Invoice.DOCUMENT_NAME, getInvoice().getBizId());
+			if (resolution.getInvoiceId() != null) {
+				invoiceUrl = Util.getDocumentUrl(Invoice.MODULE_NAME, Invoice.DOCUMENT_NAME, resolution.getInvoiceId());
 				invoiceClass = "current";
 			}
 		}
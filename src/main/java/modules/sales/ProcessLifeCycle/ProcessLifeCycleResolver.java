@@ -0,0 +1,313 @@
+package modules.sales.ProcessLifeCycle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+import org.skyve.CORE;
+import org.skyve.domain.Bean;
+import org.skyve.domain.PersistentBean;
+import org.skyve.metadata.customer.Customer;
+import org.skyve.metadata.model.document.Document;
+import org.skyve.metadata.module.Module;
+import org.skyve.metadata.user.DocumentPermissionScope;
+import org.skyve.metadata.user.User;
+import org.skyve.persistence.Persistence;
+import org.skyve.persistence.SQL;
+import org.skyve.util.Util;
+
+import modules.customers.domain.Account;
+import modules.sales.Invoice.InvoiceExtension;
+import modules.sales.Opportunity.OpportunityExtension;
+import modules.sales.Order.OrderExtension;
+import modules.sales.Quote.QuoteExtension;
+import modules.sales.domain.Invoice;
+import modules.sales.domain.Opportunity;
+import modules.sales.domain.Order;
+import modules.sales.domain.Quote;
+
+/**
+ * Resolves the latest Opportunity, Quote, Order and Invoice for an account in a single round trip.
+ * <p>
+ * Only the documents the user can read are resolved. Each document's rows are limited by the user's permission
+ * scope for it, by customer, data group and user, as a DocumentQuery would be.
+ * <p>
+ * Resolutions are held by the caller (usually the conversation's {@link ProcessLifeCycleExtension})
+ * and remain current until {@link #invalidate(String)} is called for the account, which the sales
+ * document bizlets do whenever one of those documents is saved or deleted. Invalidation is local to this server
+ * and only follows saves and deletes that run the bizlets. Changes made on another server in a cluster, or by
+ * tuple upserts such as those of ImportJob and RefreshDocumentTuplesJob, leave a held resolution as it was until
+ * the account changes or the conversation ends. The flowbar then shows the document that was latest when it was
+ * resolved.
+ */
+public final class ProcessLifeCycleResolver {
+	/**
+	 * Once this many accounts have been invalidated, the version map is cleared and the epoch moved on
+	 * so that the map cannot grow without bound.
+	 */
+	private static final int MAX_TRACKED_ACCOUNTS = 10000;
+
+	private static final AtomicLong VERSION = new AtomicLong();
+	private static volatile long epoch = 0L;
+	private static final ConcurrentMap<String, Long> ACCOUNT_VERSIONS = new ConcurrentHashMap<>();
+
+	private static final String ACCOUNT_ID_PARAMETER = "accountId";
+	private static final String DATA_GROUP_ID_PARAMETER = "dataGroupId";
+	private static final String USER_ID_PARAMETER = "userId";
+
+	private ProcessLifeCycleResolver() {
+		// static methods only
+	}
+
+	/**
+	 * The union of the latest selects of each sales document the user can read.
+	 *
+	 * @return	The SQL, or null if the user cannot read any of the documents.
+	 */
+	private static String latestSQL(User user) {
+		Customer customer = user.getCustomer();
+		Module module = customer.getModule(Opportunity.MODULE_NAME);
+		List<String> selects = new ArrayList<>(4);
+		addLatestSelect(selects, user, module.getDocument(customer, Opportunity.DOCUMENT_NAME), Opportunity.accountPropertyName);
+		addLatestSelect(selects, user, module.getDocument(customer, Quote.DOCUMENT_NAME), Quote.accountPropertyName);
+		addLatestSelect(selects, user, module.getDocument(customer, Order.DOCUMENT_NAME), Order.accountPropertyName);
+		addLatestSelect(selects, user, module.getDocument(customer, Invoice.DOCUMENT_NAME), Invoice.accountPropertyName);
+		return selects.isEmpty() ? null : String.join(" union all ", selects);
+	}
+
+	/**
+	 * Add a select of the bizId of the most recently locked row for the account that the user can read
+	 * from the document's table.
+	 */
+	private static void addLatestSelect(List<String> selects, User user, Document document, String accountPropertyName) {
+		String scope = scope(user, document);
+		if (scope == null) {
+			return;
+		}
+
+		String tableName = document.getPersistent().getPersistentIdentifier();
+		String accountColumn = accountPropertyName + "_id";
+		selects.add(String.format("select '%s', %s from %s where %s and %s = :%s and %s = " +
+									"(select max(%s) from %s where %s and %s = :%s)",
+									document.getName(),
+									Bean.DOCUMENT_ID,
+									tableName,
+									scope,
+									accountColumn,
+									ACCOUNT_ID_PARAMETER,
+									PersistentBean.LOCK_NAME,
+									PersistentBean.LOCK_NAME,
+									tableName,
+									scope,
+									accountColumn,
+									ACCOUNT_ID_PARAMETER));
+	}
+
+	/**
+	 * The predicates that limit a document's table to the rows the user can read.
+	 *
+	 * @return	The predicates, or null if the user cannot read the document.
+	 */
+	private static String scope(User user, Document document) {
+		DocumentPermissionScope scope = user.getScope(document.getOwningModuleName(), document.getName());
+		if (DocumentPermissionScope.none.equals(scope)) {
+			return null;
+		}
+
+		StringBuilder result = new StringBuilder(128);
+		result.append(Bean.CUSTOMER_NAME).append(" = :").append(Bean.CUSTOMER_NAME);
+		if ((DocumentPermissionScope.dataGroup.equals(scope) || DocumentPermissionScope.user.equals(scope)) &&
+				(user.getDataGroupId() != null)) {
+			result.append(" and ").append(Bean.DATA_GROUP_ID).append(" = :").append(DATA_GROUP_ID_PARAMETER);
+		}
+		if (DocumentPermissionScope.user.equals(scope)) {
+			result.append(" and ").append(Bean.USER_ID).append(" = :").append(USER_ID_PARAMETER);
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Load the bizIds of the latest sales documents for the given account.
+	 *
+	 * @param account	The account to resolve for.
+	 * @return	The resolution, or null if there is no account.
+	 */
+	public static Resolution resolve(Account account) {
+		if (account == null) {
+			return null;
+		}
+
+		String accountBizId = account.getBizId();
+		// take the version before querying so that a concurrent save makes this resolution stale
+		long version = currentVersion(accountBizId);
+		long start = System.nanoTime();
+
+		Resolution result = new Resolution(accountBizId, version);
+
+		Persistence persistence = CORE.getPersistence();
+		User user = persistence.getUser();
+		String latestSQL = latestSQL(user);
+		if (latestSQL == null) {
+			return result;
+		}
+
+		SQL sql = persistence.newSQL(latestSQL);
+		sql.putParameter(Bean.CUSTOMER_NAME, account.getBizCustomer(), false);
+		sql.putParameter(ACCOUNT_ID_PARAMETER, accountBizId, false);
+		if (latestSQL.contains(":" + DATA_GROUP_ID_PARAMETER)) {
+			sql.putParameter(DATA_GROUP_ID_PARAMETER, user.getDataGroupId(), false);
+		}
+		if (latestSQL.contains(":" + USER_ID_PARAMETER)) {
+			sql.putParameter(USER_ID_PARAMETER, user.getId(), false);
+		}
+		List<Object[]> rows = sql.tupleResults();
+
+		for (Object[] row : rows) {
+			String documentName = (String) row[0];
+			String bizId = (String) row[1];
+			// bizLock ties yield more than one row; keep the first
+			if (Opportunity.DOCUMENT_NAME.equals(documentName)) {
+				if (result.opportunityId == null) {
+					result.opportunityId = bizId;
+				}
+			}
+			else if (Quote.DOCUMENT_NAME.equals(documentName)) {
+				if (result.quoteId == null) {
+					result.quoteId = bizId;
+				}
+			}
+			else if (Order.DOCUMENT_NAME.equals(documentName)) {
+				if (result.orderId == null) {
+					result.orderId = bizId;
+				}
+			}
+			else if (Invoice.DOCUMENT_NAME.equals(documentName)) {
+				if (result.invoiceId == null) {
+					result.invoiceId = bizId;
+				}
+			}
+		}
+
+		if (Util.LOGGER.isLoggable(Level.FINE)) {
+			Util.LOGGER.fine(String.format("Resolved process life cycle for account %s in %d ms",
+											accountBizId,
+											Long.valueOf((System.nanoTime() - start) / 1000000L)));
+		}
+
+		return result;
+	}
+
+	/**
+	 * Mark any resolutions for the given account as stale.
+	 *
+	 * @param accountBizId	The bizId of the account whose sales documents changed.
+	 */
+	public static void invalidate(String accountBizId) {
+		if (accountBizId == null) {
+			return;
+		}
+		if (ACCOUNT_VERSIONS.size() >= MAX_TRACKED_ACCOUNTS) {
+			synchronized (ACCOUNT_VERSIONS) {
+				if (ACCOUNT_VERSIONS.size() >= MAX_TRACKED_ACCOUNTS) {
+					// move the epoch on first so every existing resolution becomes stale
+					epoch = VERSION.incrementAndGet();
+					ACCOUNT_VERSIONS.clear();
+				}
+			}
+		}
+		ACCOUNT_VERSIONS.put(accountBizId, Long.valueOf(VERSION.incrementAndGet()));
+	}
+
+	/**
+	 * Convenience for bizlets - invalidate the account of a sales document, if it has one.
+	 *
+	 * @param account	The account of the saved or deleted sales document.
+	 */
+	public static void invalidate(Account account) {
+		if (account != null) {
+			invalidate(account.getBizId());
+		}
+	}
+
+	private static long currentVersion(String accountBizId) {
+		Long version = ACCOUNT_VERSIONS.get(accountBizId);
+		return (version == null) ? epoch : version.longValue();
+	}
+
+	/**
+	 * The latest sales documents for an account.
+	 * The bizIds are resolved eagerly; the beans are retrieved only when asked for and then remembered.
+	 */
+	public static final class Resolution {
+		private final String accountBizId;
+		private final long version;
+		private String opportunityId;
+		private String quoteId;
+		private String orderId;
+		private String invoiceId;
+		private OpportunityExtension opportunity;
+		private QuoteExtension quote;
+		private OrderExtension order;
+		private InvoiceExtension invoice;
+
+		Resolution(String accountBizId, long version) {
+			this.accountBizId = accountBizId;
+			this.version = version;
+		}
+
+		/**
+		 * @param currentAccountBizId	The bizId of the account currently selected.
+		 * @return	true if this resolution is for the given account and nothing has been saved against it since.
+		 */
+		public boolean isCurrent(String currentAccountBizId) {
+			return accountBizId.equals(currentAccountBizId) && (version == currentVersion(accountBizId));
+		}
+
+		public String getOpportunityId() {
+			return opportunityId;
+		}
+
+		public String getQuoteId() {
+			return quoteId;
+		}
+
+		public String getOrderId() {
+			return orderId;
+		}
+
+		public String getInvoiceId() {
+			return invoiceId;
+		}
+
+		public OpportunityExtension getOpportunity() {
+			if ((opportunity == null) && (opportunityId != null)) {
+				opportunity = CORE.getPersistence().retrieve(Opportunity.MODULE_NAME, Opportunity.DOCUMENT_NAME, opportunityId);
+			}
+			return opportunity;
+		}
+
+		public QuoteExtension getQuote() {
+			if ((quote == null) && (quoteId != null)) {
+				quote = CORE.getPersistence().retrieve(Quote.MODULE_NAME, Quote.DOCUMENT_NAME, quoteId);
+			}
+			return quote;
+		}
+
+		public OrderExtension getOrder() {
+			if ((order == null) && (orderId != null)) {
+				order = CORE.getPersistence().retrieve(Order.MODULE_NAME, Order.DOCUMENT_NAME, orderId);
+			}
+			return order;
+		}
+
+		public InvoiceExtension getInvoice() {
+			if ((invoice == null) && (invoiceId != null)) {
+				invoice = CORE.getPersistence().retrieve(Invoice.MODULE_NAME, Invoice.DOCUMENT_NAME, invoiceId);
+			}
+			return invoice;
+		}
+	}
+}
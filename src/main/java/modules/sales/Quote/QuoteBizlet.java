@@ -6,6 +6,9 @@ import org.skyve.metadata.controller.ImplicitActionName;
 import org.skyve.metadata.model.document.Bizlet;
 import org.skyve.web.WebContext;
 
+import modules.customers.AccountSalesSummary.AccountSalesSummaryService;
+import modules.customers.domain.Account;
+import modules.sales.ProcessLifeCycle.ProcessLifeCycleResolver;
 import modules.sales.domain.Quote;
 
 public class QuoteBizlet extends Bizlet<QuoteExtension> {
@@ -35,7 +38,7 @@ public class QuoteBizlet extends Bizlet<QuoteExtension> {
 			}
 		}
 		if (bean.isPersisted()) {
-			bean.sortInteractions();
+			bean.loadInteractions();
 		}
 		return super.preExecute(actionName, bean, parentBean, webContext);
 	}
@@ -46,6 +49,24 @@ public class QuoteBizlet extends Bizlet<QuoteExtension> {
 		super.preDelete(bean);
 	}
 	
+	@Override
+	public void postSave(QuoteExtension bean) throws Exception {
+		// the latest quote and sales summary may have changed for the account, and for any account it was moved from
+		Account movedFrom = AccountSalesSummaryService.movedFrom(bean, QuoteExtension.accountPropertyName, bean.getAccount());
+		ProcessLifeCycleResolver.invalidate(bean.getAccount());
+		ProcessLifeCycleResolver.invalidate(movedFrom);
+		AccountSalesSummaryService.refresh(bean.getAccount());
+		AccountSalesSummaryService.refresh(movedFrom);
+		super.postSave(bean);
+	}
+	
+	@Override
+	public void postDelete(QuoteExtension bean) throws Exception {
+		ProcessLifeCycleResolver.invalidate(bean.getAccount());
+		AccountSalesSummaryService.refresh(bean.getAccount());
+		super.postDelete(bean);
+	}
+	
 	@Override
 	public void preRerender(String source, QuoteExtension bean, WebContext webContext) throws Exception {
 		bean.setTotal(bean.getOpportunity().getTotal());
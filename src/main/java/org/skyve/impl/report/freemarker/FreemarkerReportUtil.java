@@ -1,6 +1,5 @@
 package org.skyve.impl.report.freemarker;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -8,10 +7,12 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
 import java.io.StringWriter;
-import java.nio.charset.Charset;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -65,6 +66,11 @@ public final class FreemarkerReportUtil {
 	private static Configuration cfg;
 	private static PathMatchingResourcePatternResolver resolver;
 
+	/**
+	 * The font files found on the classpath, resolved once and added to each renderer.
+	 */
+	private static volatile FontFiles fontFiles;
+
 	private FreemarkerReportUtil() {
 		// disallow instantiation
 	}
@@ -83,6 +89,7 @@ public final class FreemarkerReportUtil {
 
 		// Use a resolver based on the context class loader
 		resolver = new PathMatchingResourcePatternResolver(cl);
+		fontFiles = null;
 
 		// Define a multi-template loader in the order we want templates discovered
 		MultiTemplateLoader mtl = new MultiTemplateLoader(new TemplateLoader[] { sdtl, ctl, ctl2 });
@@ -265,17 +272,14 @@ public final class FreemarkerReportUtil {
 	throws Exception {
 		final String reportOutput = runReport(reportName, reportParameters);
 
-		// convert merged report output from String to an InputStream
-		byte[] content = reportOutput.getBytes(Util.UTF8);
-
 		// if CSV, return the stream
 		if (format == ReportFormat.csv) {
-			return new Download(String.format("%s.csv", downloadFilename), content, MimeType.csv);
+			return new Download(String.format("%s.csv", downloadFilename), reportOutput.getBytes(Util.UTF8), MimeType.csv);
 		}
 
-		// convert to PDF (writing to PDF requires an OutputStream)
+		// convert to PDF, parsing the merged output directly rather than encoding it first
 		ByteArrayOutputStream baos = new ByteArrayOutputStream();
-		generatePDFFromHTML(new ByteArrayInputStream(content), baos);
+		generatePDFFromHTML(new StringReader(reportOutput), baos);
 
 		return new Download(String.format("%s.pdf", downloadFilename), baos.toByteArray(), MimeType.pdf);
 	}
@@ -303,18 +307,19 @@ public final class FreemarkerReportUtil {
 	 */
 	public static void generatePDFFromHTML(InputStream in, OutputStream outputStream)
 	throws Exception {
-		ITextRenderer renderer = new ITextRenderer();
-		ResourceLoaderUserAgent callback = new ResourceLoaderUserAgent(renderer.getOutputDevice());
-		callback.setSharedContext(renderer.getSharedContext());
-		renderer.getSharedContext().setUserAgentCallback(callback);
-
-		loadFonts(renderer);
-
-		org.w3c.dom.Document doc = XMLResource.load(in).getDocument();
+		generatePDF(XMLResource.load(in).getDocument(), "/", outputStream);
+	}
 
-		renderer.setDocument(doc, "/");
-		renderer.layout();
-		renderer.createPDF(outputStream);
+	/**
+	 * Generates a PDF from HTML
+	 *
+	 * @param in A reader of the source HTML, such as a StringReader over merged report output
+	 * @param outputStream The outputStream to write the resulting PDF to
+	 * @throws Exception
+	 */
+	public static void generatePDFFromHTML(Reader in, OutputStream outputStream)
+	throws Exception {
+		generatePDF(XMLResource.load(in).getDocument(), "/", outputStream);
 	}
 
 	/**
@@ -327,19 +332,22 @@ public final class FreemarkerReportUtil {
 	public static void generatePDFFromHTML(String url, File outputFile)
 	throws Exception {
 		try (OutputStream os = new FileOutputStream(outputFile)) {
-			ITextRenderer renderer = new ITextRenderer();
-			ResourceLoaderUserAgent callback = new ResourceLoaderUserAgent(renderer.getOutputDevice());
-			callback.setSharedContext(renderer.getSharedContext());
-			renderer.getSharedContext().setUserAgentCallback(callback);
+			generatePDF(XMLResource.load(new InputSource(url)).getDocument(), url, os);
+		}
+	}
 
-			loadFonts(renderer);
+	private static void generatePDF(org.w3c.dom.Document doc, String url, OutputStream outputStream)
+	throws Exception {
+		ITextRenderer renderer = new ITextRenderer();
+		ResourceLoaderUserAgent callback = new ResourceLoaderUserAgent(renderer.getOutputDevice());
+		callback.setSharedContext(renderer.getSharedContext());
+		renderer.getSharedContext().setUserAgentCallback(callback);
 
-			org.w3c.dom.Document doc = XMLResource.load(new InputSource(url)).getDocument();
+		loadFonts(renderer);
 
-			renderer.setDocument(doc, url);
-			renderer.layout();
-			renderer.createPDF(os);
-		}
+		renderer.setDocument(doc, url);
+		renderer.layout();
+		renderer.createPDF(outputStream);
 	}
 
 	public static Template getBeanReport(final Bean bean, final String reportName)
@@ -440,16 +448,15 @@ public final class FreemarkerReportUtil {
 			try (StringWriter sw = new StringWriter()) {
 				template.process(reportParameters, sw);
 
-				// write the output string to an input stream
-				InputStream inputStream = new ByteArrayInputStream(sw.toString().getBytes(Charset.forName("UTF-8")));
-
 				Path tempDir = Paths.get(Util.getContentDirectory(), "temp");
 				tempDir.toFile().mkdirs();
 
 				File pdfFile = tempDir.resolve(String.format("%s.pdf", reportFilename)).toFile();
 				pdfFile.deleteOnExit();
 
-				generatePDFFromHTML(inputStream, pdfFile);
+				try (OutputStream out = new FileOutputStream(pdfFile)) {
+					generatePDFFromHTML(new StringReader(sw.toString()), out);
+				}
 
 				return pdfFile;
 			}
@@ -479,46 +486,84 @@ public final class FreemarkerReportUtil {
 	}
 
 	/**
-	 * Attempts to automatically load any fonts found in the fonts directory found on the classpath.
+	 * Adds the fonts found in the fonts directory on the classpath to a renderer.
+	 * The font files are only looked for once, and iText caches each font once it has been read.
 	 * 
 	 * @param renderer The PDF Renderer to embed the font into
 	 * @throws IOException
 	 */
 	private static void loadFonts(ITextRenderer renderer) throws IOException {
-		// load any fonts found on the classpath in fonts/
-		try {
-			getFontResources().stream()
-					.forEach(r -> {
-						try {
-							File f = r.getFile();
-							renderer.getFontResolver().addFont(f.toString(), true);
-							Util.LOGGER.info("Loaded font for PDF: " + r.getFilename());
-						}
-						catch (DocumentException | IOException e) {
-							Util.LOGGER.warning("Error loading font file: " + r.getFilename());
-							e.printStackTrace();
-						}
-					});
-
-			// load any unicode fonts found on the classpath in fonts/unicode/
-			getUnicodeFontResources().stream()
-					.forEach(r -> {
-						try {
-							File f = r.getFile();
-							// required to load unicode fonts
-							renderer.getFontResolver().addFont(f.toString(), BaseFont.IDENTITY_H, true);
-							Util.LOGGER.info("Loaded unicode font for PDF: " + r.getFilename());
+		FontFiles files = fontFiles();
+		for (String f : files.fonts) {
+			try {
+				renderer.getFontResolver().addFont(f, true);
+			}
+			catch (DocumentException | IOException e) {
+				Util.LOGGER.warning("Error loading font file: " + f);
+				e.printStackTrace();
+			}
+		}
+		for (String f : files.unicodeFonts) {
+			try {
+				// required to load unicode fonts
+				renderer.getFontResolver().addFont(f, BaseFont.IDENTITY_H, true);
+			}
+			catch (DocumentException | IOException e) {
+				Util.LOGGER.warning("Error loading unicode font file: " + f);
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Finds the font files on the classpath the first time they are needed.
+	 */
+	static FontFiles fontFiles() throws IOException {
+		FontFiles result = fontFiles;
+		if (result == null) {
+			synchronized (FreemarkerReportUtil.class) {
+				result = fontFiles;
+				if (result == null) {
+					result = new FontFiles();
+					try {
+						// load any fonts found on the classpath in fonts/
+						for (Resource r : getFontResources()) {
+							try {
+								result.fonts.add(r.getFile().toString());
+								Util.LOGGER.info("Loaded font for PDF: " + r.getFilename());
+							}
+							catch (IOException e) {
+								Util.LOGGER.warning("Error loading font file: " + r.getFilename());
+								e.printStackTrace();
+							}
 						}
-						catch (DocumentException | IOException e) {
-							Util.LOGGER.warning("Error loading unicode font file: " + r.getFilename());
-							e.printStackTrace();
+
+						// load any unicode fonts found on the classpath in fonts/unicode/
+						for (Resource r : getUnicodeFontResources()) {
+							try {
+								result.unicodeFonts.add(r.getFile().toString());
+								Util.LOGGER.info("Loaded unicode font for PDF: " + r.getFilename());
+							}
+							catch (IOException e) {
+								Util.LOGGER.warning("Error loading unicode font file: " + r.getFilename());
+								e.printStackTrace();
+							}
 						}
-					});
-		}
-		catch (FileNotFoundException fnfe) {
-			// fonts directory not defined or empty
-			Util.LOGGER.warning("Error loading fonts for report: " + fnfe.getMessage());
+					}
+					catch (FileNotFoundException fnfe) {
+						// fonts directory not defined or empty
+						Util.LOGGER.warning("Error loading fonts for report: " + fnfe.getMessage());
+					}
+					fontFiles = result;
+				}
+			}
 		}
+		return result;
+	}
+
+	static final class FontFiles {
+		private final List<String> fonts = new ArrayList<>();
+		private final List<String> unicodeFonts = new ArrayList<>();
 	}
 
 	/**
@@ -0,0 +1,155 @@
+package modules.admin;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.skyve.CORE;
+import org.skyve.domain.Bean;
+import org.skyve.domain.types.Timestamp;
+import org.skyve.metadata.customer.Customer;
+import org.skyve.metadata.user.User;
+import org.skyve.persistence.Persistence;
+
+import modules.admin.DataMaintenance.DataMaintenanceExtension;
+import modules.admin.DataMaintenance.actions.TruncateAuditLog;
+import modules.admin.domain.Audit;
+import modules.admin.domain.Audit.Operation;
+import modules.admin.domain.Contact;
+import util.AbstractH2TestForJUnit5;
+
+public class AuditDetailsTest extends AbstractH2TestForJUnit5 {
+	private static final int VERSIONS = 25;
+	private static final long START_MILLIS = 1600000000000L;
+
+	private Persistence p;
+	private User u;
+	private Customer c;
+	private String auditBizId;
+
+	@BeforeEach
+	public void before() {
+		p = CORE.getPersistence();
+		u = p.getUser();
+		c = u.getCustomer();
+		auditBizId = UUID.randomUUID().toString();
+		AuditDetails.forgetLatestStates();
+	}
+
+	@Test
+	@SuppressWarnings("boxing")
+	public void testUpdatesAreStoredAsDeltasBetweenSnapshots() throws Exception {
+		List<Audit> audits = writeVersions(false);
+
+		for (int i = 0; i < VERSIONS; i++) {
+			Audit audit = audits.get(i);
+			boolean snapshot = (i % AuditDetails.SNAPSHOT_INTERVAL == 0);
+			assertThat(audit.getAuditDetail().startsWith(AuditDetails.DELTA_PREFIX), is(! snapshot));
+			assertThat(AuditDetails.reconstruct(u, audit), is(state(i)));
+		}
+	}
+
+	@Test
+	public void testEncodingWithoutTheLatestStateReadsThePreviousAudits() throws Exception {
+		List<Audit> cached = writeVersions(false);
+		auditBizId = UUID.randomUUID().toString();
+		List<Audit> uncached = writeVersions(true);
+
+		for (int i = 0; i < VERSIONS; i++) {
+			assertThat(AuditDetails.reconstruct(u, uncached.get(i)), is(AuditDetails.reconstruct(u, cached.get(i))));
+		}
+	}
+
+	@Test
+	@SuppressWarnings("boxing")
+	public void testTruncationKeepsTheRemainingDeltasReadable() throws Exception {
+		List<Audit> audits = writeVersions(false);
+
+		// truncate a delta, the snapshot after it and the delta after that
+		DataMaintenanceExtension dm = new DataMaintenanceExtension();
+		dm.setAuditTimestampStart(new Timestamp(millis(9)));
+		dm.setAuditTimestampEnd(new Timestamp(millis(11)));
+		long from = millis(0);
+		long to = millis(VERSIONS);
+		int rewritten = TruncateAuditLog.snapshotBrokenChains(p, dm, from, to);
+		int deleted = TruncateAuditLog.deleteAudits(p, dm, from, to);
+		AuditDetails.forgetLatestStates();
+
+		assertThat(rewritten, is(1));
+		assertThat(deleted, is(3));
+
+		p.evictAllCached();
+		for (int i = 0; i < VERSIONS; i++) {
+			if ((i < 9) || (i > 11)) {
+				Audit audit = p.retrieve(Audit.MODULE_NAME, Audit.DOCUMENT_NAME, audits.get(i).getBizId());
+				assertThat(AuditDetails.reconstruct(u, audit), is(state(i)));
+			}
+		}
+		Audit rewrittenAudit = p.retrieve(Audit.MODULE_NAME, Audit.DOCUMENT_NAME, audits.get(12).getBizId());
+		assertThat(rewrittenAudit.getAuditDetail().startsWith(AuditDetails.DELTA_PREFIX), is(false));
+
+		// the next update carries on from the rewritten snapshot
+		Audit next = write(VERSIONS, Operation.update);
+		assertThat(AuditDetails.reconstruct(u, next), is(state(VERSIONS)));
+	}
+
+	private List<Audit> writeVersions(boolean forgetLatestStates) throws Exception {
+		List<Audit> result = new ArrayList<>(VERSIONS);
+		for (int i = 0; i < VERSIONS; i++) {
+			if (forgetLatestStates) {
+				AuditDetails.forgetLatestStates();
+			}
+			result.add(write(i, (i == 0) ? Operation.insert : Operation.update));
+		}
+		return result;
+	}
+
+	private Audit write(int version, Operation operation) throws Exception {
+		Audit result = Audit.newInstance();
+		result.setAuditModuleName(Contact.MODULE_NAME);
+		result.setAuditDocumentName(Contact.DOCUMENT_NAME);
+		result.setAuditBizId(auditBizId);
+		result.setAuditBizKey("Audit Details Test");
+		result.setMillis(Long.valueOf(millis(version)));
+		result.setTimestamp(new Timestamp(millis(version)));
+		result.setUserName(USER);
+		result.setOperation(operation);
+		result.setAuditDetail(AuditDetails.encode(c, result, state(version)));
+		p.upsertBeanTuple(result);
+		return result;
+	}
+
+	private static long millis(int version) {
+		return START_MILLIS + (version * 1000L);
+	}
+
+	/**
+	 * The audited state of a version - a changing and an unchanging attribute,
+	 * and a related node that is only there in even versions.
+	 */
+	private Map<String, Object> state(int version) {
+		Map<String, Object> result = new TreeMap<>();
+
+		Map<String, Object> node = new TreeMap<>();
+		node.put(Bean.DOCUMENT_ID, auditBizId);
+		node.put(Contact.namePropertyName, "Version " + version);
+		node.put(Contact.email1PropertyName, "audit@test.com");
+		result.put("", node);
+
+		if ((version % 2) == 0) {
+			Map<String, Object> related = new TreeMap<>();
+			related.put(Bean.DOCUMENT_ID, auditBizId + "-related");
+			related.put(Contact.namePropertyName, "Related");
+			result.put("related", related);
+		}
+
+		return result;
+	}
+}
@@ -0,0 +1,118 @@
+package modules.customers.service;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.locationtech.jts.geom.Point;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Runs the geocoder against a stub Photon server on a local port, so it can be tested and timed offline.
+ * Each test uses its own addresses, as results are cached by address when the geocodes cache is configured.
+ */
+public class PhotonGeocodeServiceImplTest {
+	private static final String FOUND = "{\"features\":[{\"geometry\":{\"type\":\"Point\",\"coordinates\":[153.0251,-27.4698]}}]}";
+	private static final String NOT_FOUND = "{\"features\":[]}";
+
+	private HttpServer server;
+	private PhotonGeocodeServiceImpl service;
+	private final List<String> queries = Collections.synchronizedList(new ArrayList<>());
+	private final AtomicInteger failuresLeft = new AtomicInteger();
+	private volatile String body = FOUND;
+
+	@BeforeEach
+	public void before() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/api/", this::respond);
+		server.start();
+		service = new PhotonGeocodeServiceImpl(String.format("http://127.0.0.1:%d/api/", Integer.valueOf(server.getAddress().getPort())));
+	}
+
+	@AfterEach
+	public void after() {
+		server.stop(0);
+	}
+
+	@Test
+	@Timeout(30)
+	@SuppressWarnings("boxing")
+	public void testGeocodeParsesTheFirstFeature() throws Exception {
+		Point result = service.geocode("1 Stub Street, Brisbane");
+
+		assertThat(result, is(notNullValue()));
+		assertThat(result.getX(), is(153.0251));
+		assertThat(result.getY(), is(-27.4698));
+		assertThat(queries.size(), is(1));
+		assertThat(queries.get(0), is("q=1 stub street, brisbane&limit=1"));
+	}
+
+	@Test
+	@Timeout(30)
+	public void testGeocodeNotFound() throws Exception {
+		body = NOT_FOUND;
+
+		assertThat(service.geocode("2 Nowhere Lane"), is(nullValue()));
+	}
+
+	@Test
+	@Timeout(30)
+	@SuppressWarnings("boxing")
+	public void testGeocodeRetriesWhenUnavailable() throws Exception {
+		failuresLeft.set(1);
+
+		Point result = service.geocode("3 Flaky Road, Brisbane");
+
+		assertThat(result, is(notNullValue()));
+		assertThat(queries.size(), is(2));
+	}
+
+	@Test
+	@Timeout(30)
+	@SuppressWarnings("boxing")
+	public void testGeocodeAsyncRunsConcurrently() throws Exception {
+		List<CompletableFuture<Point>> futures = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			futures.add(service.geocodeAsync(i + " Parallel Avenue, Brisbane"));
+		}
+		CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).get();
+
+		for (CompletableFuture<Point> future : futures) {
+			assertThat(future.get(), is(notNullValue()));
+		}
+		assertThat(queries.size(), is(3));
+	}
+
+	private void respond(HttpExchange exchange) throws IOException {
+		queries.add(exchange.getRequestURI().getQuery());
+
+		int status = 200;
+		byte[] response = body.getBytes(StandardCharsets.UTF_8);
+		if (failuresLeft.getAndUpdate(i -> Math.max(0, i - 1)) > 0) {
+			status = 503;
+			response = new byte[0];
+		}
+
+		exchange.sendResponseHeaders(status, (response.length == 0) ? -1 : response.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(response);
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package modules.customers.service;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class TokenBucketTest {
+	@Test
+	@SuppressWarnings("boxing")
+	public void testBurstIsFree() {
+		TokenBucket bucket = new TokenBucket(3, 1.0);
+
+		assertThat(bucket.reserve(), is(0L));
+		assertThat(bucket.reserve(), is(0L));
+		assertThat(bucket.reserve(), is(0L));
+	}
+
+	@Test
+	@SuppressWarnings("boxing")
+	public void testReservationsBeyondTheBurstWaitForTheRate() {
+		TokenBucket bucket = new TokenBucket(1, 1.0);
+		bucket.reserve();
+
+		// the next token is about a second away, and each further reservation waits a second more
+		long first = bucket.reserve();
+		long second = bucket.reserve();
+		assertThat(first > TimeUnit.MILLISECONDS.toNanos(900), is(true));
+		assertThat(first <= TimeUnit.SECONDS.toNanos(1), is(true));
+		assertThat(second - first > TimeUnit.MILLISECONDS.toNanos(900), is(true));
+	}
+
+	@Test
+	@SuppressWarnings("boxing")
+	public void testTokensRefill() throws Exception {
+		TokenBucket bucket = new TokenBucket(1, 20.0);
+		bucket.reserve();
+
+		Thread.sleep(100L);
+
+		assertThat(bucket.reserve(), is(0L));
+	}
+
+	@Test
+	public void testInvalidRate() {
+		assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0.0));
+		assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1.0));
+	}
+}
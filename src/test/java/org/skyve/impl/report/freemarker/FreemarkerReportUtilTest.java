@@ -0,0 +1,102 @@
+package org.skyve.impl.report.freemarker;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Renders PDFs from HTML readers with a font on the classpath in fonts/.
+ * No font is shipped for the test, so it uses the DejaVu Sans font of the machine running it when there is one.
+ */
+public class FreemarkerReportUtilTest {
+	private static final String[] DEJAVU_SANS = {"/usr/share/fonts/truetype/dejavu/DejaVuSans.ttf",
+													"/usr/share/fonts/dejavu/DejaVuSans.ttf",
+													"/Library/Fonts/DejaVuSans.ttf",
+													"C:/Windows/Fonts/DejaVuSans.ttf"};
+
+	private static final String HTML = "<html><head><style>body { font-family: 'DejaVu Sans'; }</style></head>"
+											+ "<body><p>Font cache test \u00e9\u00e8</p></body></html>";
+
+	@TempDir
+	Path classpath;
+
+	private ClassLoader contextClassLoader;
+	private URLClassLoader fontClassLoader;
+
+	@BeforeEach
+	public void before() throws Exception {
+		Path font = null;
+		for (String candidate : DEJAVU_SANS) {
+			Path path = Paths.get(candidate);
+			if (Files.isReadable(path)) {
+				font = path;
+				break;
+			}
+		}
+		assumeTrue(font != null, "DejaVu Sans is not installed");
+
+		Path fonts = Files.createDirectories(classpath.resolve("fonts"));
+		Files.copy(font, fonts.resolve("DejaVuSans.ttf"));
+
+		// the fonts are found through the context class loader of the thread that initialises the util
+		contextClassLoader = Thread.currentThread().getContextClassLoader();
+		fontClassLoader = new URLClassLoader(new URL[] {classpath.toUri().toURL()}, contextClassLoader);
+		Thread.currentThread().setContextClassLoader(fontClassLoader);
+		FreemarkerReportUtil.init();
+	}
+
+	@AfterEach
+	public void after() throws Exception {
+		if (fontClassLoader != null) {
+			Thread.currentThread().setContextClassLoader(contextClassLoader);
+			FreemarkerReportUtil.init();
+			fontClassLoader.close();
+		}
+	}
+
+	@Test
+	public void testPDFFromReaderEmbedsTheClasspathFont() throws Exception {
+		String pdf = render();
+
+		assertThat(pdf.startsWith("%PDF-"), is(true));
+		assertThat(pdf.contains("DejaVuSans"), is(true));
+		assertThat(pdf.contains("/FontFile2"), is(true));
+	}
+
+	@Test
+	public void testFontsAreResolvedOnceForEveryPDF() throws Exception {
+		render();
+		FreemarkerReportUtil.FontFiles first = FreemarkerReportUtil.fontFiles();
+		String pdf = render();
+
+		assertThat(FreemarkerReportUtil.fontFiles(), is(sameInstance(first)));
+		assertThat(pdf.contains("DejaVuSans"), is(true));
+
+		// init() forgets the fonts so that they are found again
+		FreemarkerReportUtil.init();
+		assertThat(FreemarkerReportUtil.fontFiles(), is(not(sameInstance(first))));
+	}
+
+	private static String render() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		FreemarkerReportUtil.generatePDFFromHTML(new StringReader(HTML), out);
+		// the PDF structure and font names are ASCII
+		return new String(out.toByteArray(), StandardCharsets.ISO_8859_1);
+	}
+}